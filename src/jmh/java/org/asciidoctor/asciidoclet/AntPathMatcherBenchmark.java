@@ -0,0 +1,79 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matching class names against include and exclude filters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AntPathMatcherBenchmark {
+
+    @Param({"org.**", "org.*.builder.**", "**.*Cache?", "org.the.**.value.*"})
+    public String pattern;
+
+    private AntPathMatcher matcher;
+    private AsciidocFilter filter;
+    private List<String> classNames;
+
+    @Setup
+    public void setup() {
+        matcher = new AntPathMatcher.Builder().withPathSeparator('.').build();
+        filter = AsciidocFilter.create(List.of(pattern), List.of());
+        classNames = new BenchmarkCorpus(42).classNames(1000);
+    }
+
+    @Benchmark
+    public int isMatch() {
+        int matches = 0;
+        for (String className : classNames) {
+            if (matcher.isMatch(pattern, className)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public int compiledFilter() {
+        int matches = 0;
+        for (String className : classNames) {
+            if (filter.matches(className)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering an overview file, as the standard doclet reads it.
+ * <p>
+ * A new view is created for every invocation, since views keep their rendered contents.
+ * The fragment cache is disabled, so that every invocation measures an actual conversion.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AsciidocFileViewBenchmark {
+
+    private AsciidoctorConverter converter;
+    private JavaFileObject overview;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        StubReporter reporter = new StubReporter();
+        DocletOptions options = new DocletOptions(reporter);
+        options.collect(AsciidocletOptions.CACHE_MAX_ENTRIES, List.of("0"));
+        converter = new AsciidoctorConverter(options, reporter);
+        String content = new BenchmarkCorpus(42).document(10);
+        overview = new SimpleJavaFileObject(URI.create("file:///overview.adoc"), JavaFileObject.Kind.OTHER) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return content;
+            }
+
+            @Override
+            public String getName() {
+                return "overview.adoc";
+            }
+        };
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        converter.close();
+    }
+
+    @Benchmark
+    public CharSequence getCharContent() throws IOException {
+        return new AsciidocFileView(converter, overview).getCharContent(true);
+    }
+
+    @Benchmark
+    public long openInputStream() throws IOException {
+        long total = 0;
+        byte[] buffer = new byte[8192];
+        try (InputStream in = new AsciidocFileView(converter, overview).openInputStream()) {
+            for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+                total += read;
+            }
+        }
+        return total;
+    }
+}
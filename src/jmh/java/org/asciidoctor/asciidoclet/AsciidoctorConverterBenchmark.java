@@ -0,0 +1,80 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converting whole comments with Asciidoctor.
+ * <p>
+ * The fragment cache is disabled, so that every invocation measures actual conversions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AsciidoctorConverterBenchmark {
+
+    @Param({"BODY_ONLY", "MANY_TAGS", "CODE_BLOCKS", "PLAIN_TEXT"})
+    public BenchmarkCorpus.Kind kind;
+
+    private AsciidoctorConverter converter;
+    private List<String> comments;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        StubReporter reporter = new StubReporter();
+        DocletOptions options = new DocletOptions(reporter);
+        options.collect(AsciidocletOptions.CACHE_MAX_ENTRIES, List.of("0"));
+        converter = new AsciidoctorConverter(options, reporter);
+        comments = new BenchmarkCorpus(42).comments(kind, 20);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        converter.close();
+    }
+
+    @Benchmark
+    public void convert(Blackhole blackhole) {
+        for (String comment : comments) {
+            blackhole.consume(converter.convert(comment));
+        }
+    }
+
+    @Benchmark
+    public List<String> convertAll() {
+        return converter.convertAll(comments);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+import org.asciidoctor.Asciidoctor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading the attributes given on the command line and in an attributes file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AttributesLoaderBenchmark {
+
+    private Asciidoctor asciidoctor;
+    private Path attributesFile;
+    private AttributesLoader loader;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        asciidoctor = Asciidoctor.Factory.create();
+        attributesFile = Files.createTempFile("attributes", ".adoc");
+        StringBuilder attributes = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            attributes.append(":attribute-").append(i).append(": value {attribute-").append(Math.max(0, i - 1)).append("}\n");
+        }
+        Files.write(attributesFile, attributes.toString().getBytes(StandardCharsets.UTF_8));
+
+        StubReporter reporter = new StubReporter();
+        DocletOptions options = new DocletOptions(reporter);
+        options.collect(AsciidocletOptions.ATTRIBUTE, List.of("project_name=Asciidoclet, project_version=2.0.0, draft!"));
+        options.collect(AsciidocletOptions.ATTRIBUTES_FILE, List.of(attributesFile.toString()));
+        loader = new AttributesLoader(asciidoctor, options, reporter);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        asciidoctor.shutdown();
+        Files.deleteIfExists(attributesFile);
+    }
+
+    @Benchmark
+    public Map<String, Object> load() {
+        return loader.load();
+    }
+}
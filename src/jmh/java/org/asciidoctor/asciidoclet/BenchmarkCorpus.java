@@ -0,0 +1,193 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic, synthetic doc comments shaped like the ones found in real code bases.
+ * <p>
+ * Comments are generated from a fixed seed, so every benchmark run works on the same input.
+ */
+public final class BenchmarkCorpus {
+
+    /**
+     * The shapes of comment the conversion benchmarks are run against.
+     */
+    public enum Kind {
+        /** A few paragraphs of prose with inline markup, and no tags. */
+        BODY_ONLY,
+        /** A short body followed by many `@param`, `@return`, `@throws` and `@see` tags. */
+        MANY_TAGS,
+        /** A body made mostly of source listings, as in usage examples. */
+        CODE_BLOCKS,
+        /** A single sentence and a couple of tags, without any markup. */
+        PLAIN_TEXT
+    }
+
+    private static final String[] WORDS = {
+            "the", "builder", "returns", "a", "new", "instance", "of", "configured", "value", "when",
+            "called", "with", "given", "parameters", "and", "throws", "if", "state", "is", "invalid",
+            "this", "method", "uses", "underlying", "cache", "to", "avoid", "repeated", "work", "for"
+    };
+    private static final String[] MARKUP = {"*%s*", "_%s_", "`%s`", "{@code %s}", "{@link %s}", "%s"};
+
+    private final Random random;
+
+    BenchmarkCorpus(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Generates comments of the given kind.
+     *
+     * @param kind  shape of the comments
+     * @param count number of comments
+     */
+    List<String> comments(Kind kind, int count) {
+        List<String> comments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            comments.add(comment(kind));
+        }
+        return comments;
+    }
+
+    String comment(Kind kind) {
+        switch (kind) {
+            case BODY_ONLY:
+                return paragraphs(3);
+            case MANY_TAGS:
+                return paragraphs(1) + "\n" + tags(8);
+            case CODE_BLOCKS:
+                return paragraphs(1) + "\n\n" + listing(12) + "\n\n" + sentence() + "\n\n" + listing(6) + "\n" + tags(2);
+            case PLAIN_TEXT:
+                return plainSentence() + "\n@param " + word() + " " + plainSentence() + "\n@return " + plainSentence();
+            default:
+                throw new IllegalArgumentException(kind.toString());
+        }
+    }
+
+    /**
+     * Generates a standalone AsciiDoc document, such as an overview.
+     *
+     * @param sections number of sections
+     */
+    String document(int sections) {
+        StringBuilder document = new StringBuilder("= Overview\n\n").append(paragraphs(1)).append("\n\n");
+        for (int i = 0; i < sections; i++) {
+            document.append("== Section ").append(i).append("\n\n")
+                    .append(paragraphs(2)).append("\n\n")
+                    .append("* ").append(sentence()).append("\n* ").append(sentence()).append("\n\n")
+                    .append(listing(8)).append("\n\n");
+        }
+        return document.toString();
+    }
+
+    /**
+     * Generates fully qualified class names, as matched by the include and exclude filters.
+     *
+     * @param count number of names
+     */
+    List<String> classNames(int count) {
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int depth = 2 + random.nextInt(4);
+            StringBuilder name = new StringBuilder("org");
+            for (int d = 0; d < depth; d++) {
+                name.append('.').append(word());
+            }
+            name.append('.').append(Character.toUpperCase(word().charAt(0))).append(word()).append(i);
+            names.add(name.toString());
+        }
+        return names;
+    }
+
+    private String paragraphs(int count) {
+        StringBuilder paragraphs = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                paragraphs.append("\n\n");
+            }
+            int sentences = 2 + random.nextInt(3);
+            for (int s = 0; s < sentences; s++) {
+                if (s > 0) {
+                    paragraphs.append(random.nextBoolean() ? " " : "\n ");
+                }
+                paragraphs.append(sentence());
+            }
+        }
+        return paragraphs.toString();
+    }
+
+    private String tags(int count) {
+        StringBuilder tags = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            switch (i % 5) {
+                case 0:
+                case 1:
+                    tags.append("@param ").append(word()).append(i).append(' ').append(sentence());
+                    break;
+                case 2:
+                    tags.append("@throws IllegalStateException ").append(sentence());
+                    break;
+                case 3:
+                    tags.append("@see ").append("Foo#").append(word()).append("()");
+                    break;
+                default:
+                    tags.append("@return ").append(sentence());
+                    break;
+            }
+            tags.append('\n');
+        }
+        return tags.toString();
+    }
+
+    private String listing(int lines) {
+        StringBuilder listing = new StringBuilder("[source,java]\n----\n");
+        for (int i = 0; i < lines; i++) {
+            listing.append("    ").append(word()).append(" = ").append(word()).append('.').append(word())
+                    .append("(\"").append(word()).append("\", ").append(i).append(");\n");
+        }
+        return listing.append("----").toString();
+    }
+
+    private String sentence() {
+        return sentence(true);
+    }
+
+    private String plainSentence() {
+        return sentence(false);
+    }
+
+    private String sentence(boolean markup) {
+        int words = 6 + random.nextInt(10);
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sentence.append(' ');
+            }
+            String word = word();
+            sentence.append(markup && random.nextInt(6) == 0 ? String.format(MARKUP[random.nextInt(MARKUP.length)], word) : word);
+        }
+        return sentence.append('.').toString();
+    }
+
+    private String word() {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cleaning the Javadoc leftovers out of comment fragments before they reach Asciidoctor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CleanJavadocInputBenchmark {
+
+    @Param({"BODY_ONLY", "MANY_TAGS", "CODE_BLOCKS"})
+    public BenchmarkCorpus.Kind kind;
+
+    private List<String> comments;
+
+    @Setup
+    public void setup() {
+        comments = new BenchmarkCorpus(42).comments(kind, 100);
+    }
+
+    @Benchmark
+    public void cleanJavadocInput(Blackhole blackhole) {
+        for (String comment : comments) {
+            blackhole.consume(AsciidoctorConverter.cleanJavadocInput(comment));
+        }
+    }
+
+    @Benchmark
+    public void regexBaseline(Blackhole blackhole) {
+        for (String comment : comments) {
+            blackhole.consume(regexCleanJavadocInput(comment));
+        }
+    }
+
+    // The implementation cleanJavadocInput replaced, one regular expression per rule.
+    private static String regexCleanJavadocInput(String input) {
+        return input.trim()
+                .replaceAll("\n ", "\n")
+                .replaceAll("\\{at}", "&#64;")
+                .replaceAll("\\{slash}", "/")
+                .replaceAll("(?m)^( *)\\*\\\\/$", "$1*/");
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Splitting raw comments into body and block tags.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JavadocParserBenchmark {
+
+    @Param({"BODY_ONLY", "MANY_TAGS", "CODE_BLOCKS"})
+    public BenchmarkCorpus.Kind kind;
+
+    private List<String> comments;
+
+    @Setup
+    public void setup() {
+        comments = new BenchmarkCorpus(42).comments(kind, 100);
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) {
+        for (String comment : comments) {
+            JavadocParser parser = JavadocParser.parse(comment);
+            blackhole.consume(parser.getCommentBody());
+            blackhole.consume(parser.tags());
+        }
+    }
+
+    @Benchmark
+    public void regexBaseline(Blackhole blackhole) {
+        for (String comment : comments) {
+            RegexJavadocParser parser = RegexJavadocParser.parse(comment);
+            blackhole.consume(parser.commentBody);
+            blackhole.consume(parser.tags());
+        }
+    }
+}
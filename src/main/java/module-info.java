@@ -20,6 +20,7 @@ module asciidoclet {
     requires java.base;
     requires jdk.compiler;
     requires jdk.javadoc;
+    requires jdk.jfr;
     requires asciidoctorj;
     requires asciidoctorj.api;
     exports org.asciidoctor.asciidoclet;
@@ -45,13 +45,17 @@ import javax.lang.model.type.TypeMirror;
 import javax.tools.Diagnostic;
 import javax.tools.FileObject;
 import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
 import javax.tools.StandardJavaFileManager;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.text.BreakIterator;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static javax.tools.StandardLocation.SOURCE_PATH;
 
@@ -61,11 +65,17 @@ class AsciiDocTrees extends DocTrees {
     private final StandardJavaFileManager fileManager;
     private final DocTrees docTrees;
     private final Field elementsField;
+    private final DocCommentTableTracker docCommentTables;
+    private final boolean batchUnits;
+    // Compilation units do not define equality, so they are looked up by identity.
+    private final Map<CompilationUnitTree, Boolean> asciidocUnits = new ConcurrentHashMap<>();
 
-    AsciiDocTrees(AsciidoctorConverter converter, StandardJavaFileManager fileManager, DocTrees docTrees) {
+    AsciiDocTrees(AsciidoctorConverter converter, StandardJavaFileManager fileManager, DocTrees docTrees, boolean batchUnits) {
         this.converter = converter;
         this.fileManager = fileManager;
         this.docTrees = docTrees;
+        this.docCommentTables = new DocCommentTableTracker(converter.stats());
+        this.batchUnits = batchUnits;
         try {
             this.elementsField = docTrees.getClass().getDeclaredField("elements");
             this.elementsField.setAccessible(true);
@@ -81,26 +91,127 @@ class AsciiDocTrees extends DocTrees {
 
     @Override
     public String getDocComment(TreePath path) {
-        return converter.convert(docTrees.getDocComment(path));
+        if (!isAsciidoc(path.getCompilationUnit())) {
+            return docTrees.getDocComment(path);
+        }
+        final long start = System.nanoTime();
+        String docComment = AsciidocletEvents.withElement(() -> elementName(path), () -> converter.convert(docTrees.getDocComment(path)));
+        converter.slowestComments().record(System.nanoTime() - start, () -> elementName(path), () -> position(path, commentOf(path)));
+        return docComment;
     }
 
     @Override
     public DocCommentTree getDocCommentTree(TreePath path) {
-        // First we convert the asciidoctor to HTML inside the AST.
+        // First we wrap the comments inside the AST, so that they are converted to HTML when read.
         JCTree.JCCompilationUnit cu = (JCTree.JCCompilationUnit) path.getCompilationUnit();
-        LazyDocCommentTableProcessor.processComments(cu.docComments, this::convertToAsciidoctor);
+        if (isAsciidoc(cu)) {
+            docCommentTables.process(cu.docComments, this::wrap);
+        }
         // Then we allow the normal javadoc parsing to continue on the asciidoctor result.
-        return docTrees.getDocCommentTree(path);
+        DocCommentTree tree = AsciidocletEvents.withElement(() -> elementName(path), () -> docTrees.getDocCommentTree(path));
+        if (converter.slowestComments().isEnabled()) {
+            // The comment of the element is converted while the tree is parsed, unless it was requested before.
+            Tokens.Comment comment = commentOf(path);
+            if (comment instanceof AsciidocComment) {
+                long nanos = ((AsciidocComment) comment).takeConversionNanos();
+                if (nanos > 0) {
+                    converter.slowestComments().record(nanos, () -> elementName(path), () -> position(path, comment));
+                }
+            }
+        }
+        return tree;
     }
 
-    private Tokens.Comment convertToAsciidoctor(Tokens.Comment comment) {
-        String asciidoc = convertJavadocStringToAsciidoctorString(comment.getText());
-        AsciidocComment result = new AsciidocComment(asciidoc, comment);
+    private List<Tokens.Comment> wrap(List<Tokens.Comment> comments) {
+        if (batchUnits) {
+            return AsciidocComment.unit(converter, comments);
+        }
+        List<Tokens.Comment> result = new ArrayList<>(comments.size());
+        for (Tokens.Comment comment : comments) {
+            result.add(new AsciidocComment(converter, comment));
+        }
         return result;
     }
 
-    private String convertJavadocStringToAsciidoctorString(String javadocString) {
-        return converter.convert(javadocString);
+    /**
+     * Tells whether the comments of an element are processed as AsciiDoc, see {@link #isAsciidoc(CompilationUnitTree)}.
+     *
+     * @param element a documented element
+     */
+    boolean isAsciidoc(Element element) {
+        TreePath path = getPath(element);
+        return path != null && isAsciidoc(path.getCompilationUnit());
+    }
+
+    /**
+     * Tells whether the comments of a compilation unit are processed as AsciiDoc.
+     * <p>
+     * The comments of a compilation unit are processed together, so they are included when the
+     * package, for `package-info.java`, or any top level class matches the filter, or when its
+     * comment has the {@value AsciidocFilter#OPT_IN_TAG} tag.
+     * The decision is made before any comment of the unit is converted, and then remembered.
+     */
+    private boolean isAsciidoc(CompilationUnitTree cu) {
+        if (converter.filter().isEverything()) {
+            return true;
+        }
+        return asciidocUnits.computeIfAbsent(cu, this::matchesFilter);
+    }
+
+    private boolean matchesFilter(CompilationUnitTree unit) {
+        JCTree.JCCompilationUnit cu = (JCTree.JCCompilationUnit) unit;
+        AsciidocFilter filter = converter.filter();
+        String packageName = cu.getPackageName() == null ? "" : cu.getPackageName().toString();
+        if (cu.getSourceFile().isNameCompatible("package-info", JavaFileObject.Kind.SOURCE)) {
+            return filter.matches(packageName) || hasOptInTag(cu, (JCTree) cu.getPackage());
+        }
+        for (Tree typeDecl : cu.getTypeDecls()) {
+            if (typeDecl instanceof JCTree.JCClassDecl) {
+                String simpleName = ((JCTree.JCClassDecl) typeDecl).getSimpleName().toString();
+                String name = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+                if (filter.matches(name) || hasOptInTag(cu, (JCTree) typeDecl)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasOptInTag(JCTree.JCCompilationUnit cu, JCTree tree) {
+        if (tree == null || cu.docComments == null) {
+            return false;
+        }
+        Tokens.Comment comment = cu.docComments.getComment(tree);
+        return comment != null && AsciidocFilter.hasOptInTag(comment.getText());
+    }
+
+    private String elementName(TreePath path) {
+        Element element = docTrees.getElement(path);
+        if (element == null) {
+            return path.getCompilationUnit().getSourceFile().getName();
+        }
+        if (element instanceof TypeElement || element instanceof PackageElement) {
+            return element.toString();
+        }
+        return element.getEnclosingElement() + "#" + element;
+    }
+
+    // The comment of the element, or null if javac kept no comment table for its compilation unit.
+    private static Tokens.Comment commentOf(TreePath path) {
+        CompilationUnitTree cu = path.getCompilationUnit();
+        if (!(cu instanceof JCTree.JCCompilationUnit) || ((JCTree.JCCompilationUnit) cu).docComments == null) {
+            return null;
+        }
+        return ((JCTree.JCCompilationUnit) cu).docComments.getComment((JCTree) path.getLeaf());
+    }
+
+    private static String position(TreePath path, Tokens.Comment comment) {
+        CompilationUnitTree cu = path.getCompilationUnit();
+        String file = cu.getSourceFile().getName();
+        if (comment == null || cu.getLineMap() == null) {
+            return file;
+        }
+        return file + ":" + cu.getLineMap().getLineNumber(comment.getSourcePos(0));
     }
 
     @Override
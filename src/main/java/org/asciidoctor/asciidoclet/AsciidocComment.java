@@ -17,19 +17,98 @@ package org.asciidoctor.asciidoclet;
 
 import com.sun.tools.javac.parser.Tokens;
 
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A doc comment whose text is converted by Asciidoctor the first time it is requested.
+ * <p>
+ * Javadoc only reads the text of the comments it emits, so the comments of members hidden
+ * by the access level options, such as `-public`, are never converted.
+ * <p>
+ * Comments created by {@link #unit(AsciidoctorConverter, List)} are instead converted
+ * together: the first request converts all the comments of the unit not converted yet,
+ * in a single call.
+ */
 class AsciidocComment implements Tokens.Comment {
 
-    private final String asciidoc;
+    private final AsciidoctorConverter converter;
     private final Tokens.Comment comment;
+    // The comments converted together with this one, or null.
+    private final List<AsciidocComment> unit;
+    private volatile String asciidoc;
+    private long conversionNanos;
 
-    AsciidocComment(String asciidoc, Tokens.Comment comment) {
-        this.asciidoc = asciidoc;
+    AsciidocComment(AsciidoctorConverter converter, Tokens.Comment comment) {
+        this(converter, comment, null);
+    }
+
+    private AsciidocComment(AsciidoctorConverter converter, Tokens.Comment comment, List<AsciidocComment> unit) {
+        this.converter = converter;
         this.comment = comment;
+        this.unit = unit;
+    }
+
+    /**
+     * Wraps the comments of a compilation unit, so that they are converted together.
+     *
+     * @param converter converts the comments
+     * @param comments  the comments of the unit
+     * @return the wrapped comments, in order
+     */
+    static List<Tokens.Comment> unit(AsciidoctorConverter converter, List<Tokens.Comment> comments) {
+        final List<AsciidocComment> unit = new ArrayList<>(comments.size());
+        for (Tokens.Comment comment : comments) {
+            unit.add(new AsciidocComment(converter, comment, unit));
+        }
+        return new ArrayList<>(unit);
     }
 
     @Override
     public String getText() {
-        return asciidoc;
+        String text = asciidoc;
+        if (text == null) {
+            if (unit != null) {
+                return convertUnit();
+            }
+            final long start = System.nanoTime();
+            text = converter.convert(comment.getText());
+            conversionNanos = System.nanoTime() - start;
+            asciidoc = text;
+        }
+        return text;
+    }
+
+    // The whole conversion is counted for the comment that triggered it.
+    private String convertUnit() {
+        synchronized (unit) {
+            if (asciidoc == null) {
+                final List<AsciidocComment> pending = new ArrayList<>(unit.size());
+                final List<String> texts = new ArrayList<>(unit.size());
+                for (AsciidocComment member : unit) {
+                    if (member.asciidoc == null) {
+                        pending.add(member);
+                        texts.add(member.comment.getText());
+                    }
+                }
+                final long start = System.nanoTime();
+                final List<String> converted = converter.convertAll(texts);
+                conversionNanos = System.nanoTime() - start;
+                for (int i = 0; i < pending.size(); i++) {
+                    pending.get(i).asciidoc = converted.get(i);
+                }
+            }
+            return asciidoc;
+        }
+    }
+
+    /**
+     * Returns how long converting the comment took, the first time it is called after the conversion, and 0 otherwise.
+     */
+    long takeConversionNanos() {
+        long nanos = conversionNanos;
+        conversionNanos = 0;
+        return nanos;
     }
 
     @Override
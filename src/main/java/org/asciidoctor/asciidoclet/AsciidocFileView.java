@@ -19,25 +19,31 @@ import javax.lang.model.element.Modifier;
 import javax.lang.model.element.NestingKind;
 import javax.tools.FileObject;
 import javax.tools.JavaFileObject;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Reader;
-import java.io.StringReader;
 import java.io.Writer;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
 
 /**
  * Handles other documents like the overview.
+ * <p>
+ * The rendered document is held once, as the HTML returned by Asciidoctor wrapped in a `<body>` view.
+ * Readers and input streams read from that copy instead of materializing their own.
  */
 class AsciidocFileView implements JavaFileObject {
 
     private final AsciidoctorConverter converter;
     private final FileObject fileObject;
-    private String renderedContents;
+    private CharSequence renderedContents;
 
     AsciidocFileView(AsciidoctorConverter converter, FileObject fileObject) {
         this.converter = converter;
@@ -71,7 +77,7 @@ class AsciidocFileView implements JavaFileObject {
 
     @Override
     public InputStream openInputStream() throws IOException {
-        return new ByteArrayInputStream(getCharContent(true).getBytes(Charset.defaultCharset()));
+        return new EncodingInputStream(getCharContent(true), Charset.defaultCharset());
     }
 
     @Override
@@ -81,20 +87,37 @@ class AsciidocFileView implements JavaFileObject {
 
     @Override
     public Reader openReader(boolean ignoreEncodingErrors) throws IOException {
-        return new StringReader(getCharContent(ignoreEncodingErrors));
+        return new CharSequenceReader(getCharContent(ignoreEncodingErrors));
     }
 
     @Override
-    public String getCharContent(boolean ignoreEncodingErrors) throws IOException {
+    public CharSequence getCharContent(boolean ignoreEncodingErrors) throws IOException {
         if (renderedContents == null) {
-            renderedContents = fileObject.getCharContent(ignoreEncodingErrors).toString();
             if (isAsciidoctorFile(fileObject.getName())) {
-                renderedContents = "<body>" + converter.convert(renderedContents) + "</body>";
+                renderedContents = new BodyView(converter.renderedFiles().get(fileObject, ignoreEncodingErrors, fo -> render(fo, ignoreEncodingErrors)));
+            } else {
+                renderedContents = fileObject.getCharContent(ignoreEncodingErrors);
             }
         }
         return renderedContents;
     }
 
+    private String render(FileObject fo, boolean ignoreEncodingErrors) throws IOException {
+        final AsciidocletEvents.OverviewRendering event = new AsciidocletEvents.OverviewRendering();
+        event.begin();
+        final long start = System.nanoTime();
+        String source = fo.getCharContent(ignoreEncodingErrors).toString();
+        String html = converter.convert(source);
+        converter.stats().fileRendered(System.nanoTime() - start, source.length(), html.length());
+        if (event.shouldCommit()) {
+            event.file = fo.getName();
+            event.sourceLength = source.length();
+            event.htmlLength = html.length();
+            event.commit();
+        }
+        return html;
+    }
+
     @Override
     public Writer openWriter() throws IOException {
         return fileObject.openWriter();
@@ -134,4 +157,174 @@ class AsciidocFileView implements JavaFileObject {
     <T extends FileObject> T unwrap() {
         return (T) fileObject;
     }
+
+    /**
+     * `<body>` + html + `</body>`, without copying the html.
+     * Subsequences are views over the same html.
+     */
+    static final class BodyView implements CharSequence {
+
+        private static final String PREFIX = "<body>";
+        private static final String SUFFIX = "</body>";
+
+        private final String html;
+        // Window over `<body>` + html + `</body>`.
+        private final int start;
+        private final int length;
+
+        BodyView(String html) {
+            this(html, 0, PREFIX.length() + html.length() + SUFFIX.length());
+        }
+
+        private BodyView(String html, int start, int length) {
+            this.html = html;
+            this.start = start;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            int bodyIndex = start + index;
+            if (bodyIndex < PREFIX.length()) {
+                return PREFIX.charAt(bodyIndex);
+            }
+            int htmlIndex = bodyIndex - PREFIX.length();
+            if (htmlIndex < html.length()) {
+                return html.charAt(htmlIndex);
+            }
+            return SUFFIX.charAt(htmlIndex - html.length());
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            if (start < 0 || end > length || start > end) {
+                throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+            }
+            return new BodyView(html, this.start + start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            final int end = start + length;
+            final int htmlEnd = PREFIX.length() + html.length();
+            final StringBuilder out = new StringBuilder(length);
+            appendRange(out, PREFIX, 0, start, end);
+            appendRange(out, html, PREFIX.length(), start, end);
+            appendRange(out, SUFFIX, htmlEnd, start, end);
+            return out.toString();
+        }
+
+        // Appends the part of a piece, placed at the given offset, that falls within [start, end).
+        private static void appendRange(StringBuilder out, String piece, int offset, int start, int end) {
+            final int from = Math.max(start, offset) - offset;
+            final int to = Math.min(end, offset + piece.length()) - offset;
+            if (from < to) {
+                out.append(piece, from, to);
+            }
+        }
+    }
+
+    private static final class CharSequenceReader extends Reader {
+
+        private final CharSequence contents;
+        private int position;
+
+        CharSequenceReader(CharSequence contents) {
+            this.contents = contents;
+        }
+
+        @Override
+        public int read() {
+            return position < contents.length() ? contents.charAt(position++) : -1;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (position >= contents.length()) {
+                return -1;
+            }
+            int count = Math.min(length, contents.length() - position);
+            for (int i = 0; i < count; i++) {
+                buffer[offset + i] = contents.charAt(position++);
+            }
+            return count;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * Encodes the contents a buffer at a time, as they are read.
+     */
+    private static final class EncodingInputStream extends InputStream {
+
+        private static final int BUFFER_SIZE = 8192;
+
+        private final CharBuffer source;
+        private final CharsetEncoder encoder;
+        private final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+        private boolean encoded;
+        private boolean flushed;
+
+        EncodingInputStream(CharSequence contents, Charset charset) {
+            this.source = CharBuffer.wrap(contents);
+            // Same replacement behaviour as String.getBytes(Charset).
+            this.encoder = charset.newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            bytes.flip();
+        }
+
+        @Override
+        public int read() throws IOException {
+            return fill() ? bytes.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int count = Math.min(length, bytes.remaining());
+            bytes.get(buffer, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return bytes.remaining();
+        }
+
+        private boolean fill() throws IOException {
+            while (!bytes.hasRemaining() && !flushed) {
+                bytes.clear();
+                CoderResult result = encoded ? CoderResult.UNDERFLOW : encoder.encode(source, bytes, true);
+                if (result.isError()) {
+                    result.throwException();
+                }
+                if (result.isUnderflow()) {
+                    encoded = true;
+                    flushed = !encoder.flush(bytes).isOverflow();
+                }
+                bytes.flip();
+            }
+            return bytes.hasRemaining();
+        }
+    }
 }
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Decides which classes and packages have their comments processed as AsciiDoc, from the
+ * `--asciidoclet-include` and `--asciidoclet-exclude` options.
+ * <p>
+ * Names are matched as by {@link AntPathMatcher}, with `.` as the path separator. Rather than
+ * walking every pattern recursively for every name, the patterns of each option are compiled
+ * once into a single regular expression with the same semantics.
+ */
+final class AsciidocFilter {
+
+    /**
+     * The block tag that opts a class or package in, whatever the filters.
+     */
+    static final String OPT_IN_TAG = "@asciidoclet";
+
+    private static final char SEPARATOR = '.';
+    private static final AsciidocFilter EVERYTHING = new AsciidocFilter(null, null);
+
+    private final Pattern include;
+    private final Pattern exclude;
+
+    private AsciidocFilter(Pattern include, Pattern exclude) {
+        this.include = include;
+        this.exclude = exclude;
+    }
+
+    /**
+     * Creates a filter.
+     *
+     * @param includes patterns of the names to process, or none to process all names
+     * @param excludes patterns of the names not to process
+     */
+    static AsciidocFilter create(List<String> includes, List<String> excludes) {
+        if (includes.isEmpty() && excludes.isEmpty()) {
+            return EVERYTHING;
+        }
+        return new AsciidocFilter(compile(includes), compile(excludes));
+    }
+
+    private static Pattern compile(List<String> antPatterns) {
+        if (antPatterns.isEmpty()) {
+            return null;
+        }
+        StringBuilder regex = new StringBuilder();
+        for (String antPattern : antPatterns) {
+            if (regex.length() > 0) {
+                regex.append('|');
+            }
+            regex.append("(?:").append(toRegex(antPattern)).append(')');
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    /**
+     * Returns true if every name is processed, so that callers can skip looking names up.
+     */
+    boolean isEverything() {
+        return include == null && exclude == null;
+    }
+
+    /**
+     * Tells whether the comments of a class or package are processed.
+     *
+     * @param qualifiedName the fully qualified name of a class or package
+     */
+    boolean matches(String qualifiedName) {
+        return (include == null || include.matcher(qualifiedName).matches())
+                && (exclude == null || !exclude.matcher(qualifiedName).matches());
+    }
+
+    /**
+     * Tells whether a raw doc comment has the {@value #OPT_IN_TAG} tag.
+     *
+     * @param comment the text of a doc comment, or null
+     */
+    static boolean hasOptInTag(String comment) {
+        if (comment == null || !comment.contains(OPT_IN_TAG)) {
+            return false;
+        }
+        for (JavadocParser.Tag tag : JavadocParser.parse(comment).tags()) {
+            if (tag.name().equals(OPT_IN_TAG)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Translates an Ant-style pattern into a regular expression matching the same names as
+     * {@link AntPathMatcher#isMatch(String, String)}, quirks included:
+     *
+     * * `?` matches any character, including the separator,
+     * * a trailing `*` matches within a segment, any other `*` across segments,
+     * * `**` followed by a character also matches nothing, skipping that character,
+     * * a separator also matches the end of the name, unless it is followed by a trailing `*`.
+     *
+     * The regular expression is meant to be compiled with {@link Pattern#DOTALL}.
+     *
+     * @param antPattern the pattern
+     */
+    static String toRegex(String antPattern) {
+        return toRegex(antPattern, 0, new StringBuilder()).toString();
+    }
+
+    private static StringBuilder toRegex(String pattern, int from, StringBuilder regex) {
+        final int length = pattern.length();
+        for (int i = from; i < length; i++) {
+            char c = pattern.charAt(i);
+            if (c != '*') {
+                appendToken(pattern, i, regex);
+            } else if (i == length - 1) {
+                regex.append("[^").append(Pattern.quote(String.valueOf(SEPARATOR))).append("]*");
+            } else if (pattern.charAt(i + 1) == '*' && length - i > 2) {
+                if (pattern.charAt(i + 2) != '*') {
+                    // Either skip "**" and the next character, or match anything up to that character.
+                    regex.append("(?:.*");
+                    appendToken(pattern, i + 2, regex);
+                    regex.append(")?");
+                    i += 2;
+                } else {
+                    regex.append("(?:");
+                    toRegex(pattern, i + 3, regex).append("|.*");
+                    toRegex(pattern, i + 1, regex).append(')');
+                    return regex;
+                }
+            } else {
+                regex.append(".*");
+            }
+        }
+        return regex;
+    }
+
+    private static void appendToken(String pattern, int i, StringBuilder regex) {
+        char c = pattern.charAt(i);
+        if (c == '?') {
+            regex.append('.');
+        } else if (c == SEPARATOR) {
+            String separator = Pattern.quote(String.valueOf(SEPARATOR));
+            if (pattern.length() - i == 2 && pattern.charAt(i + 1) == '*') {
+                regex.append(separator);
+            } else {
+                regex.append("(?:").append(separator).append("|\\z)");
+            }
+        } else if (Character.isLetterOrDigit(c)) {
+            regex.append(c);
+        } else {
+            regex.append(Pattern.quote(String.valueOf(c)));
+        }
+    }
+}
@@ -21,10 +21,16 @@ import jdk.javadoc.doclet.Reporter;
 import jdk.javadoc.doclet.StandardDoclet;
 
 import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Set;
+import java.util.function.Predicate;
 
 /**
  * = Asciidoclet
@@ -43,7 +49,7 @@ import java.util.Set;
  * `+{project_desc}+`;; {project_desc}
  * `+{project_version}+`;; {project_version}
  * <p>
- * Code block (with syntax highlighting added by CodeRay)::
+ * Code block (with syntax highlighting added by the built-in highlighter)::
  * +
  * [source,java]
  * --
@@ -176,7 +182,7 @@ public class Asciidoclet implements Doclet {
     private DocletOptions docletOptions;
     private Stylesheets stylesheets;
     private Reporter reporter;
-    
+
     /**
      * Creates a new {@link Asciidoclet} object.
      */
@@ -212,14 +218,47 @@ public class Asciidoclet implements Doclet {
     @Override
     public boolean run(DocletEnvironment environment) {
         docletOptions.validate();
-        AsciidoctorConverter converter = new AsciidoctorConverter(docletOptions, reporter);
         boolean result;
-        try (AsciidoctorFilteredEnvironment env = new AsciidoctorFilteredEnvironment(environment, converter)) {
+        // Boot JRuby while the standard doclet sets up.
+        try (AsciidoctorConverter converter = new AsciidoctorConverter(docletOptions, reporter, AsciidoctorWarmUp.start(docletOptions));
+             AsciidoctorFilteredEnvironment env = new AsciidoctorFilteredEnvironment(environment, converter, docletOptions.batchUnits())) {
+            if (docletOptions.prerenderThreads() > 0) {
+                converter.prerender(docComments(environment, env::isAsciidoc), docletOptions.prerenderThreads());
+            }
             result = standardDoclet.run(env);
+            converter.stats().report(docletOptions.stats(), reporter, environment.getJavaFileManager());
+            converter.slowestComments().report(reporter);
         }
         return result && postProcess(environment);
     }
 
+    // Included members are not part of the included elements, which only go down to types.
+    private static List<String> docComments(DocletEnvironment environment, Predicate<Element> isAsciidoc) {
+        Elements elements = environment.getElementUtils();
+        List<String> docComments = new ArrayList<>();
+        for (Element element : environment.getIncludedElements()) {
+            if (!isAsciidoc.test(element)) {
+                continue;
+            }
+            addDocComment(elements, element, docComments);
+            if (element instanceof TypeElement) {
+                for (Element member : element.getEnclosedElements()) {
+                    if (!(member instanceof TypeElement) && environment.isIncluded(member)) {
+                        addDocComment(elements, member, docComments);
+                    }
+                }
+            }
+        }
+        return docComments;
+    }
+
+    private static void addDocComment(Elements elements, Element element, List<String> docComments) {
+        String docComment = elements.getDocComment(element);
+        if (docComment != null) {
+            docComments.add(docComment);
+        }
+    }
+
     private boolean postProcess(DocletEnvironment environment) {
         if (docletOptions.stylesheet().isPresent()) {
             return true;
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+import org.asciidoctor.Asciidoctor;
+import org.asciidoctor.ast.ContentNode;
+import org.asciidoctor.ast.Section;
+import org.asciidoctor.ast.StructuralNode;
+import org.asciidoctor.converter.ConverterFor;
+import org.asciidoctor.converter.StringConverter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+/**
+ * Renders paragraphs and sections as Javadoc expects them, for the `html5` converter used by Asciidoclet.
+ * <p>
+ * Paragraphs are rendered as bare `<p>` elements, without the wrapping `<div>` and the title, and
+ * sections as a heading followed by their content, without the wrapping `<div>`, the section numbers
+ * and the anchors. Every other node is rendered by the built-in Asciidoctor `html5` converter.
+ * <p>
+ * This replaces the `paragraph.html.haml` and `section.html.haml` templates with the same output, so
+ * that the most frequent nodes are rendered in Java instead of having Haml evaluated for each of them.
+ * <p>
+ * AsciidoctorJ only registers whole converters, which cannot extend the built-in Ruby one. The `html5`
+ * backend is therefore a small subclass of the built-in converter, loaded from
+ * `converter/asciidoclet_html5.rb`, which hands paragraphs and sections to this converter,
+ * {@link Nodes}, registered as the {@value #BACKEND} backend. Only public AsciidoctorJ APIs are involved.
+ */
+final class AsciidocletConverter {
+
+    static final String BACKEND = "asciidoclet-nodes";
+
+    private static final String HTML5_CONVERTER = "/converter/asciidoclet_html5.rb";
+    private static final String BUILT_IN_CONVERTER_LIBRARY = "asciidoctor/converter/html5";
+
+    private AsciidocletConverter() {
+    }
+
+    /**
+     * Registers the converter as the `html5` backend of an Asciidoctor instance.
+     * <p>
+     * When the `html5` converter cannot be extended, for instance with an Asciidoctor gem of another
+     * major version from the `--gem-path`, nothing is registered, and the output templates are used instead.
+     *
+     * @param asciidoctor instance whose documents are rendered by this converter from now on
+     */
+    static void register(Asciidoctor asciidoctor) {
+        // Built-in converters register themselves when loaded, which must not happen after this registration.
+        asciidoctor.requireLibrary(BUILT_IN_CONVERTER_LIBRARY);
+        try (InputStream html5Converter = AsciidocletConverter.class.getResourceAsStream(HTML5_CONVERTER)) {
+            asciidoctor.rubyExtensionRegistry().loadClass(html5Converter);
+        } catch (IOException | RuntimeException e) {
+            return;
+        }
+        asciidoctor.javaConverterRegistry().register(Nodes.class, BACKEND);
+    }
+
+    /**
+     * Tells whether the converter renders the documents of an Asciidoctor instance, see {@link #register(Asciidoctor)}.
+     *
+     * @param asciidoctor an instance created by the pool
+     */
+    static boolean isRegistered(Asciidoctor asciidoctor) {
+        return asciidoctor.javaConverterRegistry().converters().containsKey(BACKEND);
+    }
+
+    /**
+     * The converter of paragraphs and sections.
+     * <p>
+     * AsciidoctorJ creates converters reflectively from another module, which requires a public class.
+     */
+    @ConverterFor(value = BACKEND, suffix = ".html")
+    public static final class Nodes extends StringConverter {
+
+        /**
+         * Creates a converter, as done by Asciidoctor for each document.
+         *
+         * @param backend the backend name
+         * @param opts    the converter options
+         */
+        public Nodes(String backend, Map<String, Object> opts) {
+            super(backend, opts);
+        }
+
+        @Override
+        public String convert(ContentNode node, String transform, Map<Object, Object> opts) {
+            switch (transform != null ? transform : node.getNodeName()) {
+                case "paragraph":
+                    return convertParagraph((StructuralNode) node);
+                case "section":
+                    return convertSection((Section) node);
+                default:
+                    throw new IllegalArgumentException("Unexpected " + node.getNodeName() + " node");
+            }
+        }
+    }
+
+    private static String convertParagraph(StructuralNode node) {
+        final StringBuilder html = new StringBuilder("<p");
+        appendAttribute(html, "class", node.getRole());
+        appendAttribute(html, "id", node.getId());
+        return html.append('>').append(node.getContent()).append("</p>").toString();
+    }
+
+    private static String convertSection(Section node) {
+        final String heading = "h" + (node.getLevel() + 1);
+        final StringBuilder html = new StringBuilder("<").append(heading);
+        appendAttribute(html, "id", node.getId());
+        html.append('>');
+        if (node.getTitle() != null) {
+            html.append(node.getTitle());
+        }
+        html.append("</").append(heading).append(">\n");
+        final String content = (String) node.getContent();
+        if (node.getLevel() == 1) {
+            html.append("<div class=\"sectionbody\">\n").append(content).append("\n</div>");
+        } else {
+            html.append(content);
+        }
+        return html.toString().stripTrailing();
+    }
+
+    // Attribute values are not escaped, as with the escape_attrs option the templates were rendered with.
+    private static void appendAttribute(StringBuilder html, String name, String value) {
+        if (value != null) {
+            html.append(' ').append(name).append("=\"").append(value).append('"');
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.function.Supplier;
+
+/**
+ * Java Flight Recorder events for the work Asciidoclet adds to a javadoc run.
+ * <p>
+ * Events follow the usual pattern: `begin()` before the work, then fields are only set when
+ * `shouldCommit()`, so that they cost next to nothing when no recording is running.
+ */
+final class AsciidocletEvents {
+
+    private static final String CATEGORY = "Asciidoclet";
+
+    // The documented element the javadoc thread is reading the comment of, when conversion events are recorded.
+    private static final ThreadLocal<String> CURRENT_ELEMENT = new ThreadLocal<>();
+
+    private AsciidocletEvents() {
+    }
+
+    /**
+     * Runs an action that may convert the comment of an element, so that conversion events name that element.
+     *
+     * @param element the name of the element, only computed when conversions are recorded
+     * @param action  reads the comment
+     */
+    static <T> T withElement(Supplier<String> element, Supplier<T> action) {
+        if (!CommentConversion.TYPE.isEnabled()) {
+            return action.get();
+        }
+        String previous = CURRENT_ELEMENT.get();
+        CURRENT_ELEMENT.set(element.get());
+        try {
+            return action.get();
+        } finally {
+            CURRENT_ELEMENT.set(previous);
+        }
+    }
+
+    static String currentElement() {
+        String element = CURRENT_ELEMENT.get();
+        return element != null ? element : "";
+    }
+
+    @Name("org.asciidoctor.asciidoclet.CommentConversion")
+    @Label("Comment Conversion")
+    @Description("Conversion of comment fragments by Asciidoctor, on their own or in a batch")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class CommentConversion extends Event {
+
+        // Checked before computing element names, which is the only work done outside of an event.
+        private static final EventType TYPE = EventType.getEventType(CommentConversion.class);
+
+        @Label("Element")
+        @Description("The documented element, when the conversion was requested by the standard doclet")
+        String element;
+
+        @Label("Fragment Length")
+        @Description("Characters of AsciiDoc converted")
+        int fragmentLength;
+
+        @Label("Inline")
+        @Description("Whether the fragments are tag texts, converted inline")
+        boolean inline;
+
+        @Label("Fragments")
+        @Description("Number of fragments converted in this call")
+        int fragments;
+
+        void commit(int fragmentLength, boolean inline, int fragments) {
+            if (shouldCommit()) {
+                this.element = currentElement();
+                this.fragmentLength = fragmentLength;
+                this.inline = inline;
+                this.fragments = fragments;
+                commit();
+            }
+        }
+    }
+
+    @Name("org.asciidoctor.asciidoclet.AttributeLoading")
+    @Label("Attribute Loading")
+    @Description("Parsing of the command line attributes and the attributes file")
+    @Category(CATEGORY)
+    static final class AttributeLoading extends Event {
+
+        @Label("Attributes File")
+        String attributesFile;
+
+        @Label("Attributes")
+        @Description("Number of attributes loaded")
+        int attributes;
+    }
+
+    @Name("org.asciidoctor.asciidoclet.TemplatePreparation")
+    @Label("Template Preparation")
+    @Description("Lookup or copy of the output templates to a directory Asciidoctor can read")
+    @Category(CATEGORY)
+    static final class TemplatePreparation extends Event {
+
+        @Label("Template Directory")
+        String templateDir;
+    }
+
+    @Name("org.asciidoctor.asciidoclet.StylesheetCopy")
+    @Label("Stylesheet Copy")
+    @Description("Copy of the stylesheets to the output directory")
+    @Category(CATEGORY)
+    static final class StylesheetCopy extends Event {
+
+        @Label("Stylesheet")
+        String stylesheet;
+    }
+
+    @Name("org.asciidoctor.asciidoclet.OverviewRendering")
+    @Label("Overview Rendering")
+    @Description("Rendering of an overview or package AsciiDoc file")
+    @Category(CATEGORY)
+    static final class OverviewRendering extends Event {
+
+        @Label("File")
+        String file;
+
+        @Label("Source Length")
+        int sourceLength;
+
+        @Label("HTML Length")
+        int htmlLength;
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+import org.asciidoctor.Asciidoctor;
+import org.asciidoctor.ast.Block;
+import org.asciidoctor.ast.Document;
+import org.asciidoctor.extension.LocationType;
+import org.asciidoctor.syntaxhighlighter.Formatter;
+import org.asciidoctor.syntaxhighlighter.HighlightResult;
+import org.asciidoctor.syntaxhighlighter.Highlighter;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * A syntax highlighter written in Java, which produces the same markup as CodeRay.
+ * <p>
+ * It highlights Java, XML, JSON, YAML and shell sources with ports of the CodeRay scanners, and
+ * emits the CSS classes of the CodeRay `class` CSS mode, so that `coderay-asciidoctor.css` styles
+ * the output. Sources in other languages are only escaped.
+ * <p>
+ * It is registered as the `asciidoclet` source highlighter, which is used by default. Its document
+ * attributes are named after it, such as `asciidoclet-linenums-mode`.
+ * <p>
+ * The same snippets tend to be repeated across many comments, so highlighted blocks are memoized
+ * for the lifetime of the JVM, keyed by language, source and line numbering options. Unlike the
+ * cache of {@link AsciidoctorConverter}, this one also helps comments that only share their code.
+ * Other highlighters, such as CodeRay, run in JRuby and are not memoized.
+ *
+ * @see SourceScanner
+ */
+public class AsciidocletHighlighter implements Highlighter, Formatter {
+
+    /**
+     * The name of the highlighter, as used in the `source-highlighter` attribute.
+     */
+    public static final String NAME = "asciidoclet";
+
+    static final int CACHE_MAX_ENTRIES = 2_000;
+    static final long CACHE_MAX_BYTES = 16L * 1024 * 1024;
+
+    // Asciidoctor creates a highlighter for each document, so the cache cannot belong to an instance.
+    private static final ConversionCache CACHE = new ConversionCache(CACHE_MAX_ENTRIES, CACHE_MAX_BYTES, NAME);
+
+    private static final String PRE_CLASS = "CodeRay highlight";
+    private static final String CODE_CELL_START = "<td class=\"code\"><pre>";
+    // AsciidoctorJ cannot hand a missing language over to Java, so it is replaced by an empty one.
+    private static final String NIL_LANGUAGE_SHIM = "Asciidoctor::SyntaxHighlighter.for('" + NAME + "').class_eval do\n" +
+            "  alias_method :highlight_language, :highlight\n" +
+            "  alias_method :format_language, :format\n" +
+            "  def highlight node, source, lang, opts; highlight_language node, source, (lang || ''), opts; end\n" +
+            "  def format node, lang, opts; format_language node, (lang || ''), opts; end\n" +
+            "end unless Asciidoctor::SyntaxHighlighter.for('" + NAME + "').method_defined? :highlight_language";
+
+    /**
+     * Registers the highlighter with an Asciidoctor instance.
+     *
+     * @param asciidoctor instance whose documents may use the highlighter from now on
+     */
+    static void register(Asciidoctor asciidoctor) {
+        asciidoctor.syntaxHighlighterRegistry().register(AsciidocletHighlighter.class, NAME);
+        asciidoctor.rubyExtensionRegistry().loadClass(new ByteArrayInputStream(NIL_LANGUAGE_SHIM.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Returns the memo of highlighted blocks, shared by all instances.
+     */
+    static ConversionCache cache() {
+        return CACHE;
+    }
+
+    @Override
+    public HighlightResult highlight(Block node, String source, String lang, Map<String, Object> options) {
+        final String lineNumbers = symbol(options.get("number_lines"));
+        final int start = startLineNumber(options);
+        final Set<Integer> highlightLines = highlightLines(options);
+        final String key = ContentHash.of(String.valueOf(lang), String.valueOf(lineNumbers), String.valueOf(start),
+                String.valueOf(highlightLines == null ? null : new TreeSet<>(highlightLines)), source);
+        String highlighted = CACHE.get(key);
+        if (highlighted == null) {
+            highlighted = highlight(source, lang, lineNumbers, start, highlightLines);
+            CACHE.put(key, highlighted);
+        }
+        if ("table".equals(lineNumbers) && options.get("callouts") != null) {
+            // Callouts are restored in the code cell, after the line numbers.
+            final int codeStart = highlighted.indexOf(CODE_CELL_START);
+            return new HighlightResult(highlighted, codeStart < 0 ? null : codeStart + CODE_CELL_START.length());
+        }
+        return new HighlightResult(highlighted);
+    }
+
+    private static String highlight(String source, String lang, String lineNumbers, int start, Set<Integer> highlightLines) {
+        final HighlightedHtml html = new HighlightedHtml("inline".equals(lineNumbers));
+        final SourceScanner scanner = SourceScanner.forLanguage(lang);
+        if (scanner != null) {
+            scanner.scan(source, html);
+        } else {
+            html.text(source, HighlightedHtml.Kind.PLAIN);
+        }
+        final String highlighted = html.finish();
+        return lineNumbers == null ? highlighted : HighlightedHtml.number(highlighted, lineNumbers, start, highlightLines);
+    }
+
+    @Override
+    public String format(Block node, String lang, Map<String, Object> options) {
+        final boolean nowrap = Boolean.TRUE.equals(options.get("nowrap"));
+        return "<pre class=\"" + PRE_CLASS + (nowrap ? " nowrap" : "") + "\">" +
+                "<code" + (lang != null && !lang.isEmpty() ? " data-lang=\"" + lang + "\"" : "") + ">" +
+                node.getContent() +
+                "</code></pre>";
+    }
+
+    // The stylesheet is copied by the doclet with the other stylesheets.
+    @Override
+    public boolean hasDocInfo(LocationType location) {
+        return false;
+    }
+
+    @Override
+    public String getDocinfo(LocationType location, Document document, Map<String, Object> options) {
+        return null;
+    }
+
+    // Ruby symbols are handed over as strings such as `:table`.
+    private static String symbol(Object value) {
+        if (value == null) {
+            return null;
+        }
+        final String symbol = value.toString();
+        return symbol.startsWith(":") ? symbol.substring(1) : symbol;
+    }
+
+    private static int startLineNumber(Map<String, Object> options) {
+        final Object start = options.get("start_line_number");
+        return start instanceof Number ? ((Number) start).intValue() : 1;
+    }
+
+    private static Set<Integer> highlightLines(Map<String, Object> options) {
+        final Object lines = options.get("highlight_lines");
+        if (!(lines instanceof Collection)) {
+            return null;
+        }
+        final Set<Integer> highlightLines = new HashSet<>();
+        for (Object line : (Collection<?>) lines) {
+            if (line instanceof Number) {
+                highlightLines.add(((Number) line).intValue());
+            }
+        }
+        return highlightLines;
+    }
+}
@@ -71,7 +71,51 @@ public enum AsciidocletOptions implements Doclet.Option {
     /**
      * Check Doclet Options documentation.
      */
-    REQUIRE_LONG("require");
+    REQUIRE_LONG("require"),
+    /**
+     * Check Doclet Options documentation.
+     */
+    CACHE_MAX_ENTRIES("asciidoclet-cache-max-entries"),
+    /**
+     * Check Doclet Options documentation.
+     */
+    CACHE_MAX_BYTES("asciidoclet-cache-max-bytes"),
+    /**
+     * Check Doclet Options documentation.
+     */
+    CACHE_DIR("asciidoclet-cache-dir"),
+    /**
+     * Check Doclet Options documentation.
+     */
+    CACHE_DIR_MAX_BYTES("asciidoclet-cache-dir-max-bytes"),
+    /**
+     * Check Doclet Options documentation.
+     */
+    PRERENDER_THREADS("asciidoclet-prerender-threads"),
+    /**
+     * Check Doclet Options documentation.
+     */
+    POOL_SIZE("asciidoclet-pool-size"),
+    /**
+     * Check Doclet Options documentation.
+     */
+    STATS("asciidoclet-stats"),
+    /**
+     * Check Doclet Options documentation.
+     */
+    SLOWEST_COMMENTS("asciidoclet-slowest-comments"),
+    /**
+     * Check Doclet Options documentation.
+     */
+    HIGHLIGHTER("asciidoclet-highlighter"),
+    /**
+     * Check Doclet Options documentation.
+     */
+    DAEMON("asciidoclet-daemon"),
+    /**
+     * Check Doclet Options documentation.
+     */
+    BATCH("asciidoclet-batch");
     /**
      * Check Doclet Options documentation.
      */
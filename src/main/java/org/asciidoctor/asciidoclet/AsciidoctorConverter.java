@@ -17,42 +17,137 @@ package org.asciidoctor.asciidoclet;
 
 import jdk.javadoc.doclet.Reporter;
 import org.asciidoctor.Asciidoctor;
-import org.asciidoctor.Options;
-import org.asciidoctor.jruby.AsciidoctorJRuby;
+import org.asciidoctor.ast.StructuralNode;
 
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 /**
  * Doclet converter using and configuring AsciidoctorJ.
+ * <p>
+ * Asciidoctor is set up on the first conversion.
+ * When `--asciidoclet-daemon` is given, comments are converted by a {@link RenderingDaemon} instead,
+ * and Asciidoctor is only set up in this process if the daemon cannot be reached.
  *
  * @author John Ericksen
  */
-class AsciidoctorConverter {
+class AsciidoctorConverter implements AutoCloseable {
 
     static final String MARKER = " \t \t";
 
     private static final Pattern TYPE_PARAM = Pattern.compile("\\s*<(\\w+)>(.*)");
-    private static final String INLINE_DOCTYPE = "inline";
 
+    // Fragments that may be converted as part of a larger document without changing their output:
+    // they neither define ids, reference texts, footnotes, callouts or attributes, nor depend on the doctype,
+    // and they have no line that could start a header, a block title or a comment.
+    private static final Pattern NOT_BATCHABLE = Pattern.compile(
+            "::|;;|\\[\\[|\\[#|\\[[^\\]]*\\b(?:id|reftext)=|\\{set:|\\{counter|footnote|anchor:|doctype|<\\d+>|<\\.>|(?m)^[ \\t]*[=:./]");
+    // Inline fragments must also be a single paragraph, so they cannot have block attributes either.
+    private static final Pattern NOT_BATCHABLE_INLINE = Pattern.compile("\\n[ \\t]*\\n|(?m)^[ \\t]*\\[");
+    private static final String SEPARATOR_ROLE = "asciidoclet-fragment-separator";
+    private static final String FRAGMENT_SEPARATOR = "\n\n[." + SEPARATOR_ROLE + "]\n'''\n\n";
+    private static final int MAX_BATCH_SIZE = 256;
+    private static final int PRERENDER_CHUNK_SIZE = 64;
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+    // Exercises everything PlainText renders, to check that the options do not change how Asciidoctor renders it.
+    private static final String PLAIN_TEXT_PROBE = "Plain text, with it's 100% $5 \"quoted\" a/b a-b (x) ok! what? x;y x:y a & b\nNext line.";
+    private static final ThreadLocal<StringBuilder> CLEAN_BUFFER = ThreadLocal.withInitial(StringBuilder::new);
+
+    private final AsciidoctorPool pool;
     private final DocletOptions docletOptions;
     private final Reporter reporter;
+    private final boolean batching;
+    private final SlowestComments slowestComments;
+    private final AsciidocFilter filter;
+    private final AsciidoctorWarmUp warmUp;
+
+    private final ConversionStats stats = new ConversionStats();
+    private final RenderedFileCache renderedFiles = new RenderedFileCache(stats);
 
-    private final Asciidoctor asciidoctor;
-    private final OutputTemplates templates;
+    private volatile RenderingDaemonClient daemon;
+    private volatile InProcess inProcess;
 
     AsciidoctorConverter(DocletOptions docletOptions, Reporter reporter) {
-        this.asciidoctor = createAsciidoctorInstance(docletOptions.gemPath());
-        this.reporter = reporter;
-        this.templates = OutputTemplates.create(reporter);
+        this(docletOptions, reporter, (AsciidoctorWarmUp) null);
+    }
+
+    AsciidoctorConverter(DocletOptions docletOptions, Reporter reporter, AsciidoctorWarmUp warmUp) {
+        this(docletOptions, reporter, AsciidoctorPool.create(docletOptions, docletOptions.asciidoctorPoolSize(), warmUp),
+                RenderingDaemonClient.open(docletOptions, reporter), warmUp);
+        if (daemon != null && warmUp != null) {
+            warmUp.discard();
+        }
+    }
+
+    /**
+     * Creates a converter delegating to a daemon, which only sets up Asciidoctor if the daemon fails.
+     *
+     * @param docletOptions the doclet options of the current run
+     * @param reporter      reports warnings
+     * @param daemon        connection to the daemon
+     */
+    AsciidoctorConverter(DocletOptions docletOptions, Reporter reporter, RenderingDaemonClient daemon) {
+        this(docletOptions, reporter, AsciidoctorPool.create(docletOptions, docletOptions.asciidoctorPoolSize()), daemon, null);
+    }
+
+    /**
+     * Creates a converter whose Asciidoctor instances come from a pool shared with other converters.
+     *
+     * @param docletOptions the doclet options of the conversions
+     * @param reporter      reports warnings
+     * @param pool          instances created for the gem path and the libraries of the options
+     */
+    AsciidoctorConverter(DocletOptions docletOptions, Reporter reporter, AsciidoctorPool pool) {
+        this(docletOptions, reporter, pool, null, null);
+    }
+
+    private AsciidoctorConverter(DocletOptions docletOptions, Reporter reporter, AsciidoctorPool pool,
+                                 RenderingDaemonClient daemon, AsciidoctorWarmUp warmUp) {
+        this.pool = pool;
+        this.warmUp = warmUp;
         this.docletOptions = docletOptions;
+        this.reporter = reporter;
+        this.daemon = daemon;
+        this.slowestComments = new SlowestComments(docletOptions.slowestComments());
+        this.filter = docletOptions.filter();
+        // Extensions may post-process converted output, which batched conversions bypass.
+        this.batching = docletOptions.batchFragments() && docletOptions.requires().isEmpty();
     }
 
-    private static Asciidoctor createAsciidoctorInstance(String gemPath) {
-        if (gemPath != null) {
-            return AsciidoctorJRuby.Factory.create(gemPath);
+    /**
+     * Returns what converting in this process needs, setting it up on first use.
+     */
+    private InProcess inProcess() {
+        InProcess local = inProcess;
+        if (local == null) {
+            synchronized (this) {
+                local = inProcess;
+                if (local == null) {
+                    local = new InProcess();
+                    inProcess = local;
+                }
+            }
         }
-        return Asciidoctor.Factory.create();
+        return local;
+    }
+
+    private static boolean rendersPlainText(Asciidoctor asciidoctor, ConversionOptions options) {
+        String paragraphs = PLAIN_TEXT_PROBE + "\n\n" + PLAIN_TEXT_PROBE;
+        return PlainText.render(paragraphs, false).equals(asciidoctor.convert(paragraphs, options.block()))
+                && PlainText.render(PLAIN_TEXT_PROBE, true).equals(asciidoctor.convert(PLAIN_TEXT_PROBE, options.inline()));
     }
 
     /**
@@ -61,84 +156,619 @@ class AsciidoctorConverter {
      * @param doc input
      */
     String convert(String doc) {
-        if (doc.startsWith(MARKER)) {
-            return doc;
+        return convertAll(List.of(doc)).get(0);
+    }
+
+    /**
+     * Converts generic documents, such as all the comments of a compilation unit.
+     * <p>
+     * Each body is converted as a block and each tag inline. Fragments that are
+     * safe to convert together are sent to Asciidoctor in a single call.
+     *
+     * @param docs inputs
+     * @return the converted documents, in order
+     */
+    List<String> convertAll(List<String> docs) {
+        final long start = System.nanoTime();
+        if (daemon != null) {
+            final List<String> converted = convertWithDaemon(docs);
+            if (converted != null) {
+                stats.conversion().recordSince(start);
+                return converted;
+            }
+        }
+        final List<Fragment> fragments = new ArrayList<>();
+        final List<ParsedDoc> parsed = new ArrayList<>(docs.size());
+        for (String doc : docs) {
+            if (doc.startsWith(MARKER)) {
+                parsed.add(null);
+                continue;
+            }
+            ParsedDoc parsedDoc = new ParsedDoc(JavadocParser.parse(doc));
+            fragments.addAll(parsedDoc.fragments);
+            parsed.add(parsedDoc);
+        }
+        final Asciidoctor asciidoctor = pool.checkout();
+        try {
+            render(fragments, asciidoctor);
+        } finally {
+            pool.release(asciidoctor);
         }
-        final JavadocParser javadocParser = JavadocParser.parse(doc);
 
-        final StringBuilder buffer = new StringBuilder(MARKER);
-        String convert = convert(javadocParser.getCommentBody(), false);
-        buffer.append(convert);
-        buffer.append(System.lineSeparator());
-        for (JavadocParser.Tag tag : javadocParser.tags()) {
-            convertTag(tag, buffer);
-            buffer.append(System.lineSeparator());
+        final List<String> result = new ArrayList<>(docs.size());
+        for (int i = 0; i < docs.size(); i++) {
+            ParsedDoc parsedDoc = parsed.get(i);
+            result.add(parsedDoc == null ? docs.get(i) : parsedDoc.toHtml());
         }
-        return buffer.toString();
+        stats.conversion().recordSince(start);
+        return result;
     }
 
     /**
-     * Renders a document tag in the standard way.
+     * Converts documents with the daemon, or gives up on it for the rest of the run if it fails.
+     *
+     * @return the converted documents, or null to convert them in this process
+     */
+    private List<String> convertWithDaemon(List<String> docs) {
+        final RenderingDaemonClient client = daemon;
+        if (client == null) {
+            return null;
+        }
+        final long start = System.nanoTime();
+        try {
+            return client.convertAll(docs);
+        } catch (IOException e) {
+            synchronized (this) {
+                if (daemon == client) {
+                    daemon = null;
+                    reporter.print(Diagnostic.Kind.WARNING, "Rendering daemon failed, converting in process: " + e.getLocalizedMessage());
+                    client.close();
+                }
+            }
+            return null;
+        } finally {
+            stats.daemon().recordSince(start);
+        }
+    }
+
+    /**
+     * Renders the prefix of a document tag in the standard way, and returns the text to convert.
      *
      * @param tag    input
-     * @param buffer output buffer
+     * @param prefix output buffer for the tag name and any type parameter
+     * @return the AsciiDoc text of the tag
      */
-    private void convertTag(JavadocParser.Tag tag, StringBuilder buffer) {
-        buffer.append(tag.tagName).append(' ');
+    private static String tagText(JavadocParser.Tag tag, StringBuilder prefix) {
+        prefix.append(tag.name()).append(' ');
 
         // Special handling for @param <T> tags
         // See http://docs.oracle.com/javase/1.5.0/docs/tooldocs/windows/javadoc.html#@param
-        if (tag.tagName.equals("@param")) {
-            Matcher matcher = TYPE_PARAM.matcher(tag.tagText);
+        if (tag.name().equals("@param")) {
+            Matcher matcher = TYPE_PARAM.matcher(tag.text());
             if (matcher.find()) {
-                buffer.append('<').append(matcher.group(1)).append('>');
+                prefix.append('<').append(matcher.group(1)).append('>');
                 String text = matcher.group(2);
                 if (!text.isBlank()) {
-                    buffer.append(' ');
+                    prefix.append(' ');
                 }
-                buffer.append(convert(text, true));
-            } else {
-                buffer.append(convert(tag.tagText, true));
+                return text;
             }
-        } else {
-            buffer.append(convert(tag.tagText, true));
         }
+        return tag.text();
     }
 
     /**
-     * Renders the input using Asciidoctor.
+     * Prepares a fragment for rendering with Asciidoctor.
      * <p>
      * The source is first cleaned by stripping any trailing space after an
      * end line (e.g., `"\n "`), which gets left behind by the Javadoc
-     * processor.
+     * processor. Fragments without markup are rendered right away, see {@link PlainText}.
      *
      * @param input  AsciiDoc source
-     * @param inline true to set doc_type to inline, null otherwise
-     * @return content rendered by Asciidoctor
+     * @param inline true to use the inline options, false for the block options
      */
-    private String convert(String input, boolean inline) {
+    private Fragment fragment(String input, boolean inline) {
         if (input.trim().isEmpty()) {
-            return "";
+            return Fragment.empty();
+        }
+        String cleaned = cleanJavadocInput(input);
+        final InProcess local = inProcess();
+        if (local.plainText && PlainText.isPlain(cleaned, inline)) {
+            String html = PlainText.render(cleaned, inline);
+            stats.plainTextRendered(cleaned.length(), html.length());
+            return Fragment.rendered(cleaned, inline, html);
+        }
+        return new Fragment(cleaned, inline, local.cache.key(cleaned, inline));
+    }
+
+    /**
+     * Renders fragments using Asciidoctor.
+     * <p>
+     * Identical fragments are served from the {@link ConversionCache}, then
+     * from the {@link DiskCache} when one is configured. With `--asciidoclet-batch fragments`,
+     * the remaining fragments are batched when possible: the body of a comment goes in the
+     * same document as its tags, and the bodies and tags of other comments
+     * when several are converted together. Otherwise, each fragment is converted on its own.
+     */
+    private void render(List<Fragment> fragments, Asciidoctor asciidoctor) {
+        final List<Fragment> pending = new ArrayList<>();
+        final Map<String, Fragment> pendingByKey = new HashMap<>();
+        final List<Fragment> batch = new ArrayList<>();
+        for (Fragment fragment : fragments) {
+            if (fragment.html != null || lookup(fragment)) {
+                continue;
+            }
+            Fragment first = pendingByKey.putIfAbsent(fragment.key, fragment);
+            if (first != null) {
+                fragment.sameAs = first;
+                continue;
+            }
+            pending.add(fragment);
+            if (batching && isBatchable(fragment.cleaned, fragment.inline)) {
+                batch.add(fragment);
+            }
+        }
+        if (batch.size() > 1) {
+            for (int from = 0; from < batch.size(); from += MAX_BATCH_SIZE) {
+                renderBatch(batch.subList(from, Math.min(batch.size(), from + MAX_BATCH_SIZE)), asciidoctor);
+            }
+        }
+        for (Fragment fragment : pending) {
+            if (fragment.html == null) {
+                final AsciidocletEvents.CommentConversion event = new AsciidocletEvents.CommentConversion();
+                event.begin();
+                final long start = System.nanoTime();
+                String html = asciidoctor.convert(fragment.cleaned, inProcess().options.forMode(fragment.inline));
+                stats.asciidoctor().recordSince(start);
+                event.commit(fragment.cleaned.length(), fragment.inline, 1);
+                // Inline conversions of fragments without an inline candidate, such as a thematic break, yield nothing.
+                fragment.html = html != null ? html : "";
+            }
+            stats.fragmentRendered(fragment.inline, fragment.cleaned.length(), fragment.html.length());
+            store(fragment);
+        }
+        for (Fragment fragment : fragments) {
+            if (fragment.sameAs != null) {
+                fragment.html = fragment.sameAs.html;
+            }
+        }
+    }
+
+    static boolean isBatchable(String cleaned, boolean inline) {
+        return !NOT_BATCHABLE.matcher(cleaned).find()
+                && !(inline && NOT_BATCHABLE_INLINE.matcher(cleaned).find());
+    }
+
+    /**
+     * Converts fragments as the sections of a single document, separated by thematic
+     * breaks with a dedicated role.
+     * <p>
+     * A block fragment yields its converted blocks, which is exactly what converting it on
+     * its own yields. An inline fragment yields the content of its paragraph, which is
+     * exactly what an inline conversion yields. Fragments that do not have the expected
+     * structure, such as block fragments with sections whose ids depend on the whole document,
+     * or all of them if the separators are not found, are left for individual
+     * conversion.
+     */
+    private void renderBatch(List<Fragment> batch, Asciidoctor asciidoctor) {
+        final StringBuilder source = new StringBuilder();
+        for (Fragment fragment : batch) {
+            if (source.length() > 0) {
+                source.append(FRAGMENT_SEPARATOR);
+            }
+            source.append(fragment.cleaned);
+        }
+        // Converting the nodes of the document is done by Asciidoctor as well.
+        final AsciidocletEvents.CommentConversion event = new AsciidocletEvents.CommentConversion();
+        event.begin();
+        final long start = System.nanoTime();
+        try {
+            splitBatch(batch, asciidoctor.load(source.toString(), inProcess().options.block()).getBlocks());
+        } finally {
+            stats.asciidoctor().recordSince(start);
+            event.commit(source.length(), batch.stream().allMatch(fragment -> fragment.inline), batch.size());
+        }
+    }
+
+    private static void splitBatch(List<Fragment> batch, List<StructuralNode> blocks) {
+        final List<List<StructuralNode>> sections = new ArrayList<>(batch.size());
+        List<StructuralNode> current = new ArrayList<>();
+        for (StructuralNode block : blocks) {
+            if ("thematic_break".equals(block.getContext()) && block.hasRole(SEPARATOR_ROLE)) {
+                sections.add(current);
+                current = new ArrayList<>();
+            } else {
+                current.add(block);
+            }
+        }
+        sections.add(current);
+        if (sections.size() != batch.size()) {
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            Fragment fragment = batch.get(i);
+            List<StructuralNode> section = sections.get(i);
+            if (fragment.inline) {
+                if (section.size() == 1 && "paragraph".equals(section.get(0).getContext())) {
+                    fragment.html = (String) section.get(0).getContent();
+                }
+            } else if (!section.isEmpty() && section.stream().noneMatch(block -> "section".equals(block.getContext()))) {
+                fragment.html = section.stream().map(StructuralNode::convert).collect(Collectors.joining("\n"));
+            }
+        }
+    }
+
+    /**
+     * Renders documents on several threads ahead of their conversion, so that
+     * {@link #convertAll(List)} serves them from the {@link ConversionCache}.
+     * <p>
+     * Each thread checks its own Asciidoctor instance out of the {@link AsciidoctorPool},
+     * so the pool should be at least as large as the number of threads. Failures are reported as warnings, and the affected
+     * documents are simply rendered again when they are converted. Nothing is done when a daemon renders the documents.
+     *
+     * @param docs    inputs
+     * @param threads number of worker threads
+     */
+    void prerender(List<String> docs, int threads) {
+        if (daemon != null || !inProcess().cache.isEnabled() || docs.isEmpty()) {
+            return;
+        }
+        final Queue<List<String>> chunks = new ConcurrentLinkedQueue<>();
+        for (int from = 0; from < docs.size(); from += PRERENDER_CHUNK_SIZE) {
+            chunks.add(docs.subList(from, Math.min(docs.size(), from + PRERENDER_CHUNK_SIZE)));
+        }
+        final int workers = Math.min(threads, chunks.size());
+        final ExecutorService executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "asciidoclet-prerender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            final List<Future<?>> futures = new ArrayList<>(workers);
+            for (int i = 0; i < workers; i++) {
+                futures.add(executor.submit(() -> prerenderChunks(chunks)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            reporter.print(Diagnostic.Kind.WARNING, "Pre-rendering failed: " + e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void prerenderChunks(Queue<List<String>> chunks) {
+        final Asciidoctor asciidoctor = pool.checkout();
+        try {
+            List<String> chunk;
+            while ((chunk = chunks.poll()) != null) {
+                final List<Fragment> fragments = new ArrayList<>();
+                for (String doc : chunk) {
+                    if (!doc.startsWith(MARKER)) {
+                        fragments.addAll(new ParsedDoc(JavadocParser.parse(doc)).fragments);
+                    }
+                }
+                final long start = System.nanoTime();
+                render(fragments, asciidoctor);
+                stats.conversion().recordSince(start);
+            }
+        } finally {
+            pool.release(asciidoctor);
+        }
+    }
+
+    // Fragments that include files or read the clock are always rendered again, since a daemon keeps the memory cache across runs.
+    private boolean lookup(Fragment fragment) {
+        if (!DiskCache.isCacheable(fragment.cleaned)) {
+            return false;
+        }
+        final InProcess local = inProcess();
+        String html = local.cache.get(fragment.key);
+        if (html != null) {
+            stats.memoryCacheHit();
+        } else if (local.diskCache != null) {
+            html = local.diskCache.get(fragment.key);
+            if (html != null) {
+                stats.diskCacheHit();
+                local.cache.put(fragment.key, html);
+            }
+        }
+        fragment.html = html;
+        return html != null;
+    }
+
+    private void store(Fragment fragment) {
+        if (!DiskCache.isCacheable(fragment.cleaned)) {
+            return;
         }
-        Options options = new AsciidoctorOptionsFactory(asciidoctor, reporter)
-                .create(docletOptions, templates);
-        // Setting doctype to null results in an NPE from asciidoctor.
-        // the default value from the command line is "article".
-        // https://docs.asciidoctor.org/asciidoctor/latest/cli/man1/asciidoctor/#options
-        options.setDocType(inline ?
-                INLINE_DOCTYPE :
-                options.map().containsKey(Options.DOCTYPE) ?
-                        (String) options.map().get(Options.DOCTYPE) :
-                        "article");
+        final InProcess local = inProcess();
+        if (local.diskCache != null) {
+            local.diskCache.put(fragment.key, fragment.html);
+        }
+        local.cache.put(fragment.key, fragment.html);
+    }
+
+    /**
+     * Returns how many times Asciidoctor was invoked to convert fragments.
+     */
+    long asciidoctorCalls() {
+        return stats.asciidoctor().count();
+    }
+
+    /**
+     * Returns how many fragments were rendered as {@link PlainText}, without Asciidoctor.
+     */
+    long plainTextFragments() {
+        return stats.plainTextFragments();
+    }
+
+    ConversionStats stats() {
+        return stats;
+    }
+
+    AsciidoctorPool pool() {
+        return pool;
+    }
+
+    ConversionCache cache() {
+        return inProcess().cache;
+    }
+
+    DiskCache diskCache() {
+        return inProcess().diskCache;
+    }
+
+    /**
+     * Returns whether documents are converted by a {@link RenderingDaemon}.
+     */
+    boolean usesDaemon() {
+        return daemon != null;
+    }
 
-        return asciidoctor.convert(cleanJavadocInput(input), options);
+    RenderedFileCache renderedFiles() {
+        return renderedFiles;
     }
 
+    SlowestComments slowestComments() {
+        return slowestComments;
+    }
+
+    AsciidocFilter filter() {
+        return filter;
+    }
+
+    /**
+     * Prunes the disk cache, if any, to its size cap.
+     */
+    void pruneDiskCache() {
+        final InProcess local = inProcess;
+        if (local != null && local.diskCache != null) {
+            local.diskCache.prune();
+        }
+    }
+
+    /**
+     * Releases what the converter holds of its own, leaving its pool open for the converters sharing it.
+     */
+    void dispose() {
+        final RenderingDaemonClient client = daemon;
+        if (client != null) {
+            client.close();
+        }
+        pruneDiskCache();
+        if (warmUp != null) {
+            // Shuts the instance down if no comment took it.
+            warmUp.discard();
+        }
+    }
+
+    @Override
+    public void close() {
+        dispose();
+        pool.close();
+    }
+
+    /**
+     * What converting in this process needs, which takes an Asciidoctor instance to set up.
+     */
+    private final class InProcess {
+        final ConversionOptions options;
+        final ConversionCache cache;
+        final DiskCache diskCache;
+        final boolean plainText;
+
+        InProcess() {
+            final Asciidoctor asciidoctor = pool.checkout();
+            try {
+                final OutputTemplates templates = AsciidocletConverter.isRegistered(asciidoctor) ? null : OutputTemplates.create(reporter);
+                this.options = ConversionOptions.create(asciidoctor, docletOptions, templates, reporter, stats);
+                this.diskCache = docletOptions.cacheDir()
+                        .map(dir -> new DiskCache(dir.toPath(), docletOptions.cacheDirMaxBytes(), DiskCache.namespace(asciidoctor, docletOptions), reporter))
+                        .orElse(null);
+                // Extensions may post-process converted output, which plain text rendering bypasses.
+                this.plainText = docletOptions.requires().isEmpty() && rendersPlainText(asciidoctor, options);
+            } finally {
+                pool.release(asciidoctor);
+            }
+            this.cache = new ConversionCache(docletOptions.cacheMaxEntries(), docletOptions.cacheMaxBytes(), options.fingerprint());
+        }
+    }
+
+    /**
+     * Cleans a fragment of what the Javadoc processor leaves behind, in a single pass:
+     *
+     * * surrounding whitespace is trimmed,
+     * * the space following a newline is dropped, to accommodate javadoc newlines,
+     * * `{at}` is translated into `&#64;` and `{slash}` into `/`,
+     * * a line made of `*\/`, after optional spaces, is translated into the multi-line comment end tag.
+     *
+     * @param input raw fragment
+     * @return the AsciiDoc source to convert
+     */
     static String cleanJavadocInput(String input) {
-        return input.trim()
-                .replaceAll("\n ", "\n") // Newline space to accommodate javadoc newlines.
-                .replaceAll("\\{at}", "&#64;") // {at} is translated into @.
-                .replaceAll("\\{slash}", "/") // {slash} is translated into /.
-                .replaceAll("(?m)^( *)\\*\\\\/$", "$1*/"); // Multi-line comment end tag is translated into */.
+        int start = 0;
+        int end = input.length();
+        while (start < end && input.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && input.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (!needsCleaning(input, start, end)) {
+            return input.substring(start, end);
+        }
+
+        final StringBuilder out = CLEAN_BUFFER.get();
+        out.setLength(0);
+        int lineStart = 0;
+        for (int i = start; i < end; i++) {
+            char c = input.charAt(i);
+            switch (c) {
+                case '}':
+                    out.append(c);
+                    replaceToken(out);
+                    break;
+                case '\n':
+                    unescapeCommentEnd(out, lineStart);
+                    out.append(c);
+                    lineStart = out.length();
+                    if (i + 1 < end && input.charAt(i + 1) == ' ') {
+                        i++;
+                    }
+                    break;
+                case '\r':
+                case '\u0085':
+                case '\u2028':
+                case '\u2029':
+                    unescapeCommentEnd(out, lineStart);
+                    out.append(c);
+                    lineStart = out.length();
+                    break;
+                default:
+                    out.append(c);
+                    break;
+            }
+        }
+        unescapeCommentEnd(out, lineStart);
+
+        final String cleaned = out.toString();
+        if (out.capacity() > MAX_RETAINED_BUFFER) {
+            CLEAN_BUFFER.remove();
+        }
+        return cleaned;
+    }
+
+    private static boolean needsCleaning(String input, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = input.charAt(i);
+            if (c == '{' || c == '\\' || (c == '\n' && i + 1 < end && input.charAt(i + 1) == ' ')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Tokens are matched on the output, where the space following a newline is already dropped.
+    private static void replaceToken(StringBuilder out) {
+        final int length = out.length();
+        if (endsWith(out, "{at}")) {
+            out.replace(length - 4, length, "&#64;");
+        } else if (endsWith(out, "{slash}")) {
+            out.replace(length - 7, length, "/");
+        }
+    }
+
+    private static boolean endsWith(StringBuilder out, String suffix) {
+        final int offset = out.length() - suffix.length();
+        if (offset < 0) {
+            return false;
+        }
+        for (int i = 0; i < suffix.length(); i++) {
+            if (out.charAt(offset + i) != suffix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Turns a line made of optional spaces followed by `*\/` into `*/`.
+    private static void unescapeCommentEnd(StringBuilder out, int lineStart) {
+        int length = out.length();
+        if (length - lineStart < 3
+                || out.charAt(length - 1) != '/' || out.charAt(length - 2) != '\\' || out.charAt(length - 3) != '*') {
+            return;
+        }
+        for (int i = lineStart; i < length - 3; i++) {
+            if (out.charAt(i) != ' ') {
+                return;
+            }
+        }
+        out.deleteCharAt(length - 2);
+    }
+
+    /**
+     * A comment split into the fragments that make it up, and the tag prefixes to render around them.
+     */
+    private final class ParsedDoc {
+        final List<Fragment> fragments;
+        final String[] prefixes;
+
+        ParsedDoc(JavadocParser javadocParser) {
+            final List<JavadocParser.Tag> tags = javadocParser.tags();
+            final List<String> prefixes = new ArrayList<>(tags.size());
+            this.fragments = new ArrayList<>(tags.size() + 1);
+            fragments.add(fragment(javadocParser.getCommentBody(), false));
+            for (JavadocParser.Tag tag : tags) {
+                // The opt-in tag is only meant for Asciidoclet, the standard doclet would report it as unknown.
+                if (tag.name().equals(AsciidocFilter.OPT_IN_TAG)) {
+                    continue;
+                }
+                StringBuilder prefix = new StringBuilder();
+                fragments.add(fragment(tagText(tag, prefix), true));
+                prefixes.add(prefix.toString());
+            }
+            this.prefixes = prefixes.toArray(new String[0]);
+        }
+
+        String toHtml() {
+            final StringBuilder buffer = new StringBuilder(MARKER);
+            buffer.append(fragments.get(0).html);
+            buffer.append(System.lineSeparator());
+            for (int i = 0; i < prefixes.length; i++) {
+                buffer.append(prefixes[i]).append(fragments.get(i + 1).html);
+                buffer.append(System.lineSeparator());
+            }
+            return buffer.toString();
+        }
+    }
+
+    /**
+     * A piece of a comment that is rendered by Asciidoctor on its own.
+     */
+    private static final class Fragment {
+        final String cleaned;
+        final boolean inline;
+        final String key;
+        String html;
+        Fragment sameAs;
+
+        Fragment(String cleaned, boolean inline, String key) {
+            this.cleaned = cleaned;
+            this.inline = inline;
+            this.key = key;
+        }
+
+        static Fragment empty() {
+            return rendered("", false, "");
+        }
+
+        static Fragment rendered(String cleaned, boolean inline, String html) {
+            Fragment fragment = new Fragment(cleaned, inline, null);
+            fragment.html = html;
+            return fragment;
+        }
     }
 }
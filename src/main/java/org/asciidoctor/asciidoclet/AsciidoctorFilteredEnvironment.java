@@ -19,6 +19,7 @@ import com.sun.source.util.DocTrees;
 import jdk.javadoc.doclet.DocletEnvironment;
 import jdk.javadoc.internal.tool.DocEnvImpl;
 
+import javax.lang.model.element.Element;
 import javax.tools.JavaFileManager;
 import javax.tools.StandardJavaFileManager;
 
@@ -32,10 +33,10 @@ public class AsciidoctorFilteredEnvironment
     private final StandardJavaFileManager fileManager;
     private final AsciiDocTrees asciiDocTrees;
 
-    AsciidoctorFilteredEnvironment(DocletEnvironment environment, AsciidoctorConverter converter) {
+    AsciidoctorFilteredEnvironment(DocletEnvironment environment, AsciidoctorConverter converter, boolean batchUnits) {
         super(((DocEnvImpl) environment).toolEnv, ((DocEnvImpl) environment).etable);
         this.fileManager = new AsciidoctorFileManager(converter, (StandardJavaFileManager) environment.getJavaFileManager());
-        this.asciiDocTrees = new AsciiDocTrees(converter, fileManager, environment.getDocTrees());
+        this.asciiDocTrees = new AsciiDocTrees(converter, fileManager, environment.getDocTrees(), batchUnits);
     }
 
     @Override
@@ -48,6 +49,15 @@ public class AsciidoctorFilteredEnvironment
         return asciiDocTrees;
     }
 
+    /**
+     * Tells whether the comments of an element are processed as AsciiDoc.
+     *
+     * @param element a documented element
+     */
+    boolean isAsciidoc(Element element) {
+        return asciiDocTrees.isAsciidoc(element);
+    }
+
     @Override
     public void close() {
     }
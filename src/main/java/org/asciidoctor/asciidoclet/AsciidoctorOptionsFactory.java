@@ -18,12 +18,14 @@ package org.asciidoctor.asciidoclet;
 import jdk.javadoc.doclet.Reporter;
 import org.asciidoctor.Asciidoctor;
 import org.asciidoctor.Attributes;
-import org.asciidoctor.AttributesBuilder;
 import org.asciidoctor.Options;
 import org.asciidoctor.OptionsBuilder;
 import org.asciidoctor.SafeMode;
 import org.asciidoctor.extension.RubyExtensionRegistry;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * Asciidoctor Options Factory.
  *
@@ -35,35 +37,55 @@ class AsciidoctorOptionsFactory {
 
     private final Asciidoctor asciidoctor;
     private final Reporter reporter;
+    private final ConversionStats stats;
 
     AsciidoctorOptionsFactory(Asciidoctor asciidoctor, Reporter reporter) {
+        this(asciidoctor, reporter, new ConversionStats());
+    }
+
+    AsciidoctorOptionsFactory(Asciidoctor asciidoctor, Reporter reporter, ConversionStats stats) {
         this.asciidoctor = asciidoctor;
         this.reporter = reporter;
+        this.stats = stats;
     }
 
     Options create(DocletOptions docletOptions, OutputTemplates templates) {
+        Map<String, Object> attributes = attributes(docletOptions);
+        requireLibraries(docletOptions);
+        return builder(docletOptions, templates, attributes).build();
+    }
+
+    /**
+     * Returns a builder with the given attributes and the options derived from the doclet options.
+     * Unlike {@link #create(DocletOptions, OutputTemplates)}, it neither reads the attributes file nor requires libraries.
+     */
+    OptionsBuilder builder(DocletOptions docletOptions, OutputTemplates templates, Map<String, Object> attributes) {
         final OptionsBuilder opts = defaultOptions();
         if (docletOptions.baseDir().isPresent()) {
             opts.baseDir(docletOptions.baseDir().get());
         }
         if (templates != null) {
-            opts.templateDir(templates.templateDir().toFile());
+            opts.templateDirs(templates.templateDir().toFile());
         }
+        return opts.attributes(Attributes.builder().attributes(attributes).build());
+    }
+
+    /**
+     * Returns the effective document attributes: the defaults, overridden by the `-attribute` options and the attributes file.
+     */
+    Map<String, Object> attributes(DocletOptions docletOptions) {
+        Map<String, Object> attributes = defaultAttributes(docletOptions.highlighter());
+        attributes.putAll(new AttributesLoader(asciidoctor, docletOptions, reporter, stats).load());
+        return attributes;
+    }
 
-        opts.attributes(buildAttributes(docletOptions));
+    void requireLibraries(DocletOptions docletOptions) {
         if (docletOptions.requires().size() > 0) {
             RubyExtensionRegistry rubyExtensionRegistry = asciidoctor.rubyExtensionRegistry();
             for (String require : docletOptions.requires()) {
                 rubyExtensionRegistry.requireLibrary(require);
             }
         }
-        return opts.get();
-    }
-
-    private Attributes buildAttributes(DocletOptions docletOptions) {
-        return defaultAttributes()
-                .attributes(new AttributesLoader(asciidoctor, docletOptions, reporter).load())
-                .get();
     }
 
     private static OptionsBuilder defaultOptions() {
@@ -72,19 +94,20 @@ class AsciidoctorOptionsFactory {
                 .backend(DEFAULT_BACKEND);
     }
 
-    private static AttributesBuilder defaultAttributes() {
-        return org.asciidoctor.Attributes.builder()
-                .attribute("at", "&#64;")
-                .attribute("slash", "/")
-                .attribute("icons", null)
-                .attribute("idprefix", "")
-                .attribute("idseparator", "-")
-                .attribute("javadoc", "")
-                .attribute("showtitle", true)
-                .attribute("source-highlighter", "coderay")
-                .attribute("coderay-css", "class")
-                .attribute("env-asciidoclet")
-                .attribute("env", "asciidoclet");
+    private static Map<String, Object> defaultAttributes(String highlighter) {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        attributes.put("at", "&#64;");
+        attributes.put("slash", "/");
+        attributes.put("icons", null);
+        attributes.put("idprefix", "");
+        attributes.put("idseparator", "-");
+        attributes.put("javadoc", "");
+        attributes.put("showtitle", true);
+        attributes.put("source-highlighter", highlighter);
+        attributes.put("coderay-css", "class");
+        attributes.put("env-asciidoclet", "");
+        attributes.put("env", "asciidoclet");
+        return attributes;
     }
 
 }
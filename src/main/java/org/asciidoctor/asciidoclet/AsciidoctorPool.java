@@ -0,0 +1,158 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+import org.asciidoctor.Asciidoctor;
+import org.asciidoctor.extension.RubyExtensionRegistry;
+import org.asciidoctor.jruby.AsciidoctorJRuby;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Bounded pool of Asciidoctor instances.
+ * <p>
+ * An Asciidoctor instance is backed by its own JRuby runtime and must not be used by several
+ * threads at once. Threads check an instance out, use it exclusively, and return it. Instances
+ * are created lazily, on the first checkout that finds no idle one, so a pool that is only used
+ * by one thread never boots more than one runtime.
+ */
+class AsciidoctorPool implements AutoCloseable {
+
+    private final Supplier<Asciidoctor> factory;
+    private final int size;
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<Asciidoctor> idle = new ConcurrentLinkedDeque<>();
+    private final List<Asciidoctor> created = new ArrayList<>();
+
+    AsciidoctorPool(int size, Supplier<Asciidoctor> factory) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Pool size must be positive: " + size);
+        }
+        this.factory = factory;
+        this.size = size;
+        this.permits = new Semaphore(size);
+    }
+
+    /**
+     * Creates a pool whose instances honor the `--gem-path` and `--require` options, render with {@link AsciidocletConverter}
+     * and highlight sources with {@link AsciidocletHighlighter}.
+     *
+     * @param docletOptions the doclet options of the current run
+     * @param size          maximum number of instances
+     */
+    static AsciidoctorPool create(DocletOptions docletOptions, int size) {
+        return create(docletOptions, size, null);
+    }
+
+    /**
+     * Creates a pool whose first instance is taken from a warm-up, when it suits the options.
+     *
+     * @param docletOptions the doclet options of the current run
+     * @param size          maximum number of instances
+     * @param warmUp        instance booted in the background, or null
+     */
+    static AsciidoctorPool create(DocletOptions docletOptions, int size, AsciidoctorWarmUp warmUp) {
+        return new AsciidoctorPool(size, () -> createInstance(docletOptions, warmUp));
+    }
+
+    private static Asciidoctor createInstance(DocletOptions docletOptions, AsciidoctorWarmUp warmUp) {
+        Asciidoctor asciidoctor = warmUp != null ? warmUp.take(docletOptions) : null;
+        if (asciidoctor == null) {
+            asciidoctor = register(docletOptions.gemPath() != null
+                    ? AsciidoctorJRuby.Factory.create(docletOptions.gemPath())
+                    : Asciidoctor.Factory.create());
+        }
+        if (!docletOptions.requires().isEmpty()) {
+            RubyExtensionRegistry rubyExtensionRegistry = asciidoctor.rubyExtensionRegistry();
+            docletOptions.requires().forEach(rubyExtensionRegistry::requireLibrary);
+        }
+        return asciidoctor;
+    }
+
+    /**
+     * Registers {@link AsciidocletConverter} and {@link AsciidocletHighlighter} with a new instance.
+     * Instances taken from a warm-up have been registered while warming up.
+     *
+     * @param asciidoctor a new instance
+     * @return the same instance
+     */
+    static Asciidoctor register(Asciidoctor asciidoctor) {
+        AsciidocletConverter.register(asciidoctor);
+        AsciidocletHighlighter.register(asciidoctor);
+        return asciidoctor;
+    }
+
+    /**
+     * Takes an instance for exclusive use, waiting for one to be returned if all are in use.
+     *
+     * @return an instance, to be given back with {@link #release(Asciidoctor)}
+     */
+    Asciidoctor checkout() {
+        permits.acquireUninterruptibly();
+        Asciidoctor asciidoctor = idle.pollFirst();
+        if (asciidoctor != null) {
+            return asciidoctor;
+        }
+        try {
+            asciidoctor = factory.get();
+        } catch (RuntimeException | Error e) {
+            permits.release();
+            throw e;
+        }
+        synchronized (created) {
+            created.add(asciidoctor);
+        }
+        return asciidoctor;
+    }
+
+    /**
+     * Gives back an instance obtained from {@link #checkout()}.
+     */
+    void release(Asciidoctor asciidoctor) {
+        // Most recently used first, so that a lightly used pool keeps working with warm instances.
+        idle.addFirst(asciidoctor);
+        permits.release();
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns how many instances have been created so far.
+     */
+    int created() {
+        synchronized (created) {
+            return created.size();
+        }
+    }
+
+    /**
+     * Shuts down every instance created by this pool.
+     */
+    @Override
+    public void close() {
+        synchronized (created) {
+            created.forEach(Asciidoctor::shutdown);
+            created.clear();
+        }
+        idle.clear();
+    }
+}
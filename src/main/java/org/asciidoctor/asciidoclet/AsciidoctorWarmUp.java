@@ -0,0 +1,127 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+import org.asciidoctor.Asciidoctor;
+import org.asciidoctor.Attributes;
+import org.asciidoctor.Options;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Boots an Asciidoctor instance in the background while the standard doclet sets up.
+ * <p>
+ * Creating an instance starts a JRuby runtime and loads the Asciidoctor gem, which takes
+ * several seconds. The converter sets Asciidoctor up on the first comment, so starting when
+ * the run begins hides part of that time. A small document is also converted, so that the
+ * first comments do not pay for loading the converter and the syntax highlighter.
+ * <p>
+ * Javadoc parses the sources right after the options, without calling the doclet in between,
+ * so the warm-up cannot start any earlier without guessing the options. It is not started
+ * when comments are converted by a daemon, nor when `--gem-path` is given, since the
+ * instance could not be used.
+ */
+class AsciidoctorWarmUp {
+
+    private static final String WARM_UP_DOCUMENT = "= Warm-up\n\n" +
+            "A *paragraph* with _inline_ `markup` and a https://asciidoctor.org[link].\n\n" +
+            "* an item\n\n" +
+            "[source,java]\n" +
+            "----\n" +
+            "class WarmUp {}\n" +
+            "----\n";
+
+    private final CompletableFuture<Asciidoctor> instance;
+    private boolean taken;
+
+    private AsciidoctorWarmUp(CompletableFuture<Asciidoctor> instance) {
+        this.instance = instance;
+    }
+
+    /**
+     * Starts creating an instance on a background thread, if the run can use it.
+     *
+     * @param docletOptions the doclet options of the current run
+     * @return the warm-up, or null if comments are not converted in this process by the default gems
+     */
+    static AsciidoctorWarmUp start(DocletOptions docletOptions) {
+        if (docletOptions.daemonIdleTimeout() > 0 || docletOptions.gemPath() != null) {
+            return null;
+        }
+        return start();
+    }
+
+    /**
+     * Starts creating an instance on a background thread.
+     */
+    static AsciidoctorWarmUp start() {
+        CompletableFuture<Asciidoctor> instance = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            try {
+                instance.complete(warmUp(AsciidoctorPool.register(Asciidoctor.Factory.create())));
+            } catch (Throwable t) {
+                instance.completeExceptionally(t);
+            }
+        }, "asciidoclet-warm-up");
+        thread.setDaemon(true);
+        thread.start();
+        return new AsciidoctorWarmUp(instance);
+    }
+
+    private static Asciidoctor warmUp(Asciidoctor asciidoctor) {
+        asciidoctor.convert(WARM_UP_DOCUMENT, Options.builder()
+                .attributes(Attributes.builder()
+                        .attribute("source-highlighter", AsciidocletHighlighter.NAME)
+                        .build())
+                .build());
+        return asciidoctor;
+    }
+
+    /**
+     * Takes the instance, waiting for it to be ready.
+     * It can be taken only once, and only if it suits the options of the run.
+     *
+     * @param docletOptions the doclet options of the current run
+     * @return the instance, or null if it cannot be used
+     */
+    synchronized Asciidoctor take(DocletOptions docletOptions) {
+        if (taken) {
+            return null;
+        }
+        if (docletOptions.gemPath() != null) {
+            discard();
+            return null;
+        }
+        taken = true;
+        try {
+            return instance.join();
+        } catch (CompletionException e) {
+            // Creating the instance again reports the failure, unless it was transient.
+            return null;
+        }
+    }
+
+    /**
+     * Shuts the instance down once ready, unless it has been taken.
+     */
+    synchronized void discard() {
+        if (!taken) {
+            taken = true;
+            instance.thenAccept(Asciidoctor::shutdown);
+        }
+    }
+}
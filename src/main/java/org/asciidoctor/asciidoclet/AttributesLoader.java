@@ -38,14 +38,38 @@ class AttributesLoader {
     private final Asciidoctor asciidoctor;
     private final DocletOptions docletOptions;
     private final Reporter reporter;
+    private final ConversionStats stats;
 
     AttributesLoader(Asciidoctor asciidoctor, DocletOptions docletOptions, Reporter reporter) {
+        this(asciidoctor, docletOptions, reporter, new ConversionStats());
+    }
+
+    AttributesLoader(Asciidoctor asciidoctor, DocletOptions docletOptions, Reporter reporter, ConversionStats stats) {
         this.asciidoctor = asciidoctor;
         this.docletOptions = docletOptions;
         this.reporter = reporter;
+        this.stats = stats;
     }
 
     Map<String, Object> load() {
+        final AsciidocletEvents.AttributeLoading event = new AsciidocletEvents.AttributeLoading();
+        event.begin();
+        final long start = System.nanoTime();
+        Map<String, Object> attributes = null;
+        try {
+            attributes = loadAttributes();
+            return attributes;
+        } finally {
+            stats.attributes().recordSince(start);
+            if (event.shouldCommit()) {
+                event.attributesFile = docletOptions.attributesFile().map(File::getPath).orElse(null);
+                event.attributes = attributes != null ? attributes.size() : 0;
+                event.commit();
+            }
+        }
+    }
+
+    private Map<String, Object> loadAttributes() {
         List<String> attributeArgs = docletOptions.attributes();
         Set<String> unset = getUnsetAttributes(attributeArgs);
 
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+import org.asciidoctor.jruby.AsciidoctorJRuby;
+
+import java.io.IOException;
+import java.security.CodeSource;
+
+/**
+ * Identifies the code converting comments, i.e. the doclet and the AsciidoctorJ and JRuby jars it runs with.
+ * <p>
+ * Output produced by one build of that code must not be served to another, be it by a
+ * {@link RenderingDaemon} or from a {@link DiskCache}.
+ * Released versions live in jars of their own, and a rebuilt doclet has a new modification time.
+ * Declared versions are not used, since a rebuilt snapshot keeps its version, and they depend on
+ * whether the doclet is loaded as a module.
+ */
+final class CodeVersion {
+
+    private static final String CURRENT = compute();
+
+    private CodeVersion() {
+    }
+
+    /**
+     * Returns the identity of the code of the current process.
+     */
+    static String current() {
+        return CURRENT;
+    }
+
+    private static String compute() {
+        long lastModified;
+        try {
+            lastModified = CodeVersion.class.getResource("CodeVersion.class").openConnection().getLastModified();
+        } catch (IOException e) {
+            lastModified = 0;
+        }
+        return ContentHash.of(location(Asciidoclet.class), location(AsciidoctorJRuby.class), location("org.jruby.Ruby"),
+                String.valueOf(lastModified)).substring(0, 16);
+    }
+
+    // JRuby is only used through AsciidoctorJ, so the doclet module does not read it.
+    private static String location(String className) {
+        try {
+            return location(Class.forName(className, false, AsciidoctorJRuby.class.getClassLoader()));
+        } catch (ClassNotFoundException e) {
+            return "unknown";
+        }
+    }
+
+    private static String location(Class<?> type) {
+        final CodeSource codeSource = type.getProtectionDomain().getCodeSource();
+        return codeSource != null && codeSource.getLocation() != null ? codeSource.getLocation().toString() : "unknown";
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, content-addressed memo of rendered fragments.
+ * <p>
+ * Entries are keyed by a hash of the cleaned AsciiDoc source, the conversion
+ * mode (inline or block) and the effective attributes, and are evicted in
+ * least-recently-used order once either the entry or the byte limit is exceeded.
+ * A limit of `0` disables the cache.
+ */
+class ConversionCache {
+
+    static final int DEFAULT_MAX_ENTRIES = 10_000;
+    static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final String attributesHash;
+    private final LinkedHashMap<String, String> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    ConversionCache(int maxEntries, long maxBytes, String attributesHash) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.attributesHash = attributesHash;
+    }
+
+    /**
+     * Computes the cache key of a fragment.
+     *
+     * @param cleanedInput AsciiDoc source, as passed to Asciidoctor
+     * @param inline       whether the fragment is converted inline
+     */
+    String key(String cleanedInput, boolean inline) {
+        return ContentHash.of(attributesHash, inline ? "inline" : "block", cleanedInput);
+    }
+
+    /**
+     * Returns the hash of the effective attribute set this cache was created for.
+     */
+    String attributesHash() {
+        return attributesHash;
+    }
+
+    boolean isEnabled() {
+        return maxEntries > 0 && maxBytes > 0;
+    }
+
+    /**
+     * Looks up a rendered fragment, counting a hit or a miss.
+     *
+     * @return the rendered HTML, or null when absent
+     */
+    synchronized String get(String key) {
+        String html = entries.get(key);
+        if (html == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return html;
+    }
+
+    synchronized void put(String key, String html) {
+        if (!isEnabled()) {
+            return;
+        }
+        long size = sizeOf(key, html);
+        if (size > maxBytes) {
+            return;
+        }
+        String previous = entries.put(key, html);
+        if (previous != null) {
+            bytes -= sizeOf(key, previous);
+        }
+        bytes += size;
+        evict();
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, String>> eldest = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || bytes > maxBytes) && eldest.hasNext()) {
+            Map.Entry<String, String> entry = eldest.next();
+            bytes -= sizeOf(entry.getKey(), entry.getValue());
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    // Strings are approximated at two bytes per char; the key is included since it is retained too.
+    private static long sizeOf(String key, String html) {
+        return 2L * (key.length() + html.length());
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized long bytes() {
+        return bytes;
+    }
+
+    long hits() {
+        return hits.sum();
+    }
+
+    long misses() {
+        return misses.sum();
+    }
+
+    long evictions() {
+        return evictions.sum();
+    }
+}
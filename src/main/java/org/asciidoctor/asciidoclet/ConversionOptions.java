@@ -0,0 +1,114 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+import jdk.javadoc.doclet.Reporter;
+import org.asciidoctor.Asciidoctor;
+import org.asciidoctor.Options;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Immutable snapshot of the Asciidoctor options used for a whole doclet run.
+ * <p>
+ * Creating the options reads the attributes file and requires the extension
+ * libraries, so it is done once and shared by every conversion instead of once
+ * per comment fragment.
+ */
+final class ConversionOptions {
+
+    private static final String INLINE_DOCTYPE = "inline";
+    // The default value from the command line, see
+    // https://docs.asciidoctor.org/asciidoctor/latest/cli/man1/asciidoctor/#options
+    private static final String DEFAULT_DOCTYPE = "article";
+
+    private final Options block;
+    private final Options inline;
+    private final Map<String, Object> attributes;
+    private final String fingerprint;
+
+    private ConversionOptions(Function<String, Options> options, Map<String, Object> attributes, String baseDir) {
+        this.block = options.apply(DEFAULT_DOCTYPE);
+        this.inline = options.apply(INLINE_DOCTYPE);
+        this.attributes = Collections.unmodifiableMap(attributes);
+        Map<String, Object> fingerprinted = new HashMap<>();
+        fingerprinted.put(Options.BASEDIR, baseDir);
+        fingerprinted.put(Options.ATTRIBUTES, attributes);
+        this.fingerprint = ContentHash.of(canonical(fingerprinted));
+    }
+
+    static ConversionOptions create(Asciidoctor asciidoctor, DocletOptions docletOptions, OutputTemplates templates, Reporter reporter) {
+        return create(asciidoctor, docletOptions, templates, reporter, new ConversionStats());
+    }
+
+    static ConversionOptions create(Asciidoctor asciidoctor, DocletOptions docletOptions, OutputTemplates templates, Reporter reporter,
+                                    ConversionStats stats) {
+        AsciidoctorOptionsFactory factory = new AsciidoctorOptionsFactory(asciidoctor, reporter, stats);
+        Map<String, Object> attributes = factory.attributes(docletOptions);
+        factory.requireLibraries(docletOptions);
+        // The template directory is a fresh temporary path on some runs, so it is left out of the
+        // fingerprint. The templates themselves are bundled with Asciidoclet, so they are covered by its version instead.
+        return new ConversionOptions(docType -> factory.builder(docletOptions, templates, attributes).docType(docType).build(),
+                attributes, docletOptions.baseDir().map(File::getPath).orElse(null));
+    }
+
+    /**
+     * Options for standalone blocks, such as the main comment body or an overview file.
+     */
+    Options block() {
+        return block;
+    }
+
+    /**
+     * Options for inline fragments, such as the text of a block tag.
+     */
+    Options inline() {
+        return inline;
+    }
+
+    Options forMode(boolean inline) {
+        return inline ? this.inline : this.block;
+    }
+
+    /**
+     * Returns the effective document attributes shared by both option variants.
+     */
+    Map<String, Object> attributes() {
+        return attributes;
+    }
+
+    /**
+     * Returns a stable hash of the effective options and attributes, suitable for cache keys.
+     */
+    String fingerprint() {
+        return fingerprint;
+    }
+
+    // Renders maps with sorted keys so that the fingerprint does not depend on hash ordering.
+    private static String canonical(Object value) {
+        if (value instanceof Map) {
+            Map<String, String> sorted = new TreeMap<>();
+            ((Map<?, ?>) value).forEach((k, v) -> sorted.put(String.valueOf(k), canonical(v)));
+            return sorted.toString();
+        }
+        return String.valueOf(value);
+    }
+}
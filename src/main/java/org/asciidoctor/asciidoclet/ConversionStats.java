@@ -0,0 +1,365 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+import jdk.javadoc.doclet.Reporter;
+
+import javax.tools.Diagnostic;
+import javax.tools.DocumentationTool;
+import javax.tools.JavaFileManager;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and timers describing where a run spends its time, reported with `--asciidoclet-stats`.
+ * <p>
+ * Everything is collected unconditionally: updates are a handful of {@link LongAdder} increments
+ * per fragment or Asciidoctor call, which is negligible next to the conversions themselves.
+ */
+final class ConversionStats {
+
+    /**
+     * How the statistics of a run are reported.
+     */
+    enum Report {
+        /** Not reported. */
+        NONE,
+        /** A summary printed through the reporter. */
+        SUMMARY,
+        /** The summary, and `asciidoclet-stats.json` in the output directory. */
+        JSON
+    }
+
+    static final String JSON_FILE = "asciidoclet-stats.json";
+
+    private final LongAdder blockFragments = new LongAdder();
+    private final LongAdder inlineFragments = new LongAdder();
+    private final LongAdder plainTextFragments = new LongAdder();
+    private final LongAdder memoryCacheHits = new LongAdder();
+    private final LongAdder diskCacheHits = new LongAdder();
+    private final LongAdder charsIn = new LongAdder();
+    private final LongAdder charsOut = new LongAdder();
+    private final LongAdder fileCharsIn = new LongAdder();
+    private final LongAdder fileCharsOut = new LongAdder();
+    private final LongAdder fileCacheHits = new LongAdder();
+    private final LongAdder commentTables = new LongAdder();
+    private final LongAdder repeatedCommentTableRequests = new LongAdder();
+
+    // The memo of highlighted blocks outlives the run, so only what happened since it started is reported.
+    private final ConversionCache highlightCache = AsciidocletHighlighter.cache();
+    private final long highlightCacheHitsAtStart = highlightCache.hits();
+    private final long highlightCacheMissesAtStart = highlightCache.misses();
+
+    private final Timer asciidoctor = new Timer();
+    private final Timer conversion = new Timer();
+    private final Timer files = new Timer();
+    private final Timer attributes = new Timer();
+    private final Timer daemon = new Timer();
+
+    /**
+     * Records a fragment rendered by Asciidoctor, on its own or as part of a batch.
+     */
+    void fragmentRendered(boolean inline, int cleanedLength, int htmlLength) {
+        (inline ? inlineFragments : blockFragments).increment();
+        charsIn.add(cleanedLength);
+        charsOut.add(htmlLength);
+    }
+
+    /**
+     * Records a fragment rendered as {@link PlainText}.
+     */
+    void plainTextRendered(int cleanedLength, int htmlLength) {
+        plainTextFragments.increment();
+        charsIn.add(cleanedLength);
+        charsOut.add(htmlLength);
+    }
+
+    void memoryCacheHit() {
+        memoryCacheHits.increment();
+    }
+
+    void diskCacheHit() {
+        diskCacheHits.increment();
+    }
+
+    /**
+     * Records an overview or package file rendered by {@link AsciidocFileView}.
+     */
+    void fileRendered(long nanos, int sourceLength, int htmlLength) {
+        files.record(nanos);
+        fileCharsIn.add(sourceLength);
+        fileCharsOut.add(htmlLength);
+    }
+
+    /**
+     * Records an overview or package file served by {@link RenderedFileCache} instead of being rendered again.
+     */
+    void fileCacheHit() {
+        fileCacheHits.increment();
+    }
+
+    long fileCacheHits() {
+        return fileCacheHits.sum();
+    }
+
+    /**
+     * Records the doc comment table of a compilation unit processed by {@link DocCommentTableTracker}.
+     */
+    void commentTableProcessed() {
+        commentTables.increment();
+    }
+
+    /**
+     * Records a request for a doc comment table that was already processed.
+     */
+    void commentTableRequestRepeated() {
+        repeatedCommentTableRequests.increment();
+    }
+
+    long commentTables() {
+        return commentTables.sum();
+    }
+
+    long repeatedCommentTableRequests() {
+        return repeatedCommentTableRequests.sum();
+    }
+
+    /**
+     * Time spent in Asciidoctor, i.e. in JRuby, converting or loading fragments.
+     */
+    Timer asciidoctor() {
+        return asciidoctor;
+    }
+
+    /**
+     * Time spent converting comments, in Java and in Asciidoctor.
+     */
+    Timer conversion() {
+        return conversion;
+    }
+
+    /**
+     * Time spent rendering overview and package files.
+     */
+    Timer files() {
+        return files;
+    }
+
+    /**
+     * Time spent loading the document attributes.
+     */
+    Timer attributes() {
+        return attributes;
+    }
+
+    /**
+     * Time spent waiting for a {@link RenderingDaemon} to convert comments.
+     */
+    Timer daemon() {
+        return daemon;
+    }
+
+    /**
+     * Source blocks whose highlighting was found in the memo of {@link AsciidocletHighlighter}.
+     */
+    long highlightCacheHits() {
+        return highlightCache.hits() - highlightCacheHitsAtStart;
+    }
+
+    /**
+     * Source blocks highlighted by {@link AsciidocletHighlighter}.
+     */
+    long highlightCacheMisses() {
+        return highlightCache.misses() - highlightCacheMissesAtStart;
+    }
+
+    long plainTextFragments() {
+        return plainTextFragments.sum();
+    }
+
+    /**
+     * Reports the statistics of the run.
+     *
+     * @param report      what to report
+     * @param reporter    prints the summary
+     * @param fileManager opens the JSON report in the documentation output directory
+     */
+    void report(Report report, Reporter reporter, JavaFileManager fileManager) {
+        if (report == Report.NONE) {
+            return;
+        }
+        reporter.print(Diagnostic.Kind.NOTE, summary());
+        if (report == Report.JSON) {
+            try (Writer writer = new OutputStreamWriter(fileManager.getFileForOutput(
+                    DocumentationTool.Location.DOCUMENTATION_OUTPUT, "", JSON_FILE, null).openOutputStream(), StandardCharsets.UTF_8)) {
+                writer.write(toJson());
+            } catch (IOException e) {
+                reporter.print(Diagnostic.Kind.WARNING, "Cannot write " + JSON_FILE + ": " + e.getLocalizedMessage());
+            }
+        }
+    }
+
+    /**
+     * Formats the statistics for the reporter.
+     */
+    String summary() {
+        long javaNanos = Math.max(0, conversion.totalNanos() - asciidoctor.totalNanos() - daemon.totalNanos());
+        return String.join(System.lineSeparator(),
+                "Asciidoclet statistics:",
+                String.format(Locale.ROOT, "  fragments: %d block, %d inline, %d plain text rendered without Asciidoctor",
+                        blockFragments.sum(), inlineFragments.sum(), plainTextFragments.sum()),
+                String.format(Locale.ROOT, "  cache hits: %d in memory, %d on disk", memoryCacheHits.sum(), diskCacheHits.sum()),
+                String.format(Locale.ROOT, "  highlighted blocks: %d from cache, %d highlighted, %d cached",
+                        highlightCacheHits(), highlightCacheMisses(), highlightCache.size()),
+                String.format(Locale.ROOT, "  characters: %d in, %d out", charsIn.sum(), charsOut.sum()),
+                String.format(Locale.ROOT, "  comment tables: %d processed, %d repeated requests",
+                        commentTables.sum(), repeatedCommentTableRequests.sum()),
+                "  Asciidoctor: " + asciidoctor.summary("calls"),
+                "  conversion: " + conversion.summary("conversions") + ", " + millis(javaNanos) + " in Java",
+                "  files: " + files.summary("files") + String.format(Locale.ROOT, ", %d characters in, %d out, %d from cache",
+                        fileCharsIn.sum(), fileCharsOut.sum(), fileCacheHits.sum()),
+                "  attributes: " + attributes.summary("loads"),
+                "  daemon: " + daemon.summary("requests"));
+    }
+
+    /**
+     * Formats the statistics as a JSON object.
+     */
+    String toJson() {
+        return "{\n" +
+                "  \"fragments\": {\"block\": " + blockFragments.sum() + ", \"inline\": " + inlineFragments.sum()
+                + ", \"plainText\": " + plainTextFragments.sum() + "},\n" +
+                "  \"cacheHits\": {\"memory\": " + memoryCacheHits.sum() + ", \"disk\": " + diskCacheHits.sum() + "},\n" +
+                "  \"highlightCache\": {\"hits\": " + highlightCacheHits() + ", \"misses\": " + highlightCacheMisses()
+                + ", \"entries\": " + highlightCache.size() + ", \"bytes\": " + highlightCache.bytes() + "},\n" +
+                "  \"chars\": {\"in\": " + charsIn.sum() + ", \"out\": " + charsOut.sum() + "},\n" +
+                "  \"fileChars\": {\"in\": " + fileCharsIn.sum() + ", \"out\": " + fileCharsOut.sum() + "},\n" +
+                "  \"fileCacheHits\": " + fileCacheHits.sum() + ",\n" +
+                "  \"commentTables\": {\"processed\": " + commentTables.sum() + ", \"repeatedRequests\": "
+                + repeatedCommentTableRequests.sum() + "},\n" +
+                "  \"timers\": {\n" +
+                "    \"asciidoctor\": " + asciidoctor.toJson() + ",\n" +
+                "    \"conversion\": " + conversion.toJson() + ",\n" +
+                "    \"files\": " + files.toJson() + ",\n" +
+                "    \"attributes\": " + attributes.toJson() + ",\n" +
+                "    \"daemon\": " + daemon.toJson() + "\n" +
+                "  }\n" +
+                "}\n";
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.1f ms", nanos / 1e6);
+    }
+
+    /**
+     * Counts timed events, with a histogram of their durations in power of two microsecond buckets.
+     */
+    static final class Timer {
+
+        private static final int BUCKETS = 32;
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final LongAdder[] histogram = new LongAdder[BUCKETS];
+
+        Timer() {
+            for (int i = 0; i < BUCKETS; i++) {
+                histogram[i] = new LongAdder();
+            }
+        }
+
+        /**
+         * Records an event that started at the given {@link System#nanoTime()}.
+         */
+        void recordSince(long startNanos) {
+            record(System.nanoTime() - startNanos);
+        }
+
+        void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            histogram[bucket(nanos)].increment();
+        }
+
+        // Bucket i holds durations of less than 2^i microseconds, and at least half that.
+        private static int bucket(long nanos) {
+            long micros = nanos / 1000;
+            return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        }
+
+        long count() {
+            return count.sum();
+        }
+
+        long totalNanos() {
+            return totalNanos.sum();
+        }
+
+        /**
+         * Returns the upper bound, in microseconds, of the bucket holding the given percentile.
+         */
+        long percentileMicros(double percentile) {
+            long total = count();
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(total * percentile / 100);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += histogram[i].sum();
+                if (seen >= rank) {
+                    return 1L << i;
+                }
+            }
+            return 1L << (BUCKETS - 1);
+        }
+
+        String summary(String unit) {
+            long count = count();
+            if (count == 0) {
+                return "0 " + unit;
+            }
+            return String.format(Locale.ROOT, "%d %s in %s, mean %s, p50 < %d us, p99 < %d us, max %s",
+                    count, unit, millis(totalNanos()), millis(totalNanos() / count),
+                    percentileMicros(50), percentileMicros(99), millis(maxNanos.get()));
+        }
+
+        String toJson() {
+            StringBuilder json = new StringBuilder("{\"count\": ").append(count())
+                    .append(", \"totalNanos\": ").append(totalNanos())
+                    .append(", \"maxNanos\": ").append(maxNanos.get())
+                    .append(", \"histogram\": [");
+            int last = BUCKETS - 1;
+            while (last > 0 && histogram[last].sum() == 0) {
+                last--;
+            }
+            for (int i = 0; i <= last; i++) {
+                if (i > 0) {
+                    json.append(", ");
+                }
+                json.append("{\"lessThanMicros\": ").append(1L << i).append(", \"count\": ").append(histogram[i].sum()).append('}');
+            }
+            return json.append("]}").toString();
+        }
+    }
+}
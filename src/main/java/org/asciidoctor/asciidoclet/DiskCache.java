@@ -0,0 +1,322 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+import jdk.javadoc.doclet.Reporter;
+import org.asciidoctor.Asciidoctor;
+
+import javax.tools.Diagnostic;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Persistent, content-addressed store of rendered fragments, used to speed up incremental builds.
+ * <p>
+ * Invalidation rules:
+ *
+ * * Every entry is addressed by the hash of the fragment key (cleaned input, mode and options fingerprint)
+ *   combined with a namespace made of the {@link CodeVersion}, the Asciidoctor version, the
+ *   required libraries and the gem path. A rebuilt doclet gets a new code version, as for the daemon. Changing any of them simply stops old entries from being hit.
+ * * Fragments that include other files or refer to the local date or time are never persisted,
+ *   since their output can change without their source changing.
+ * * Entries that cannot be read back or fail their checksum are deleted and re-rendered.
+ * * When the store grows beyond its size cap, the least recently used entries are pruned at the end of the run.
+ */
+class DiskCache {
+
+    static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+
+    private static final int MAGIC = 0x41444331; // "ADC1"
+    private static final byte RAW = 0;
+    private static final byte DEFLATED = 1;
+    // Magic, format, length and CRC32 around the content.
+    private static final int ENVELOPE_SIZE = 4 + 1 + 4 + 8;
+    private static final int COMPRESSION_THRESHOLD = 512;
+    private static final String ENTRY_SUFFIX = ".bin";
+    private static final String[] VOLATILE_MARKERS = {"include::", "{localdate", "{localtime", "{localyear"};
+
+    private final Path directory;
+    private final long maxBytes;
+    private final String namespace;
+    private final Reporter reporter;
+    private volatile boolean writable = true;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder corrupted = new LongAdder();
+    private final LongAdder pruned = new LongAdder();
+
+    DiskCache(Path directory, long maxBytes, String namespace, Reporter reporter) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.namespace = namespace;
+        this.reporter = reporter;
+    }
+
+    /**
+     * Computes the namespace of the entries that can be shared with the current run.
+     *
+     * @param asciidoctor   the Asciidoctor instance used for conversions
+     * @param docletOptions the doclet options of the current run
+     */
+    static String namespace(Asciidoctor asciidoctor, DocletOptions docletOptions) {
+        return ContentHash.of(
+                CodeVersion.current(),
+                asciidoctor.asciidoctorVersion(),
+                String.join(",", docletOptions.requires()),
+                String.valueOf(docletOptions.gemPath()));
+    }
+
+    /**
+     * Returns whether a fragment may be persisted, see the invalidation rules.
+     * The same rule applies to the memory cache, which a {@link RenderingDaemon} keeps across runs.
+     *
+     * @param cleanedInput AsciiDoc source of the fragment
+     */
+    static boolean isCacheable(String cleanedInput) {
+        for (String marker : VOLATILE_MARKERS) {
+            if (cleanedInput.contains(marker)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads a rendered fragment.
+     *
+     * @param key fragment key, as computed by {@link ConversionCache#key(String, boolean)}
+     * @return the rendered HTML, or null if absent or unreadable
+     */
+    String get(String key) {
+        Path entry = entryPath(key);
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(entry))) {
+            String html = readEntry(in, Files.size(entry));
+            touch(entry);
+            hits.increment();
+            return html;
+        } catch (NoSuchFileException e) {
+            misses.increment();
+            return null;
+        } catch (IOException | RuntimeException e) {
+            corrupted.increment();
+            misses.increment();
+            deleteQuietly(entry);
+            return null;
+        }
+    }
+
+    /**
+     * Stores a rendered fragment.
+     * Failures are reported once, after which the cache becomes read-only for the rest of the run.
+     *
+     * @param key  fragment key, as computed by {@link ConversionCache#key(String, boolean)}
+     * @param html rendered HTML
+     */
+    void put(String key, String html) {
+        if (!writable) {
+            return;
+        }
+        Path entry = entryPath(key);
+        try {
+            Files.createDirectories(entry.getParent());
+            Path tmp = Files.createTempFile(entry.getParent(), key, ".tmp");
+            try {
+                try (OutputStream out = Files.newOutputStream(tmp)) {
+                    out.write(encode(html));
+                }
+                moveAtomically(tmp, entry);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            writable = false;
+            reporter.print(Diagnostic.Kind.WARNING, "Cannot write to cache directory " + directory + ": " + e.getLocalizedMessage());
+        }
+    }
+
+    /**
+     * Prunes the least recently used entries until the store fits within its size cap.
+     */
+    void prune() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        List<Path> entries;
+        try (Stream<Path> files = Files.walk(directory, 2)) {
+            entries = files.filter(p -> p.getFileName().toString().endsWith(ENTRY_SUFFIX)).collect(Collectors.toList());
+        } catch (IOException e) {
+            reporter.print(Diagnostic.Kind.WARNING, "Cannot prune cache directory " + directory + ": " + e.getLocalizedMessage());
+            return;
+        }
+        List<CachedFile> files = new ArrayList<>(entries.size());
+        long total = 0;
+        for (Path entry : entries) {
+            try {
+                CachedFile file = new CachedFile(entry, Files.size(entry), Files.getLastModifiedTime(entry));
+                files.add(file);
+                total += file.size;
+            } catch (IOException e) {
+                // Removed concurrently, nothing to account for.
+            }
+        }
+        if (total <= maxBytes) {
+            return;
+        }
+        files.sort(Comparator.comparing(f -> f.lastModified));
+        for (CachedFile file : files) {
+            if (total <= maxBytes) {
+                break;
+            }
+            if (deleteQuietly(file.path)) {
+                total -= file.size;
+                pruned.increment();
+            }
+        }
+    }
+
+    long hits() {
+        return hits.sum();
+    }
+
+    long misses() {
+        return misses.sum();
+    }
+
+    long corrupted() {
+        return corrupted.sum();
+    }
+
+    long pruned() {
+        return pruned.sum();
+    }
+
+    Path entryPath(String key) {
+        String hash = ContentHash.of(namespace, key);
+        return directory.resolve(hash.substring(0, 2)).resolve(hash + ENTRY_SUFFIX);
+    }
+
+    private static byte[] encode(String html) throws IOException {
+        byte[] content = html.getBytes(StandardCharsets.UTF_8);
+        byte format = RAW;
+        if (content.length >= COMPRESSION_THRESHOLD) {
+            ByteArrayOutputStream deflated = new ByteArrayOutputStream(content.length / 2);
+            try (DeflaterOutputStream out = new DeflaterOutputStream(deflated)) {
+                out.write(content);
+            }
+            if (deflated.size() < content.length) {
+                format = DEFLATED;
+                content = deflated.toByteArray();
+            }
+        }
+        CRC32 crc = new CRC32();
+        crc.update(content);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(content.length + ENVELOPE_SIZE);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeByte(format);
+        out.writeInt(content.length);
+        out.write(content);
+        out.writeLong(crc.getValue());
+        return bytes.toByteArray();
+    }
+
+    private static String readEntry(DataInputStream in, long size) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Bad magic");
+        }
+        byte format = in.readByte();
+        int length = in.readInt();
+        // The stored length is checked before allocating, so a corrupt entry cannot ask for a huge array.
+        if (length < 0 || length != size - ENVELOPE_SIZE) {
+            throw new IOException("Bad length " + length);
+        }
+        byte[] content = new byte[length];
+        in.readFully(content);
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        if (crc.getValue() != in.readLong() || in.read() != -1) {
+            throw new IOException("Bad checksum");
+        }
+        if (format == DEFLATED) {
+            try (InputStream inflater = new InflaterInputStream(new ByteArrayInputStream(content))) {
+                content = inflater.readAllBytes();
+            }
+        } else if (format != RAW) {
+            throw new IOException("Unknown format " + format);
+        }
+        return new String(content, StandardCharsets.UTF_8);
+    }
+
+    private static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Last-modified time doubles as last-access time for LRU pruning.
+    private static void touch(Path entry) {
+        try {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // Only affects pruning order.
+        }
+    }
+
+    private static boolean deleteQuietly(Path path) {
+        try {
+            return Files.deleteIfExists(path);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static final class CachedFile {
+        final Path path;
+        final long size;
+        final FileTime lastModified;
+
+        CachedFile(Path path, long size, FileTime lastModified) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+import com.sun.tools.javac.parser.Tokens.Comment;
+import com.sun.tools.javac.tree.DocCommentTable;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * Makes sure the doc comment table of each compilation unit is processed exactly once.
+ * <p>
+ * The standard doclet asks for the comment tree of every documented element, and each
+ * request would otherwise walk the whole table of the enclosing compilation unit again,
+ * wrapping comments that are already wrapped.
+ * Tables are tracked by identity, since they do not define equality.
+ * Processed tables and repeated requests are counted in the {@link ConversionStats}.
+ */
+class DocCommentTableTracker {
+
+    private final Set<DocCommentTable> processed = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+    private final ConversionStats stats;
+
+    DocCommentTableTracker(ConversionStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * Maps the comments of a table, unless it has already been processed.
+     *
+     * @param table         the comments of a compilation unit
+     * @param commentMapper see {@link LazyDocCommentTableProcessor#processAllComments(DocCommentTable, UnaryOperator)}
+     */
+    void process(DocCommentTable table, UnaryOperator<List<Comment>> commentMapper) {
+        if (processed.add(table)) {
+            stats.commentTableProcessed();
+            LazyDocCommentTableProcessor.processAllComments(table, commentMapper);
+        } else {
+            stats.commentTableRequestRepeated();
+        }
+    }
+}
@@ -19,10 +19,14 @@ import jdk.javadoc.doclet.Reporter;
 
 import java.io.File;
 import java.nio.charset.Charset;
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static javax.tools.Diagnostic.Kind.WARNING;
@@ -41,7 +45,22 @@ public class DocletOptions {
     private List<String> attributes;
     private String gemPath;
     private List<String> requires;
-    
+    private int cacheMaxEntries;
+    private long cacheMaxBytes;
+    private File cacheDir;
+    private long cacheDirMaxBytes;
+    private int prerenderThreads;
+    private int poolSize;
+    private ConversionStats.Report stats;
+    private int slowestComments;
+    private List<String> includeFilters;
+    private List<String> excludeFilters;
+    private String highlighter;
+    private long daemonIdleTimeout;
+    private boolean batchUnits;
+    private boolean batchFragments;
+    private final List<Map.Entry<AsciidocletOptions, String>> collected = new ArrayList<>();
+
     /**
      * Creates an {@link DocletOptions} object with a given {@link Reporter} object.
      *
@@ -52,9 +71,17 @@ public class DocletOptions {
         encoding = Charset.defaultCharset();
         attributes = new ArrayList<>();
         requires = new ArrayList<>();
+        includeFilters = new ArrayList<>();
+        excludeFilters = new ArrayList<>();
+        cacheMaxEntries = ConversionCache.DEFAULT_MAX_ENTRIES;
+        cacheMaxBytes = ConversionCache.DEFAULT_MAX_BYTES;
+        cacheDirMaxBytes = DiskCache.DEFAULT_MAX_BYTES;
+        stats = ConversionStats.Report.NONE;
+        highlighter = AsciidocletHighlighter.NAME;
     }
 
     void collect(AsciidocletOptions option, List<String> list) {
+        list.forEach(value -> collected.add(new AbstractMap.SimpleImmutableEntry<>(option, value)));
         switch (option) {
             case ENCODING:
                 encoding = Charset.forName(list.get(0));
@@ -79,7 +106,94 @@ public class DocletOptions {
             case REQUIRE_LONG:
                 splitTrimStream(list).forEach(requires::add);
                 break;
+            case INCLUDE_FILTER:
+                splitTrimStream(list).forEach(includeFilters::add);
+                break;
+            case EXCLUDE_FILTER:
+                splitTrimStream(list).forEach(excludeFilters::add);
+                break;
+            case CACHE_MAX_ENTRIES:
+                cacheMaxEntries = (int) parseSize(option, list.get(0), cacheMaxEntries, Integer.MAX_VALUE);
+                break;
+            case CACHE_MAX_BYTES:
+                cacheMaxBytes = parseSize(option, list.get(0), cacheMaxBytes, Long.MAX_VALUE);
+                break;
+            case CACHE_DIR:
+                cacheDir = new File(list.get(0));
+                break;
+            case CACHE_DIR_MAX_BYTES:
+                cacheDirMaxBytes = parseSize(option, list.get(0), cacheDirMaxBytes, Long.MAX_VALUE);
+                break;
+            case PRERENDER_THREADS:
+                prerenderThreads = (int) parseSize(option, list.get(0), prerenderThreads, Integer.MAX_VALUE);
+                break;
+            case POOL_SIZE:
+                poolSize = (int) parseSize(option, list.get(0), poolSize, Integer.MAX_VALUE);
+                break;
+            case STATS:
+                stats = parseStats(list.get(0));
+                break;
+            case SLOWEST_COMMENTS:
+                slowestComments = (int) parseSize(option, list.get(0), slowestComments, Integer.MAX_VALUE);
+                break;
+            case HIGHLIGHTER:
+                highlighter = list.get(0).trim();
+                break;
+            case DAEMON:
+                daemonIdleTimeout = parseSize(option, list.get(0), daemonIdleTimeout, Long.MAX_VALUE / 1000);
+                break;
+            case BATCH:
+                parseBatch(list.get(0));
+                break;
+        }
+    }
+
+    private long parseSize(AsciidocletOptions option, String value, long defaultValue, long maxValue) {
+        try {
+            long size = Long.parseLong(value.trim());
+            if (size >= 0 && size <= maxValue) {
+                return size;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
         }
+        printWarning("Invalid value for " + option.getNames().get(0) + ": " + value + ", using " + defaultValue);
+        return defaultValue;
+    }
+
+    private ConversionStats.Report parseStats(String value) {
+        switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "summary":
+                return ConversionStats.Report.SUMMARY;
+            case "json":
+                return ConversionStats.Report.JSON;
+            default:
+                printWarning("Invalid value for " + AsciidocletOptions.STATS.getNames().get(0) + ": " + value + ", expected summary or json");
+                return stats;
+        }
+    }
+
+    private void parseBatch(String value) {
+        boolean units = false;
+        boolean fragments = false;
+        for (String mode : splitTrimStream(List.of(value)).collect(Collectors.toList())) {
+            switch (mode.toLowerCase(Locale.ROOT)) {
+                case "comment":
+                    units = false;
+                    break;
+                case "unit":
+                    units = true;
+                    break;
+                case "fragments":
+                    fragments = true;
+                    break;
+                default:
+                    printWarning("Invalid value for " + AsciidocletOptions.BATCH.getNames().get(0) + ": " + value + ", expected comment or unit, optionally with fragments");
+                    return;
+            }
+        }
+        batchUnits = units;
+        batchFragments = fragments;
     }
 
     private Stream<String> splitTrimStream(List<String> list) {
@@ -121,13 +235,17 @@ public class DocletOptions {
     }
 
     Optional<File> attributesFile() {
-        if (attributesFile == null) {
+        return resolveAgainstBaseDir(attributesFile);
+    }
+
+    private Optional<File> resolveAgainstBaseDir(File file) {
+        if (file == null) {
             return Optional.empty();
         }
-        if (!attributesFile.isAbsolute() && baseDir().isPresent()) {
-            return Optional.of(new File(baseDir().get(), attributesFile.getPath()));
+        if (!file.isAbsolute() && baseDir().isPresent()) {
+            return Optional.of(new File(baseDir().get(), file.getPath()));
         }
-        return Optional.of(attributesFile);
+        return Optional.of(file);
     }
 
     String gemPath() {
@@ -138,4 +256,120 @@ public class DocletOptions {
         return requires;
     }
 
+    int cacheMaxEntries() {
+        return cacheMaxEntries;
+    }
+
+    long cacheMaxBytes() {
+        return cacheMaxBytes;
+    }
+
+    Optional<File> cacheDir() {
+        return resolveAgainstBaseDir(cacheDir);
+    }
+
+    long cacheDirMaxBytes() {
+        return cacheDirMaxBytes;
+    }
+
+    int prerenderThreads() {
+        return prerenderThreads;
+    }
+
+    /**
+     * Returns the maximum number of Asciidoctor instances, which defaults to one per pre-render thread.
+     */
+    int asciidoctorPoolSize() {
+        return poolSize > 0 ? poolSize : Math.max(1, prerenderThreads);
+    }
+
+    ConversionStats.Report stats() {
+        return stats;
+    }
+
+    int slowestComments() {
+        return slowestComments;
+    }
+
+    /**
+     * Returns the name of the Asciidoctor source highlighter, {@link AsciidocletHighlighter#NAME} by default.
+     */
+    String highlighter() {
+        return highlighter;
+    }
+
+    /**
+     * Returns how many seconds a {@link RenderingDaemon} waits for work before exiting, or `0` to convert in process.
+     */
+    long daemonIdleTimeout() {
+        return daemonIdleTimeout;
+    }
+
+    /**
+     * Tells whether all the comments of a compilation unit are converted together when the first one is read,
+     * rather than each comment when it is read.
+     */
+    boolean batchUnits() {
+        return batchUnits;
+    }
+
+    /**
+     * Tells whether the fragments that look unaffected by their neighbours are converted together, as a single
+     * document, rather than each on its own.
+     */
+    boolean batchFragments() {
+        return batchFragments;
+    }
+
+    /**
+     * Returns the options that affect conversions, as pairs of option name and value, so that a
+     * {@link RenderingDaemon} converts exactly as this run would.
+     * Paths are made absolute, since the daemon does not share the working directory of the run.
+     */
+    List<String> daemonArguments() {
+        List<String> arguments = new ArrayList<>();
+        for (Map.Entry<AsciidocletOptions, String> option : collected) {
+            String value = option.getValue();
+            switch (option.getKey()) {
+                case BASEDIR:
+                    value = basedir.getAbsolutePath();
+                    break;
+                case ATTRIBUTES_FILE:
+                    value = attributesFile().map(File::getAbsolutePath).orElse(value);
+                    break;
+                case CACHE_DIR:
+                    value = cacheDir().map(File::getAbsolutePath).orElse(value);
+                    break;
+                case GEM_PATH:
+                    value = Arrays.stream(value.split(File.pathSeparator))
+                            .map(path -> new File(path).getAbsolutePath())
+                            .collect(Collectors.joining(File.pathSeparator));
+                    break;
+                case ENCODING:
+                case STYLESHEET:
+                case INCLUDE_FILTER:
+                case EXCLUDE_FILTER:
+                case PRERENDER_THREADS:
+                case POOL_SIZE:
+                case STATS:
+                case SLOWEST_COMMENTS:
+                case DAEMON:
+                    // Only used by the doclet itself.
+                    continue;
+                default:
+                    break;
+            }
+            arguments.add(option.getKey().name());
+            arguments.add(value);
+        }
+        return arguments;
+    }
+
+    /**
+     * Returns the filter compiled from the include and exclude patterns.
+     */
+    AsciidocFilter filter() {
+        return AsciidocFilter.create(includeFilters, excludeFilters);
+    }
+
 }
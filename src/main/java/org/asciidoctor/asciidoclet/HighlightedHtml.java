@@ -0,0 +1,233 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Builds highlighted source as the CodeRay HTML encoder does with the `class` CSS mode, so that
+ * `coderay-asciidoctor.css` applies to it.
+ * <p>
+ * Scanners hand over tokens, each with a {@link Kind}, and groups of tokens such as strings. Tokens
+ * become `<span>` elements with the CSS class of their kind, unless the kind has none, and are escaped
+ * as CodeRay escapes them: tabs are expanded to 8 spaces and control characters replaced by spaces.
+ */
+final class HighlightedHtml {
+
+    private static final int TAB_WIDTH = 8;
+
+    /**
+     * The token kinds used by the scanners, with the CSS class CodeRay gives them.
+     */
+    enum Kind {
+        ANNOTATION("annotation"),
+        ATTRIBUTE_NAME("attribute-name"),
+        ATTRIBUTE_VALUE("attribute-value"),
+        CHAR("char"),
+        CLASS("class"),
+        CLASS_VARIABLE("class-variable"),
+        COMMENT("comment"),
+        CONTENT("content"),
+        DELIMITER("delimiter"),
+        DIRECTIVE("directive"),
+        DOCTYPE("doctype"),
+        ENTITY("entity"),
+        ERROR("error"),
+        EXCEPTION("exception"),
+        FLOAT("float"),
+        GLOBAL_VARIABLE("global-variable"),
+        HEAD("head"),
+        HEX("hex"),
+        INCLUDE("include"),
+        INLINE_DELIMITER("inline-delimiter"),
+        INTEGER("integer"),
+        KEY("key"),
+        KEYWORD("keyword"),
+        LOCAL_VARIABLE("local-variable"),
+        NAMESPACE("namespace"),
+        OCTAL("octal"),
+        PREDEFINED("predefined"),
+        PREDEFINED_CONSTANT("predefined-constant"),
+        PREDEFINED_TYPE("predefined-type"),
+        PREPROCESSOR("preprocessor"),
+        RESERVED("reserved"),
+        SHELL("shell"),
+        STRING("string"),
+        SYMBOL("symbol"),
+        TAG("tag"),
+        TYPE("type"),
+        VALUE("value"),
+        VARIABLE("variable"),
+        IDENT(null),
+        OPERATOR(null),
+        SPACE(null),
+        PLAIN(null);
+
+        private final String openTag;
+
+        Kind(String cssClass) {
+            this.openTag = cssClass != null ? "<span class=\"" + cssClass + "\">" : null;
+        }
+    }
+
+    private final StringBuilder out = new StringBuilder();
+    private final List<Kind> opened = new ArrayList<>();
+    private final boolean breakLines;
+
+    /**
+     * @param breakLines whether spans are closed at the end of each line and opened again on the next one,
+     *                   as needed when line numbers are inserted at the start of lines
+     */
+    HighlightedHtml(boolean breakLines) {
+        this.breakLines = breakLines;
+    }
+
+    void text(CharSequence text, Kind kind) {
+        final String openTag = kind.openTag;
+        if (openTag != null) {
+            out.append(openTag);
+        }
+        final int length = text.length();
+        for (int i = 0; i < length; i++) {
+            final char c = text.charAt(i);
+            if (c == '\n' && breakLines && (openTag != null || !opened.isEmpty())) {
+                breakLine(openTag);
+            } else {
+                escape(c);
+            }
+        }
+        if (openTag != null) {
+            out.append("</span>");
+        }
+    }
+
+    void begin(Kind kind) {
+        out.append(kind.openTag != null ? kind.openTag : "<span>");
+        opened.add(kind);
+    }
+
+    void end() {
+        if (!opened.isEmpty()) {
+            opened.remove(opened.size() - 1);
+            out.append("</span>");
+        }
+    }
+
+    /**
+     * Closes the groups left open and returns the highlighted source.
+     */
+    String finish() {
+        while (!opened.isEmpty()) {
+            end();
+        }
+        return out.toString();
+    }
+
+    private void breakLine(String openTag) {
+        out.append("</span>".repeat(opened.size() + (openTag != null ? 1 : 0))).append('\n');
+        for (Kind kind : opened) {
+            out.append(kind.openTag != null ? kind.openTag : "<span>");
+        }
+        if (openTag != null) {
+            out.append(openTag);
+        }
+    }
+
+    private void escape(char c) {
+        switch (c) {
+            case '&':
+                out.append("&amp;");
+                break;
+            case '"':
+                out.append("&quot;");
+                break;
+            case '<':
+                out.append("&lt;");
+                break;
+            case '>':
+                out.append("&gt;");
+                break;
+            case '\t':
+                out.append(" ".repeat(TAB_WIDTH));
+                break;
+            default:
+                out.append(c < ' ' && c != '\n' ? ' ' : c);
+        }
+    }
+
+    /**
+     * Adds line numbers to highlighted source, as CodeRay does.
+     *
+     * @param html           highlighted source, built with line breaking for the `inline` mode
+     * @param mode           `table` to put the numbers in a column of their own, `inline` to put them at the start of lines
+     * @param start          number of the first line
+     * @param highlightLines numbers of the lines to highlight, whose numbers are shown in bold, or null
+     * @return the numbered source
+     */
+    static String number(String html, String mode, int start, Collection<Integer> highlightLines) {
+        final int lineCount = lineCount(html);
+        if ("inline".equals(mode)) {
+            final int maxWidth = String.valueOf(start + lineCount).length();
+            final StringBuilder numbered = new StringBuilder(html.length() + lineCount * 32);
+            int lineNumber = start;
+            int lineStart = 0;
+            while (lineStart < html.length()) {
+                final String number = String.valueOf(lineNumber);
+                numbered.append("<span class=\"line-numbers\">")
+                        .append(" ".repeat(maxWidth - number.length()))
+                        .append(numberText(lineNumber, highlightLines))
+                        .append("</span>");
+                final int newline = html.indexOf('\n', lineStart);
+                final int lineEnd = newline < 0 ? html.length() : newline + 1;
+                numbered.append(html, lineStart, lineEnd);
+                lineStart = lineEnd;
+                lineNumber++;
+            }
+            return numbered.toString();
+        }
+        final StringBuilder lineNumbers = new StringBuilder();
+        for (int lineNumber = start; lineNumber < start + lineCount; lineNumber++) {
+            lineNumbers.append(numberText(lineNumber, highlightLines)).append('\n');
+        }
+        return "<table class=\"CodeRay\"><tr>\n" +
+                "  <td class=\"line-numbers\"><pre>" + lineNumbers + "</pre></td>\n" +
+                "  <td class=\"code\"><pre>" + html + "</pre></td>\n" +
+                "</tr></table>\n";
+    }
+
+    private static int lineCount(String html) {
+        final int lastNewline = html.lastIndexOf('\n');
+        if (lastNewline < 0) {
+            return 1;
+        }
+        int newlines = 0;
+        for (int i = html.indexOf('\n'); i >= 0; i = html.indexOf('\n', i + 1)) {
+            newlines++;
+        }
+        final String afterLastNewline = html.substring(lastNewline + 1);
+        final boolean endsWithNewline = afterLastNewline.replace("</span>", "").isEmpty();
+        return endsWithNewline ? newlines : newlines + 1;
+    }
+
+    private static String numberText(int lineNumber, Collection<Integer> highlightLines) {
+        if (highlightLines != null && highlightLines.contains(lineNumber)) {
+            return "<strong class=\"highlighted\">" + lineNumber + "</strong>";
+        }
+        return String.valueOf(lineNumber);
+    }
+}
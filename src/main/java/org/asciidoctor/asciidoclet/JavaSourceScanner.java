@@ -0,0 +1,202 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+import org.asciidoctor.asciidoclet.HighlightedHtml.Kind;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Java scanner, ported from the CodeRay one.
+ */
+final class JavaSourceScanner extends SourceScanner {
+
+    private static final Map<String, Kind> IDENT_KINDS = identKinds();
+
+    private static final String IDENT = "[\\p{IsAlphabetic}_][\\p{IsAlphabetic}\\p{IsDigit}_]*";
+    private static final Pattern SPACE = pattern("\\s+|\\\\\\n");
+    private static final Pattern COMMENT = multilinePattern("//[^\\n\\\\]*(?:\\\\.[^\\n\\\\]*)*|/\\*(?:.*?\\*/|.*)");
+    private static final Pattern QUALIFIED_NAME = pattern(IDENT + "(?:\\." + IDENT + ")*");
+    private static final Pattern IDENT_OR_BRACKETS = pattern(IDENT + "|\\[\\]");
+    private static final Pattern OPERATOR = pattern("\\.(?!\\d)|[,?:()\\[\\]}]|--|\\+\\+|&&|\\|\\||\\*\\*=?|[-+*/%^~&|<>=!]=?|<<<?=?|>>>?=?");
+    private static final Pattern SEMICOLON = pattern(";");
+    private static final Pattern OPEN_BRACE = pattern("\\{");
+    private static final Pattern NUMBER_START = pattern("[\\d.]");
+    private static final Pattern HEX = pattern("0[xX][0-9A-Fa-f]+");
+    private static final Pattern OCTAL = pattern("(?>0[0-7]+)(?![89.eEfF])");
+    private static final Pattern FLOAT = pattern("\\d+[fFdD]|\\d*\\.\\d+(?:[eE][+-]?\\d+)?[fFdD]?|\\d+[eE][+-]?\\d+[fFdD]?");
+    private static final Pattern INTEGER = pattern("\\d+[lL]?");
+    private static final Pattern QUOTE = pattern("[\"']");
+    private static final Pattern ANNOTATION = pattern("@" + IDENT);
+    private static final Pattern DOUBLE_QUOTED_CONTENT = pattern("[^\\\\\"]+");
+    private static final Pattern SINGLE_QUOTED_CONTENT = pattern("[^\\\\']+");
+    private static final Pattern STRING_END = pattern("[\"'/]");
+    private static final Pattern ESCAPE = multilinePattern("\\\\(?:[bfnrtv\\n\\\\'\"]|x[a-fA-F0-9]{1,2}|[0-7]{1,3}|u[a-fA-F0-9]{4}|U[a-fA-F0-9]{8})");
+    private static final Pattern ESCAPED_CHAR = multilinePattern("\\\\.");
+    private static final Pattern UNTERMINATED = pattern("\\\\|$");
+
+    @Override
+    protected void scanTokens(HighlightedHtml out) {
+        boolean inString = false;
+        String stringDelimiter = null;
+        Kind packageNameExpected = null;
+        boolean classNameFollows = false;
+        boolean lastTokenDot = false;
+
+        while (!eos()) {
+            String match;
+            if (!inString) {
+                if ((match = scan(SPACE)) != null) {
+                    out.text(match, Kind.SPACE);
+                    continue;
+                } else if ((match = scan(COMMENT)) != null) {
+                    out.text(match, Kind.COMMENT);
+                    continue;
+                } else if (packageNameExpected != null && (match = scan(QUALIFIED_NAME)) != null) {
+                    out.text(match, packageNameExpected);
+                } else if ((match = scan(IDENT_OR_BRACKETS)) != null) {
+                    Kind kind = IDENT_KINDS.getOrDefault(match, Kind.IDENT);
+                    if (lastTokenDot) {
+                        kind = Kind.IDENT;
+                    } else if (classNameFollows) {
+                        kind = Kind.CLASS;
+                        classNameFollows = false;
+                    } else if (match.equals("import")) {
+                        packageNameExpected = Kind.INCLUDE;
+                    } else if (match.equals("package")) {
+                        packageNameExpected = Kind.NAMESPACE;
+                    } else if (match.equals("class") || match.equals("interface")) {
+                        classNameFollows = true;
+                    }
+                    out.text(match, kind);
+                } else if ((match = scan(OPERATOR)) != null) {
+                    out.text(match, Kind.OPERATOR);
+                } else if ((match = scan(SEMICOLON)) != null) {
+                    packageNameExpected = null;
+                    out.text(match, Kind.OPERATOR);
+                } else if ((match = scan(OPEN_BRACE)) != null) {
+                    classNameFollows = false;
+                    out.text(match, Kind.OPERATOR);
+                } else if (check(NUMBER_START)) {
+                    match = scanNumber(out);
+                } else if ((match = scan(QUOTE)) != null) {
+                    inString = true;
+                    out.begin(Kind.STRING);
+                    stringDelimiter = match;
+                    out.text(match, Kind.DELIMITER);
+                } else if ((match = scan(ANNOTATION)) != null) {
+                    out.text(match, Kind.ANNOTATION);
+                } else {
+                    match = getch();
+                    out.text(match, Kind.ERROR);
+                }
+            } else {
+                if ((match = scan(stringDelimiter.equals("'") ? SINGLE_QUOTED_CONTENT : DOUBLE_QUOTED_CONTENT)) != null) {
+                    out.text(match, Kind.CONTENT);
+                } else if ((match = scan(STRING_END)) != null) {
+                    out.text(match, Kind.DELIMITER);
+                    out.end();
+                    inString = false;
+                    stringDelimiter = null;
+                } else if ((match = scan(ESCAPE)) != null) {
+                    if (stringDelimiter.equals("'") && !(match.equals("\\\\") || match.equals("\\'"))) {
+                        out.text(match, Kind.CONTENT);
+                    } else {
+                        out.text(match, Kind.CHAR);
+                    }
+                } else if ((match = scan(ESCAPED_CHAR)) != null) {
+                    out.text(match, Kind.CONTENT);
+                } else if ((match = scan(UNTERMINATED)) != null) {
+                    out.end();
+                    inString = false;
+                    if (!match.isEmpty()) {
+                        out.text(match, Kind.ERROR);
+                    }
+                } else {
+                    // Every character is matched by one of the patterns above.
+                    throw new IllegalStateException("Unexpected character at " + pos);
+                }
+            }
+            lastTokenDot = ".".equals(match);
+        }
+        if (inString) {
+            out.end();
+        }
+    }
+
+    private String scanNumber(HighlightedHtml out) {
+        String match;
+        if ((match = scan(HEX)) != null) {
+            out.text(match, Kind.HEX);
+        } else if ((match = scan(OCTAL)) != null) {
+            out.text(match, Kind.OCTAL);
+        } else if ((match = scan(FLOAT)) != null) {
+            out.text(match, Kind.FLOAT);
+        } else if ((match = scan(INTEGER)) != null) {
+            out.text(match, Kind.INTEGER);
+        }
+        return match;
+    }
+
+    private static Map<String, Kind> identKinds() {
+        final Map<String, Kind> kinds = new HashMap<>();
+        add(kinds, Kind.KEYWORD, "assert", "break", "case", "catch", "continue", "default", "do", "else",
+                "finally", "for", "if", "instanceof", "import", "new", "package",
+                "return", "switch", "throw", "try", "typeof", "while",
+                "debugger", "export");
+        add(kinds, Kind.RESERVED, "const", "goto");
+        add(kinds, Kind.PREDEFINED_CONSTANT, "false", "null", "true");
+        add(kinds, Kind.LOCAL_VARIABLE, "this", "super");
+        add(kinds, Kind.TYPE, "boolean", "byte", "char", "class", "double", "enum", "float", "int", "interface", "long",
+                "short", "void", "var", "[]");
+        for (String builtinType : builtinTypes()) {
+            kinds.put(builtinType, builtinType.endsWith("Error") || builtinType.endsWith("Exception")
+                    ? Kind.EXCEPTION : Kind.PREDEFINED_TYPE);
+        }
+        add(kinds, Kind.DIRECTIVE, "abstract", "extends", "final", "implements", "native", "private", "protected", "public",
+                "static", "strictfp", "synchronized", "throws", "transient", "volatile");
+        return kinds;
+    }
+
+    private static void add(Map<String, Kind> kinds, Kind kind, String... words) {
+        for (String word : words) {
+            kinds.put(word, kind);
+        }
+    }
+
+    // The classes of the Java SE API that CodeRay knows of.
+    private static List<String> builtinTypes() {
+        final InputStream input = JavaSourceScanner.class.getResourceAsStream("/highlighter/java-builtin-types.txt");
+        if (input == null) {
+            throw new IllegalStateException("Could not find the Java builtin types");
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            return reader.lines().collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
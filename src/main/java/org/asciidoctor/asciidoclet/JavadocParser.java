@@ -16,40 +16,71 @@
 package org.asciidoctor.asciidoclet;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.Objects;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-import static java.util.regex.Pattern.MULTILINE;
-import static java.util.regex.Pattern.compile;
-import static java.util.regex.Pattern.quote;
-import static java.util.stream.Collectors.joining;
-import static java.util.stream.Stream.of;
 
 /**
  * Breaks the Javadoc comment string into the main comment text and its tags.
  * This parser is AsciiDoc aware, and will avoid parsing tags inside code blocks.
+ * <p>
+ * The comment is scanned once, line by line. The body and the tags are recorded as offsets
+ * into the original character sequence, and are only copied into strings when requested.
  */
 class JavadocParser {
 
     private static final String[] DELIMITERS = {"====", "////", "```", "----", "....", "--", "____", "****", "|==="};
-    private static final Pattern DELIMITER_OR_TAG =
-            compile("(^\\s*)((" + of(DELIMITERS).map(Pattern::quote).collect(joining(")|(")) + ")|@)", MULTILINE);
-    @SuppressWarnings("unchecked")
-    private static final Map<String, Pattern> DELIMITER_PATTERNS = Map.ofEntries(of(DELIMITERS)
-            .map(k -> Map.entry(k, compile("(^\\s*)" + quote(k), MULTILINE))).toArray(Map.Entry[]::new));
-    private static final Pattern TAG_NAME = compile("\\G(\\w+)\\s*");
 
-    static class Tag {
-        // TODO Make immutable
-        String tagName;
-        String tagText;
+    /**
+     * A block tag of a comment, such as `@param name description`.
+     * Tags are immutable views over the comment they were parsed from.
+     */
+    static final class Tag {
+        private final CharSequence source;
+        private final int nameStart;
+        private final int nameEnd;
+        private final int textStart;
+        private final int textEnd;
+        // Lazily copied out of the source; racy initialization is harmless since the values are equal.
+        private String name;
+        private String text;
+
+        private Tag(CharSequence source, int nameStart, int nameEnd, int textStart, int textEnd) {
+            this.source = source;
+            this.nameStart = nameStart;
+            this.nameEnd = nameEnd;
+            this.textStart = textStart;
+            this.textEnd = textEnd;
+        }
+
+        /**
+         * Creates a tag from its parts.
+         *
+         * @param name the tag name, including the `@`
+         * @param text the tag text
+         */
+        static Tag of(String name, String text) {
+            return new Tag(name + text, 0, name.length(), name.length(), name.length() + text.length());
+        }
 
-        Tag(String tagName, String tagText) {
-            this.tagName = tagName;
-            this.tagText = tagText;
+        /**
+         * Returns the tag name, including the `@`.
+         */
+        String name() {
+            if (name == null) {
+                name = source.subSequence(nameStart, nameEnd).toString();
+            }
+            return name;
+        }
+
+        /**
+         * Returns the text following the tag name, trimmed.
+         */
+        String text() {
+            if (text == null) {
+                text = source.subSequence(textStart, textEnd).toString();
+            }
+            return text;
         }
 
         @Override
@@ -61,91 +92,208 @@ class JavadocParser {
                 return false;
             }
             Tag tag = (Tag) o;
-            return tagName.equals(tag.tagName) && Objects.equals(tagText, tag.tagText);
+            return name().equals(tag.name()) && text().equals(tag.text());
         }
 
         @Override
         public int hashCode() {
-            return Objects.hash(tagName, tagText);
+            return 31 * name().hashCode() + text().hashCode();
         }
 
         @Override
         public String toString() {
-            return "Tag{" + "tagName='" + tagName + '\'' + ", tagText='" + tagText + '\'' + '}';
+            return "Tag{" + "tagName='" + name() + '\'' + ", tagText='" + text() + '\'' + '}';
         }
     }
 
+    private final CharSequence source;
+
     /**
-     * Sorted comments with different tags.
+     * The body of the javadoc text, without the tags, as trimmed offsets.
      */
-    private final List<Tag> tags = new ArrayList<>();
+    private int bodyStart = -1;
+    private int bodyEnd;
+    private String commentBody;
 
     /**
-     * The body of the javadoc text, without the tags.
+     * Name start, name end, text start and text end of each tag, in order.
      */
-    private String commentBody;
+    private int[] tagOffsets = new int[0];
+    private int tagCount;
+    private List<Tag> tags;
+
+    private JavadocParser(CharSequence source) {
+        this.source = source;
+    }
 
     /**
      * Create a JavadocParser the Javadoc comment string.
      *
      * @param commentString Javadoc string
      */
-    public static JavadocParser parse(String commentString) {
-        final JavadocParser javadocParser = new JavadocParser();
-        javadocParser.parseComment(commentString);
+    public static JavadocParser parse(CharSequence commentString) {
+        final JavadocParser javadocParser = new JavadocParser(commentString);
+        javadocParser.parseComment();
         return javadocParser;
     }
 
-    private void parseComment(String commentString) {
+    private void parseComment() {
         // We parse the text through a state machine that roughly looks like this:
         //
         //      javadoc -> body tag*
         //      body -> (text | block)*
         //      block -> delim(1) text $1
-        //      delim ->  '====' | '////' | '```' | '----' | '....' | '--' | '++++' | '____' | '****' | '|==='
+        //      delim ->  '====' | '////' | '```' | '----' | '....' | '--' | '____' | '****' | '|==='
         //      tag -> tagName (\s+ tagText)?
         //      tagText -> body
         //
         // There is an additional restriction that tags can only start at the beginning of a line,
         // and block delimiters must stand alone on their lines.
         // This restriction removes a lot of otherwise subtle edge cases from the parsing.
+        //
+        // Leading whitespace, including blank lines, is skipped before looking for a tag or a delimiter.
+        // An `@` that is not followed by a tag name is plain text, and so is an unclosed delimiter.
 
-        Matcher matcher = DELIMITER_OR_TAG.matcher(commentString);
+        final CharSequence s = source;
+        final int length = s.length();
         int captureSince = 0;
-        while (matcher.find()) {
-            String group = matcher.group(2);
-            if (group.equals("@")) {
-                int startOfMatch = matcher.start();
-                captureComponent(commentString, captureSince, startOfMatch);
-                matcher.usePattern(TAG_NAME);
-                if (matcher.find()) {
-                    Tag tag = new Tag(group + matcher.group(1), null);
-                    tags.add(tag);
-                    captureSince = matcher.end();
+        int lineStart = 0;
+        while (lineStart < length) {
+            final int p = skipWhitespace(s, lineStart);
+            int next = p + 1;
+            if (p < length && s.charAt(p) == '@') {
+                int nameEnd = skipWordCharacters(s, p + 1);
+                if (nameEnd > p + 1) {
+                    captureComponent(captureSince, lineStart);
+                    addTag(p, nameEnd);
+                    captureSince = skipWhitespace(s, nameEnd);
+                    next = captureSince;
                 }
-                matcher.usePattern(DELIMITER_OR_TAG);
             } else {
-                matcher.usePattern(DELIMITER_PATTERNS.get(group));
-                matcher.find();
-                matcher.usePattern(DELIMITER_OR_TAG);
+                String delimiter = delimiterAt(s, p);
+                if (delimiter != null) {
+                    int afterOpening = p + delimiter.length();
+                    int closing = findDelimiter(s, afterOpening, delimiter);
+                    next = closing >= 0 ? closing : afterOpening;
+                }
             }
+            lineStart = lineStartFrom(s, next);
         }
-        captureComponent(commentString, captureSince, commentString.length());
+        captureComponent(captureSince, length);
     }
 
-    private void captureComponent(String commentString, int captureSince, int endOfCapture) {
-        String component = commentString.substring(captureSince, endOfCapture).trim();
-        if (commentBody == null) {
-            commentBody = component;
+    private void captureComponent(int since, int end) {
+        final CharSequence s = source;
+        while (since < end && s.charAt(since) <= ' ') {
+            since++;
+        }
+        while (end > since && s.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (bodyStart < 0) {
+            bodyStart = since;
+            bodyEnd = end;
         } else {
-            tags.get(tags.size() - 1).tagText = component;
+            tagOffsets[4 * tagCount - 2] = since;
+            tagOffsets[4 * tagCount - 1] = end;
         }
     }
 
+    private void addTag(int nameStart, int nameEnd) {
+        if (tagOffsets.length < 4 * (tagCount + 1)) {
+            tagOffsets = Arrays.copyOf(tagOffsets, Math.max(16, tagOffsets.length * 2));
+        }
+        tagOffsets[4 * tagCount] = nameStart;
+        tagOffsets[4 * tagCount + 1] = nameEnd;
+        tagCount++;
+    }
+
+    /**
+     * Returns the end of the closing delimiter, or -1 if the block is not closed.
+     */
+    private static int findDelimiter(CharSequence s, int from, String delimiter) {
+        int lineStart = lineStartFrom(s, from);
+        while (lineStart < s.length()) {
+            int p = skipWhitespace(s, lineStart);
+            if (startsWith(s, p, delimiter)) {
+                return p + delimiter.length();
+            }
+            lineStart = lineStartFrom(s, p + 1);
+        }
+        return -1;
+    }
+
+    private static String delimiterAt(CharSequence s, int p) {
+        for (String delimiter : DELIMITERS) {
+            if (startsWith(s, p, delimiter)) {
+                return delimiter;
+            }
+        }
+        return null;
+    }
+
+    private static boolean startsWith(CharSequence s, int p, String prefix) {
+        if (p + prefix.length() > s.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (s.charAt(p + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Same characters as the regular expression \s.
+    private static int skipWhitespace(CharSequence s, int p) {
+        while (p < s.length()) {
+            char c = s.charAt(p);
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\u000B' && c != '\f' && c != '\r') {
+                break;
+            }
+            p++;
+        }
+        return p;
+    }
+
+    // Same characters as the regular expression \w.
+    private static int skipWordCharacters(CharSequence s, int p) {
+        while (p < s.length()) {
+            char c = s.charAt(p);
+            if (!(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '_')) {
+                break;
+            }
+            p++;
+        }
+        return p;
+    }
+
+    /**
+     * Returns the first position at or after the given one where a line starts, or the length of the sequence.
+     * Lines end with any line terminator, and `\r\n` counts as one.
+     */
+    private static int lineStartFrom(CharSequence s, int p) {
+        final int length = s.length();
+        if (p == 0) {
+            return 0;
+        }
+        while (p < length) {
+            char c = s.charAt(p - 1);
+            if (c == '\n' || c == '\u0085' || c == '\u2028' || c == '\u2029' || (c == '\r' && s.charAt(p) != '\n')) {
+                return p;
+            }
+            p++;
+        }
+        return length;
+    }
+
     /**
      * Return the text body of the comment, without the tags.
      */
     String getCommentBody() {
+        if (commentBody == null) {
+            commentBody = source.subSequence(bodyStart, bodyEnd).toString();
+        }
         return commentBody;
     }
 
@@ -153,6 +301,13 @@ class JavadocParser {
      * Returns all the parsed tags.
      */
     List<Tag> tags() {
+        if (tags == null) {
+            List<Tag> list = new ArrayList<>(tagCount);
+            for (int i = 0; i < tagCount; i++) {
+                list.add(new Tag(source, tagOffsets[4 * i], tagOffsets[4 * i + 1], tagOffsets[4 * i + 2], tagOffsets[4 * i + 3]));
+            }
+            tags = Collections.unmodifiableList(list);
+        }
         return tags;
     }
 }
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+import org.asciidoctor.asciidoclet.HighlightedHtml.Kind;
+
+import java.util.regex.Pattern;
+
+/**
+ * JSON scanner, ported from the CodeRay one.
+ */
+final class JsonSourceScanner extends SourceScanner {
+
+    private static final Pattern SPACE = pattern("\\s+");
+    private static final Pattern QUOTE = pattern("\"");
+    private static final Pattern KEY = pattern("(?>(?:[^\\\\\"]+|\\\\.)*)\"\\s*:");
+    private static final Pattern OPERATOR = pattern("[:,\\[{\\]}]");
+    private static final Pattern VALUE = pattern("true|false|null");
+    private static final Pattern INTEGER = pattern("-?(?:0|[1-9]\\d*)");
+    private static final Pattern FRACTION = pattern("\\.\\d+(?:[eE][-+]?\\d+)?|[eE][-+]?\\d+");
+    private static final Pattern CONTENT = pattern("[^\\\\\"]+");
+    private static final Pattern ESCAPE = multilinePattern("\\\\(?:[bfnrt\\\\\"/]|u[a-fA-F0-9]{4})");
+    private static final Pattern ESCAPED_CHAR = multilinePattern("\\\\.");
+    private static final Pattern UNTERMINATED = pattern("\\\\|$");
+
+    @Override
+    protected void scanTokens(HighlightedHtml out) {
+        boolean inString = false;
+
+        while (!eos()) {
+            String match;
+            if (!inString) {
+                if ((match = scan(SPACE)) != null) {
+                    out.text(match, Kind.SPACE);
+                } else if ((match = scan(QUOTE)) != null) {
+                    out.begin(check(KEY) ? Kind.KEY : Kind.STRING);
+                    inString = true;
+                    out.text(match, Kind.DELIMITER);
+                } else if ((match = scan(OPERATOR)) != null) {
+                    out.text(match, Kind.OPERATOR);
+                } else if ((match = scan(VALUE)) != null) {
+                    out.text(match, Kind.VALUE);
+                } else if ((match = scan(INTEGER)) != null) {
+                    final String fraction = scan(FRACTION);
+                    if (fraction != null) {
+                        out.text(match + fraction, Kind.FLOAT);
+                    } else {
+                        out.text(match, Kind.INTEGER);
+                    }
+                } else {
+                    out.text(getch(), Kind.ERROR);
+                }
+            } else {
+                if ((match = scan(CONTENT)) != null) {
+                    out.text(match, Kind.CONTENT);
+                } else if ((match = scan(QUOTE)) != null) {
+                    out.text(match, Kind.DELIMITER);
+                    out.end();
+                    inString = false;
+                } else if ((match = scan(ESCAPE)) != null) {
+                    out.text(match, Kind.CHAR);
+                } else if ((match = scan(ESCAPED_CHAR)) != null) {
+                    out.text(match, Kind.CONTENT);
+                } else if ((match = scan(UNTERMINATED)) != null) {
+                    out.end();
+                    if (!match.isEmpty()) {
+                        out.text(match, Kind.ERROR);
+                    }
+                    inString = false;
+                } else {
+                    // Every character is matched by one of the patterns above.
+                    throw new IllegalStateException("Unexpected character at " + pos);
+                }
+            }
+        }
+        if (inString) {
+            out.end();
+        }
+    }
+}
@@ -21,8 +21,11 @@ import com.sun.tools.javac.tree.DocCommentTable;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
+import java.util.function.UnaryOperator;
 
 class LazyDocCommentTableProcessor {
     static final Function<Object, Comment> COMMENT_FIELD_EXTRACTOR = commentFieldExtractor();
@@ -30,16 +33,28 @@ class LazyDocCommentTableProcessor {
     public static final Field LAZY_DOC_COMMENT_TABLE_TABLE_FIELD = getLazyDocCommentTable_TableField();
 
 
+    /**
+     * Maps all the comments of a table at once, so that they can be converted together.
+     *
+     * @param table         the comments of a compilation unit
+     * @param commentMapper maps a list of comments to a list of the same size, in the same order
+     */
     @SuppressWarnings({"unchecked", "rawtypes"})
-    static void processComments(DocCommentTable table, Function<Comment, Comment> commentMapper) {
+    static void processAllComments(DocCommentTable table, UnaryOperator<List<Comment>> commentMapper) {
         // table can be non-LazyDocCommentTable instance only for `default constructors` as far as I know now.
         if (table instanceof LazyDocCommentTable) {
             // Use heckin' raw-types because LazyDocCommentTable.Entry has private access, so we
             // cannot statically express its type here.
-            //System.err.println("THEN:" + LazyDocCommentTableProcessor.class + ":processComments:" + System.identityHashCode(table));
             Map map = tableFieldValueOf(table);
-            Function<Object, Object> converter = COMMENT_FIELD_EXTRACTOR.andThen(commentMapper).andThen(COMMENT_INSTANTIATOR);
-            map.replaceAll((tree, entry) -> converter.apply(entry));
+            List<Map.Entry> entries = new ArrayList<>(map.entrySet());
+            List<Comment> comments = new ArrayList<>(entries.size());
+            for (Map.Entry entry : entries) {
+                comments.add(COMMENT_FIELD_EXTRACTOR.apply(entry.getValue()));
+            }
+            List<Comment> mapped = commentMapper.apply(comments);
+            for (int i = 0; i < entries.size(); i++) {
+                entries.get(i).setValue(COMMENT_INSTANTIATOR.apply(mapped.get(i)));
+            }
         }
     }
 
@@ -18,19 +18,37 @@ package org.asciidoctor.asciidoclet;
 import jdk.javadoc.doclet.Reporter;
 
 import javax.tools.Diagnostic;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
- * Sets up a temporary directory containing output templates for use by Asciidoctor.
+ * Sets up a directory containing output templates for use by Asciidoctor.
+ * <p>
+ * The templates render paragraphs and sections as {@link AsciidocletConverter} does, and are only
+ * used when that converter could not be registered.
+ * <p>
+ * Templates are extracted once into a directory of the system temporary directory named after the user
+ * and a hash of their content, and reused by later runs. The directory is populated under a temporary
+ * name and then atomically renamed, so concurrent javadoc processes never see it half written. It is
+ * only used when it belongs to the current user and nobody else may write to it, as Asciidoctor
+ * evaluates the templates. Otherwise, the templates are extracted into a directory of their own that
+ * is deleted on exit.
  */
 class OutputTemplates {
 
     private static final String[] TEMPLATE_NAMES = new String[]{"section.html.haml", "paragraph.html.haml"};
+    private static final String DIR_PREFIX = "asciidoclet-templates-";
 
     private final Path templateDir;
 
@@ -39,7 +57,18 @@ class OutputTemplates {
     }
 
     static OutputTemplates create(Reporter reporter) {
-        final Path dir = prepareTemplateDir(reporter);
+        return create(reporter, Path.of(System.getProperty("java.io.tmpdir")));
+    }
+
+    /**
+     * Sets up the templates in a directory shared by every run.
+     *
+     * @param reporter  doclet {@link Reporter}
+     * @param cacheRoot directory holding the shared template directory
+     * @return the templates, or null if they could not be set up
+     */
+    static OutputTemplates create(Reporter reporter, Path cacheRoot) {
+        final Path dir = prepareTemplateDir(reporter, cacheRoot);
         return dir != null ? new OutputTemplates(dir) : null;
     }
 
@@ -48,18 +77,26 @@ class OutputTemplates {
     }
 
     /**
-     * Creates and returns a directory in OS's temps path holding Asciidoctor
-     * templates during conversion.
+     * Returns a directory holding Asciidoctor templates during conversion.
      *
-     * @param reporter doclet {@link Reporter}.
+     * @param reporter  doclet {@link Reporter}.
+     * @param cacheRoot directory holding the shared template directory
      * @return Path to templates, or null if it could not be created.
      */
-    private static Path prepareTemplateDir(Reporter reporter) {
-        // copy our template resources to the templateDir so Asciidoctor can use them.
+    private static Path prepareTemplateDir(Reporter reporter, Path cacheRoot) {
+        final AsciidocletEvents.TemplatePreparation event = new AsciidocletEvents.TemplatePreparation();
+        event.begin();
         try {
-            final Path templateDir = Files.createTempDirectory("asciidoclet");
-            for (String templateName : TEMPLATE_NAMES) {
-                prepareTemplate(templateDir, templateName);
+            final Map<String, byte[]> templates = readTemplates();
+            Path templateDir;
+            try {
+                templateDir = sharedTemplateDir(cacheRoot, templates);
+            } catch (IOException e) {
+                templateDir = temporaryTemplateDir(templates);
+            }
+            if (event.shouldCommit()) {
+                event.templateDir = templateDir.toString();
+                event.commit();
             }
             return templateDir;
         } catch (IOException e) {
@@ -68,16 +105,97 @@ class OutputTemplates {
         }
     }
 
+    private static Path sharedTemplateDir(Path cacheRoot, Map<String, byte[]> templates) throws IOException {
+        final Path templateDir = cacheRoot.resolve(DIR_PREFIX + PrivateDirs.userName() + "-" + hash(templates));
+        if (isUsable(templateDir, templates)) {
+            return templateDir;
+        }
+        Files.createDirectories(cacheRoot);
+        final Path staging = Files.createTempDirectory(cacheRoot, DIR_PREFIX + "staging-");
+        try {
+            write(staging, templates);
+            Files.move(staging, templateDir, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Most likely another process moved its copy in first, which is checked below.
+        } finally {
+            deleteRecursively(staging);
+        }
+        if (!isUsable(templateDir, templates)) {
+            throw new IOException("Could not set up " + templateDir);
+        }
+        return templateDir;
+    }
+
+    // Temporary directories are created private, so a shared directory with other permissions was not created by a run of this user.
+    private static boolean isUsable(Path dir, Map<String, byte[]> templates) throws IOException {
+        return Files.isDirectory(dir) && PrivateDirs.isPrivate(dir) && contains(dir, templates);
+    }
+
+    private static Path temporaryTemplateDir(Map<String, byte[]> templates) throws IOException {
+        final Path templateDir = Files.createTempDirectory("asciidoclet");
+        // Files registered last are deleted first, so the directory is empty by the time it is deleted.
+        templateDir.toFile().deleteOnExit();
+        for (String name : templates.keySet()) {
+            templateDir.resolve(name).toFile().deleteOnExit();
+        }
+        write(templateDir, templates);
+        return templateDir;
+    }
+
+    private static String hash(Map<String, byte[]> templates) {
+        final String[] parts = new String[templates.size() * 2];
+        int i = 0;
+        for (Map.Entry<String, byte[]> template : templates.entrySet()) {
+            parts[i++] = template.getKey();
+            parts[i++] = new String(template.getValue(), StandardCharsets.UTF_8);
+        }
+        return ContentHash.of(parts).substring(0, 16);
+    }
+
+    private static boolean contains(Path dir, Map<String, byte[]> templates) throws IOException {
+        for (Map.Entry<String, byte[]> template : templates.entrySet()) {
+            final Path path = dir.resolve(template.getKey());
+            if (!Files.isRegularFile(path) || !Arrays.equals(Files.readAllBytes(path), template.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void write(Path dir, Map<String, byte[]> templates) throws IOException {
+        for (Map.Entry<String, byte[]> template : templates.entrySet()) {
+            Files.write(dir.resolve(template.getKey()), template.getValue());
+        }
+    }
+
+    private static void deleteRecursively(Path dir) {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        } catch (IOException e) {
+            // Only a leftover staging directory, which is harmless.
+        }
+    }
+
+    private static Map<String, byte[]> readTemplates() throws IOException {
+        final Map<String, byte[]> templates = new LinkedHashMap<>();
+        for (String templateName : TEMPLATE_NAMES) {
+            templates.put(templateName, readTemplate(templateName));
+        }
+        return templates;
+    }
+
     /**
-     * Copies Asciidoctor templates into a temporal location.
+     * Reads an Asciidoctor template.
      * First, attempts to locate templates in the Java module, then attempts
      * direct Classpath search. This is to ensure it works in both test, and
      * shaded JAR.
      *
-     * @param templateDir path where to copy the templates
-     * @param template    Asciidoctor template name
+     * @param template Asciidoctor template name
      */
-    private static void prepareTemplate(Path templateDir, String template) throws IOException {
+    private static byte[] readTemplate(String template) throws IOException {
         final String templatePath = "templates/" + template;
         final InputStream input = ModuleLayer.boot()
                 .findModule("asciidoclet")
@@ -87,11 +205,8 @@ class OutputTemplates {
         if (input == null) {
             throw new IOException("Could not find template " + template);
         }
-        final Path path = templateDir.resolve(template);
-        try (OutputStream output = Files.newOutputStream(path)) {
-            input.transferTo(output);
-        } finally {
-            input.close();
+        try (input) {
+            return input.readAllBytes();
         }
     }
 
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+/**
+ * Renders fragments without any AsciiDoc markup, such as most one sentence comments, without Asciidoctor.
+ * <p>
+ * A fragment is plain when it is made of ASCII letters, digits, spaces and a few punctuation characters,
+ * arranged so that none of them can take part in a substitution or start a block:
+ *
+ * * no formatting, macro, attribute, passthrough or escape character, such as `*`, `[`, `{`, `+` or `<`,
+ * * none of the replaced sequences, such as `--`, `...` or `(C)`, and no `&` that could start an entity,
+ * * no URL and no comment, i.e. no `//`, and no index term, i.e. no `((` or `))`,
+ * * every line starts with a letter or a digit, does not end with a space and its first word could not be a
+ *   list marker, i.e. it does not end with `.` or `)`,
+ * * no paragraph starts with an upper case label followed by `:`, which could be an admonition,
+ * * blank lines, which separate paragraphs, are empty and only appear in block fragments.
+ *
+ * Such a fragment is rendered as Asciidoctor does with the bundled paragraph template: each paragraph
+ * in a `<p>` element for blocks, the text alone for inline fragments, with `&` escaped and apostrophes
+ * between letters replaced by `&#8217;`.
+ */
+final class PlainText {
+
+    private PlainText() {
+    }
+
+    /**
+     * Tells whether a cleaned fragment can be rendered by {@link #render(String, boolean)}.
+     *
+     * @param cleaned fragment, as returned by {@link AsciidoctorConverter#cleanJavadocInput(String)}
+     * @param inline  true for an inline fragment, false for a block
+     */
+    static boolean isPlain(String cleaned, boolean inline) {
+        final int length = cleaned.length();
+        if (length == 0) {
+            return false;
+        }
+        boolean paragraphStart = true;
+        int lineStart = 0;
+        while (lineStart < length) {
+            int lineEnd = cleaned.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = length;
+            }
+            if (lineEnd == lineStart) {
+                if (inline || lineStart == 0 || lineEnd == length) {
+                    return false;
+                }
+                paragraphStart = true;
+            } else {
+                if (!isPlainLine(cleaned, lineStart, lineEnd, paragraphStart)) {
+                    return false;
+                }
+                paragraphStart = false;
+            }
+            lineStart = lineEnd + 1;
+        }
+        // A trailing newline would leave an empty last line behind.
+        return cleaned.charAt(length - 1) != '\n';
+    }
+
+    private static boolean isPlainLine(String s, int start, int end, boolean paragraphStart) {
+        if (!isLetterOrDigit(s.charAt(start)) || s.charAt(end - 1) == ' ') {
+            return false;
+        }
+        int firstWordEnd = end;
+        boolean upperCase = true;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            char next = i + 1 < end ? s.charAt(i + 1) : '\n';
+            switch (c) {
+                case ' ':
+                    if (firstWordEnd == end) {
+                        firstWordEnd = i;
+                    }
+                    break;
+                case ',':
+                case '!':
+                case '?':
+                case '%':
+                case '"':
+                case '\'':
+                    break;
+                case '$':
+                    if (next == '$') {
+                        return false;
+                    }
+                    break;
+                case '.':
+                    if (next == '.') {
+                        return false;
+                    }
+                    break;
+                case '-':
+                    if (next == '-') {
+                        return false;
+                    }
+                    break;
+                case ':':
+                case ';':
+                case '/':
+                case ')':
+                    if (next == c) {
+                        return false;
+                    }
+                    break;
+                case '(':
+                    if (next == '(' || isSymbol(s, i + 1, end)) {
+                        return false;
+                    }
+                    break;
+                case '&':
+                    if (next != ' ' && next != '\n') {
+                        return false;
+                    }
+                    break;
+                default:
+                    if (!isLetterOrDigit(c)) {
+                        return false;
+                    }
+            }
+            if (firstWordEnd == end && !(c >= 'A' && c <= 'Z') && !(c == ':' && i > start)) {
+                upperCase = false;
+            }
+        }
+        char firstWordLast = s.charAt(firstWordEnd - 1);
+        if (firstWordLast == '.' || firstWordLast == ')') {
+            return false;
+        }
+        return !(paragraphStart && upperCase && firstWordLast == ':');
+    }
+
+    // (C), (R) and (TM)
+    private static boolean isSymbol(String s, int from, int end) {
+        return s.startsWith("C)", from) || s.startsWith("R)", from) || s.startsWith("TM)", from);
+    }
+
+    private static boolean isLetterOrDigit(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    /**
+     * Renders a fragment accepted by {@link #isPlain(String, boolean)}.
+     *
+     * @param cleaned plain fragment
+     * @param inline  true for an inline fragment, false for a block
+     * @return the HTML Asciidoctor renders for the fragment
+     */
+    static String render(String cleaned, boolean inline) {
+        final int length = cleaned.length();
+        final StringBuilder html = new StringBuilder(length + 16);
+        if (!inline) {
+            html.append("<p>");
+        }
+        for (int i = 0; i < length; i++) {
+            char c = cleaned.charAt(i);
+            if (c == '&') {
+                html.append("&amp;");
+            } else if (c == '\'' && i > 0 && i + 1 < length && isLetterOrDigit(cleaned.charAt(i - 1)) && isLetter(cleaned.charAt(i + 1))) {
+                html.append("&#8217;");
+            } else if (c == '\n' && !inline && i + 1 < length && cleaned.charAt(i + 1) == '\n') {
+                html.append("</p>\n<p>");
+                while (i + 1 < length && cleaned.charAt(i + 1) == '\n') {
+                    i++;
+                }
+            } else {
+                html.append(c);
+            }
+        }
+        if (!inline) {
+            html.append("</p>");
+        }
+        return html.toString();
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Set;
+
+/**
+ * Directories shared by the runs of the current user, such as extracted templates or the state of a
+ * {@link RenderingDaemon}, which live in a directory all users may write to.
+ * <p>
+ * Such a directory is only trusted if nobody but the current user may have written to it.
+ * Without POSIX permissions, every directory is trusted.
+ */
+final class PrivateDirs {
+
+    private static final Set<PosixFilePermission> PERMISSIONS = PosixFilePermissions.fromString("rwx------");
+
+    private PrivateDirs() {
+    }
+
+    /**
+     * Returns the name of the current user, made safe for use in file names.
+     */
+    static String userName() {
+        return System.getProperty("user.name", "").replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    /**
+     * Creates a directory, accessible to the current user only, unless it already exists.
+     *
+     * @param dir the directory
+     * @return whether the directory is private to the current user
+     */
+    static boolean create(Path dir) throws IOException {
+        if (!isPosix()) {
+            Files.createDirectories(dir);
+            return true;
+        }
+        if (!Files.isDirectory(dir)) {
+            Files.createDirectories(dir.getParent());
+            try {
+                Files.createDirectory(dir, PosixFilePermissions.asFileAttribute(PERMISSIONS));
+            } catch (FileAlreadyExistsException e) {
+                // created concurrently, checked below
+            }
+        }
+        return isPrivate(dir);
+    }
+
+    /**
+     * Tells whether a directory can be trusted, i.e. nobody but the current user may have written to it.
+     */
+    static boolean isPrivate(Path dir) throws IOException {
+        return !isPosix() || (Files.getOwner(dir).getName().equals(System.getProperty("user.name"))
+                && Files.getPosixFilePermissions(dir).equals(PERMISSIONS));
+    }
+
+    static boolean isPosix() {
+        return FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+    }
+}
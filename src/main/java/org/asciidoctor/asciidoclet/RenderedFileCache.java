@@ -0,0 +1,109 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+import javax.tools.FileObject;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the rendered overview and package files for the whole run.
+ * <p>
+ * The file manager and {@link AsciiDocTrees} wrap files in a new {@link AsciidocFileView} on
+ * every access, so the views cannot keep the rendered HTML themselves. Entries are keyed by the
+ * URI of the underlying file and whether encoding errors are ignored, and replaced when its last
+ * modification time changes.
+ * Files are rendered outside the map, so a render may read other files through the cache. Two
+ * threads missing the same file at once may both render it, which yields the same HTML.
+ * Requests served from the cache are counted in the {@link ConversionStats}.
+ */
+class RenderedFileCache {
+
+    /**
+     * Renders the contents of a file.
+     */
+    @FunctionalInterface
+    interface Renderer {
+        String render(FileObject fileObject) throws IOException;
+    }
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final ConversionStats stats;
+
+    RenderedFileCache(ConversionStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * Returns the rendered contents of a file, rendering it only if it was not rendered yet.
+     *
+     * @param fileObject           the file to render
+     * @param ignoreEncodingErrors whether the renderer reads the file ignoring encoding errors
+     * @param renderer             renders the file on a cache miss
+     * @return the rendered contents
+     * @throws IOException if the file could not be read
+     */
+    String get(FileObject fileObject, boolean ignoreEncodingErrors, Renderer renderer) throws IOException {
+        final long lastModified = fileObject.getLastModified();
+        final Key key = new Key(fileObject.toUri(), ignoreEncodingErrors);
+        final Entry entry = entries.get(key);
+        if (entry != null && entry.lastModified == lastModified) {
+            stats.fileCacheHit();
+            return entry.html;
+        }
+        final String html = renderer.render(fileObject);
+        entries.put(key, new Entry(lastModified, html));
+        return html;
+    }
+
+    private static final class Key {
+
+        private final URI uri;
+        private final boolean ignoreEncodingErrors;
+
+        Key(URI uri, boolean ignoreEncodingErrors) {
+            this.uri = uri;
+            this.ignoreEncodingErrors = ignoreEncodingErrors;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return uri.equals(other.uri) && ignoreEncodingErrors == other.ignoreEncodingErrors;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * uri.hashCode() + Boolean.hashCode(ignoreEncodingErrors);
+        }
+    }
+
+    private static final class Entry {
+
+        private final long lastModified;
+        private final String html;
+
+        Entry(long lastModified, String html) {
+            this.lastModified = lastModified;
+            this.html = html;
+        }
+    }
+}
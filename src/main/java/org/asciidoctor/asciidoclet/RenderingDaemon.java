@@ -0,0 +1,529 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+import com.sun.source.util.DocTreePath;
+import jdk.javadoc.doclet.Reporter;
+
+import javax.lang.model.element.Element;
+import javax.tools.Diagnostic;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A long-lived process converting comments for the doclet runs of successive builds, so that they do
+ * not each pay for booting JRuby and warming up Asciidoctor.
+ * <p>
+ * The daemon is started by {@link RenderingDaemonClient} when `--asciidoclet-daemon` is given and none
+ * is running yet. It listens on a loopback port, which it publishes with a random token in a state file
+ * of a directory only accessible to the current user. That directory is named after the {@link CodeVersion}
+ * of the doclet, so runs with other versions start a daemon of their own.
+ * A lock held for the lifetime of the daemon ensures that only one serves a given directory.
+ * <p>
+ * Each connection converts comments with the options sent by its run. Converters, and their
+ * {@link ConversionCache}, are kept for each set of options. They share the Asciidoctor instances of
+ * the runs that use the same gem path and libraries. Both are bounded: the least recently used converters
+ * are dropped, pruning their disk cache, and so are the least recently used pools along with their converters.
+ * A pool is closed once neither a converter nor a connection uses it.
+ * The daemon exits once it has had no connection for the idle timeout given by the run that started it.
+ */
+class RenderingDaemon {
+
+    static final String STATE_FILE = "daemon.properties";
+    static final String LOG_FILE = "daemon.log";
+    static final int MAGIC = 0x41444431; // "ADD1"
+
+    private static final String LOCK_FILE = "daemon.lock";
+    private static final String DIR_PREFIX = "asciidoclet-daemon-";
+    private static final int MAX_CONVERTERS = 16;
+    private static final int MAX_POOLS = 2;
+    private static final int POOL_SIZE = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    private static final Set<PosixFilePermission> PRIVATE_FILE = PosixFilePermissions.fromString("rw-------");
+
+    private final Path stateDir;
+    private final long idleTimeoutNanos;
+    private final Reporter reporter = new LogReporter();
+    private final String token = newToken();
+    private final int maxConverters;
+    private final int maxPools;
+    // Both in access order, the least recently used first.
+    private final Map<List<String>, AsciidoctorConverter> converters = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<List<String>, AsciidoctorPool> pools = new LinkedHashMap<>(4, 0.75f, true);
+    // How many cached converters and open connections use each pool, including the pools no longer shared.
+    private final Map<AsciidoctorPool, Integer> poolUsers = new IdentityHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private volatile long lastActivity = System.nanoTime();
+    private volatile ServerSocket server;
+    private AsciidoctorWarmUp warmUp;
+
+    /**
+     * Creates a daemon serving the given state directory.
+     *
+     * @param stateDir           directory holding the state file, see {@link #stateDir(Path)}
+     * @param idleTimeoutSeconds how long to wait for a connection before exiting
+     */
+    RenderingDaemon(Path stateDir, long idleTimeoutSeconds) {
+        this(stateDir, idleTimeoutSeconds, MAX_CONVERTERS, MAX_POOLS);
+    }
+
+    RenderingDaemon(Path stateDir, long idleTimeoutSeconds, int maxConverters, int maxPools) {
+        this.stateDir = stateDir;
+        this.idleTimeoutNanos = TimeUnit.SECONDS.toNanos(idleTimeoutSeconds);
+        this.maxConverters = maxConverters;
+        this.maxPools = maxPools;
+    }
+
+    /**
+     * Runs a daemon until it has been idle for the timeout.
+     *
+     * @param args the state directory and the idle timeout, in seconds
+     */
+    public static void main(String[] args) throws IOException {
+        new RenderingDaemon(Path.of(args[0]), Long.parseLong(args[1])).run();
+        // JRuby may have started threads of its own.
+        System.exit(0);
+    }
+
+    /**
+     * Returns the state directory of the daemon matching this Asciidoclet, under the given root.
+     */
+    static Path stateDir(Path root) {
+        return root.resolve(DIR_PREFIX + PrivateDirs.userName() + "-" + CodeVersion.current());
+    }
+
+    /**
+     * Returns the classpath the doclet was loaded from, which is also that of the daemon.
+     */
+    static String classPath() {
+        ClassLoader loader = RenderingDaemon.class.getClassLoader();
+        if (loader instanceof URLClassLoader) {
+            // javadoc loads doclets from the `-docletpath` with a class loader of their own.
+            List<String> paths = new ArrayList<>();
+            for (URL url : ((URLClassLoader) loader).getURLs()) {
+                try {
+                    paths.add(Path.of(url.toURI()).toString());
+                } catch (URISyntaxException | IllegalArgumentException e) {
+                    // not a file, which cannot be on the classpath of a process anyway
+                }
+            }
+            return String.join(File.pathSeparator, paths);
+        }
+        // Modules are run from the classpath too, which only needs the modules Asciidoclet requires anyway.
+        final String modulePath = System.getProperty("jdk.module.path");
+        final String classPath = System.getProperty("java.class.path");
+        return modulePath == null || modulePath.isEmpty() ? classPath : modulePath + File.pathSeparator + classPath;
+    }
+
+    /**
+     * Serves connections until the daemon has been idle for the timeout, or is stopped.
+     * Returns immediately if another daemon serves the state directory.
+     */
+    void run() throws IOException {
+        if (!PrivateDirs.create(stateDir)) {
+            reporter.print(Diagnostic.Kind.ERROR, "Not using " + stateDir + ", which other users may access");
+            return;
+        }
+        try (FileChannel lockChannel = FileChannel.open(stateDir.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock lock = tryLock(lockChannel)) {
+            if (lock == null) {
+                return;
+            }
+            warmUp = AsciidoctorWarmUp.start();
+            server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(threads("asciidoclet-daemon-watchdog"));
+            final ExecutorService workers = Executors.newCachedThreadPool(threads("asciidoclet-daemon-connection"));
+            try {
+                publish();
+                final long period = Math.max(10, Math.min(1000, TimeUnit.NANOSECONDS.toMillis(idleTimeoutNanos) / 2));
+                watchdog.scheduleWithFixedDelay(this::stopIfIdle, period, period, TimeUnit.MILLISECONDS);
+                while (true) {
+                    final Socket socket;
+                    try {
+                        socket = server.accept();
+                    } catch (SocketException e) {
+                        // closed by stop()
+                        break;
+                    }
+                    connections.incrementAndGet();
+                    workers.execute(() -> serve(socket));
+                }
+            } finally {
+                Files.deleteIfExists(stateDir.resolve(STATE_FILE));
+                watchdog.shutdownNow();
+                workers.shutdownNow();
+                close();
+            }
+        }
+    }
+
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            return null;
+        }
+    }
+
+    private static ThreadFactory threads(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // The state file is renamed into place, so that clients never read it half written.
+    private void publish() throws IOException {
+        final Properties state = new Properties();
+        state.setProperty("port", String.valueOf(server.getLocalPort()));
+        state.setProperty("token", token);
+        state.setProperty("version", CodeVersion.current());
+        state.setProperty("pid", String.valueOf(ProcessHandle.current().pid()));
+        final Path staging = PrivateDirs.isPosix()
+                ? Files.createTempFile(stateDir, STATE_FILE, ".tmp", PosixFilePermissions.asFileAttribute(PRIVATE_FILE))
+                : Files.createTempFile(stateDir, STATE_FILE, ".tmp");
+        try (Writer writer = Files.newBufferedWriter(staging, StandardCharsets.UTF_8)) {
+            state.store(writer, "Asciidoclet rendering daemon");
+        }
+        Files.move(staging, stateDir.resolve(STATE_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void stopIfIdle() {
+        if (connections.get() == 0 && System.nanoTime() - lastActivity > idleTimeoutNanos) {
+            stop();
+        }
+    }
+
+    /**
+     * Stops accepting connections, which makes {@link #run()} return once the state file is removed.
+     */
+    void stop() {
+        try {
+            // Removed first, so that new runs start another daemon rather than connect to this one.
+            Files.deleteIfExists(stateDir.resolve(STATE_FILE));
+        } catch (IOException e) {
+            reporter.print(Diagnostic.Kind.WARNING, "Cannot delete the state file: " + e.getLocalizedMessage());
+        }
+        final ServerSocket socket = server;
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // stopping anyway
+            }
+        }
+    }
+
+    private synchronized void close() {
+        converters.values().forEach(AsciidoctorConverter::dispose);
+        converters.clear();
+        pools.clear();
+        poolUsers.keySet().forEach(AsciidoctorPool::close);
+        poolUsers.clear();
+        warmUp.discard();
+    }
+
+    synchronized int converterCount() {
+        return converters.size();
+    }
+
+    /**
+     * Returns how many pools are open, whether they are still shared or only used by connections.
+     */
+    synchronized int openPools() {
+        return poolUsers.size();
+    }
+
+    private void serve(Socket socket) {
+        AsciidoctorConverter converter = null;
+        try (Socket connection = socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()))) {
+            connection.setTcpNoDelay(true);
+            converter = handshake(in, out);
+            if (converter == null) {
+                return;
+            }
+            int count;
+            while ((count = in.readInt()) >= 0) {
+                final List<String> docs = readStrings(in, count);
+                List<String> converted = null;
+                String error = null;
+                try {
+                    converted = converter.convertAll(docs);
+                } catch (RuntimeException e) {
+                    error = e.toString();
+                }
+                out.writeBoolean(error == null);
+                if (error == null) {
+                    writeStrings(out, converted);
+                } else {
+                    writeString(out, error);
+                }
+                out.flush();
+                lastActivity = System.nanoTime();
+            }
+        } catch (IOException e) {
+            // The run is over, or gave up on the daemon.
+        } finally {
+            if (converter != null) {
+                // A run prunes the disk cache when it ends, which the converters of the daemon outlive.
+                converter.pruneDiskCache();
+                disconnect(converter);
+            }
+            lastActivity = System.nanoTime();
+            connections.decrementAndGet();
+        }
+    }
+
+    /**
+     * Checks that the run holds the token and the same version, and finds the converter for its options.
+     *
+     * @return the converter, or null if the connection was refused
+     */
+    private AsciidoctorConverter handshake(DataInputStream in, DataOutputStream out) throws IOException {
+        if (in.readInt() != MAGIC || !hasToken(in)) {
+            // Nothing is disclosed to whoever does not hold the token.
+            return null;
+        }
+        final String version = readString(in);
+        final List<String> arguments = readStrings(in, in.readInt());
+        String reason;
+        if (!CodeVersion.current().equals(version)) {
+            reason = "Version " + version + " is not " + CodeVersion.current();
+        } else {
+            try {
+                final AsciidoctorConverter converter = converter(arguments);
+                try {
+                    out.writeBoolean(true);
+                    out.flush();
+                } catch (IOException e) {
+                    disconnect(converter);
+                    throw e;
+                }
+                return converter;
+            } catch (RuntimeException e) {
+                reason = e.toString();
+            }
+        }
+        out.writeBoolean(false);
+        writeString(out, reason);
+        out.flush();
+        return null;
+    }
+
+    // The length is checked first, so that nothing else is read from a stranger.
+    private boolean hasToken(DataInputStream in) throws IOException {
+        final byte[] expected = token.getBytes(StandardCharsets.UTF_8);
+        if (in.readInt() != expected.length) {
+            return false;
+        }
+        final byte[] actual = new byte[expected.length];
+        in.readFully(actual);
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    // The attributes file is read when a converter is created, so a converter is only reused while the file is unchanged.
+    private synchronized AsciidoctorConverter converter(List<String> arguments) {
+        final DocletOptions docletOptions = new DocletOptions(reporter);
+        for (int i = 0; i + 1 < arguments.size(); i += 2) {
+            docletOptions.collect(AsciidocletOptions.valueOf(arguments.get(i)), List.of(arguments.get(i + 1)));
+        }
+        final List<String> key = new ArrayList<>(arguments);
+        key.add(attributesFileState(docletOptions));
+        final List<String> poolKey = List.of(String.valueOf(docletOptions.gemPath()), String.join(",", docletOptions.requires()));
+        // Looked up even for a cached converter, so that its pool is the most recently used.
+        AsciidoctorPool pool = pools.get(poolKey);
+        AsciidoctorConverter converter = converters.get(key);
+        if (converter == null) {
+            if (pool == null) {
+                pool = AsciidoctorPool.create(docletOptions, POOL_SIZE, warmUp);
+                pools.put(poolKey, pool);
+            }
+            converter = new AsciidoctorConverter(docletOptions, reporter, pool);
+            converters.put(key, converter);
+            use(pool);
+        }
+        // The connection uses the pool too, so that it is not closed under the run.
+        use(converter.pool());
+        evictConverters();
+        evictPools();
+        return converter;
+    }
+
+    private synchronized void disconnect(AsciidoctorConverter converter) {
+        unuse(converter.pool());
+    }
+
+    private void evictConverters() {
+        final Iterator<AsciidoctorConverter> iterator = converters.values().iterator();
+        while (converters.size() > maxConverters) {
+            final AsciidoctorConverter eldest = iterator.next();
+            iterator.remove();
+            evict(eldest);
+        }
+    }
+
+    // The converters of an evicted pool go with it, since they would keep its instances alive.
+    private void evictPools() {
+        final Iterator<AsciidoctorPool> iterator = pools.values().iterator();
+        while (pools.size() > maxPools) {
+            final AsciidoctorPool eldest = iterator.next();
+            iterator.remove();
+            final Iterator<AsciidoctorConverter> users = converters.values().iterator();
+            while (users.hasNext()) {
+                final AsciidoctorConverter converter = users.next();
+                if (converter.pool() == eldest) {
+                    users.remove();
+                    evict(converter);
+                }
+            }
+        }
+    }
+
+    private void evict(AsciidoctorConverter converter) {
+        converter.dispose();
+        unuse(converter.pool());
+    }
+
+    private void use(AsciidoctorPool pool) {
+        poolUsers.merge(pool, 1, Integer::sum);
+    }
+
+    private void unuse(AsciidoctorPool pool) {
+        final Integer users = poolUsers.get(pool);
+        if (users == null) {
+            // already closed with the daemon
+            return;
+        }
+        if (users > 1) {
+            poolUsers.put(pool, users - 1);
+        } else {
+            poolUsers.remove(pool);
+            pools.values().remove(pool);
+            pool.close();
+        }
+    }
+
+    private static String attributesFileState(DocletOptions docletOptions) {
+        final Path file = docletOptions.attributesFile().map(File::toPath).orElse(null);
+        if (file == null) {
+            return "";
+        }
+        try {
+            // Bytes are mapped one to one onto characters, whatever the encoding of the file.
+            return Files.getLastModifiedTime(file) + ":" + ContentHash.of(new String(Files.readAllBytes(file), StandardCharsets.ISO_8859_1));
+        } catch (IOException e) {
+            // The converter reports the unreadable file when it is created.
+            return "unreadable";
+        }
+    }
+
+    private static String newToken() {
+        final byte[] bytes = new byte[16];
+        new SecureRandom().nextBytes(bytes);
+        final StringBuilder token = new StringBuilder();
+        for (byte b : bytes) {
+            token.append(String.format("%02x", b));
+        }
+        return token.toString();
+    }
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    static List<String> readStrings(DataInputStream in, int count) throws IOException {
+        final List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+
+    /**
+     * Prints warnings to the standard error of the daemon, which goes to {@link #LOG_FILE}.
+     */
+    private static final class LogReporter implements Reporter {
+
+        @Override
+        public void print(Diagnostic.Kind kind, String msg) {
+            System.err.println(kind + ": " + msg);
+        }
+
+        @Override
+        public void print(Diagnostic.Kind kind, DocTreePath path, String msg) {
+            print(kind, msg);
+        }
+
+        @Override
+        public void print(Diagnostic.Kind kind, Element e, String msg) {
+            print(kind, msg);
+        }
+    }
+}
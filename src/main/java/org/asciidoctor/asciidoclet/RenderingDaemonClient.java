@@ -0,0 +1,187 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+import jdk.javadoc.doclet.Reporter;
+
+import javax.tools.Diagnostic;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Connection of a doclet run to a {@link RenderingDaemon}.
+ * <p>
+ * A run that finds no daemon starts one in the background and converts in process, so that the
+ * daemon is ready for the next runs without delaying this one. Any failure to reach or use the
+ * daemon is left to the caller, which converts in process instead.
+ */
+class RenderingDaemonClient implements AutoCloseable {
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 1_000;
+    // A conversion may need the daemon to boot an Asciidoctor instance for new options.
+    private static final int READ_TIMEOUT_MILLIS = 5 * 60 * 1_000;
+
+    private final Socket socket;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+
+    private RenderingDaemonClient(Socket socket, DataInputStream in, DataOutputStream out) {
+        this.socket = socket;
+        this.in = in;
+        this.out = out;
+    }
+
+    /**
+     * Connects to the daemon when `--asciidoclet-daemon` is given, starting it if it is not running.
+     *
+     * @param docletOptions the doclet options of the current run
+     * @param reporter      reports why the daemon cannot be used
+     * @return a connection, or null to convert in process
+     */
+    static RenderingDaemonClient open(DocletOptions docletOptions, Reporter reporter) {
+        if (docletOptions.daemonIdleTimeout() == 0) {
+            return null;
+        }
+        final Path stateDir = RenderingDaemon.stateDir(Path.of(System.getProperty("java.io.tmpdir")));
+        final RenderingDaemonClient client = connect(stateDir, docletOptions.daemonArguments(), reporter);
+        if (client == null) {
+            start(stateDir, docletOptions.daemonIdleTimeout(), reporter);
+        }
+        return client;
+    }
+
+    /**
+     * Connects to the daemon serving a state directory.
+     *
+     * @param stateDir  the state directory of the daemon
+     * @param arguments the options to convert with, see {@link DocletOptions#daemonArguments()}
+     * @param reporter  reports a daemon refusing the options
+     * @return a connection, or null if no daemon can be used
+     */
+    static RenderingDaemonClient connect(Path stateDir, List<String> arguments, Reporter reporter) {
+        final Properties state = new Properties();
+        try {
+            if (!PrivateDirs.isPrivate(stateDir)) {
+                return null;
+            }
+            try (Reader reader = Files.newBufferedReader(stateDir.resolve(RenderingDaemon.STATE_FILE), StandardCharsets.UTF_8)) {
+                state.load(reader);
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        final String version = CodeVersion.current();
+        if (!version.equals(state.getProperty("version"))) {
+            return null;
+        }
+        final Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(state.getProperty("port"))),
+                    CONNECT_TIMEOUT_MILLIS);
+            socket.setSoTimeout(READ_TIMEOUT_MILLIS);
+            socket.setTcpNoDelay(true);
+            final DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.writeInt(RenderingDaemon.MAGIC);
+            RenderingDaemon.writeString(out, String.valueOf(state.getProperty("token")));
+            RenderingDaemon.writeString(out, version);
+            out.writeInt(arguments.size());
+            RenderingDaemon.writeStrings(out, arguments);
+            out.flush();
+            if (!in.readBoolean()) {
+                reporter.print(Diagnostic.Kind.WARNING, "Rendering daemon refused the options: " + RenderingDaemon.readString(in));
+                socket.close();
+                return null;
+            }
+            return new RenderingDaemonClient(socket, in, out);
+        } catch (IOException | RuntimeException e) {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // giving up anyway
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Starts a daemon in the background, which exits by itself if another one serves the state directory.
+     *
+     * @param stateDir           the state directory of the daemon
+     * @param idleTimeoutSeconds how long the daemon waits for a connection before exiting
+     * @param reporter           reports a daemon that cannot be started
+     */
+    static void start(Path stateDir, long idleTimeoutSeconds, Reporter reporter) {
+        try {
+            if (!PrivateDirs.create(stateDir)) {
+                reporter.print(Diagnostic.Kind.WARNING, "Not starting a rendering daemon in " + stateDir + ", which other users may access");
+                return;
+            }
+            new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                    "-cp", RenderingDaemon.classPath(),
+                    RenderingDaemon.class.getName(), stateDir.toString(), String.valueOf(idleTimeoutSeconds))
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.appendTo(stateDir.resolve(RenderingDaemon.LOG_FILE).toFile()))
+                    .start();
+        } catch (IOException e) {
+            reporter.print(Diagnostic.Kind.WARNING, "Cannot start a rendering daemon: " + e.getLocalizedMessage());
+        }
+    }
+
+    /**
+     * Converts documents as {@link AsciidoctorConverter#convertAll(List)} does.
+     *
+     * @param docs inputs
+     * @return the converted documents, in order
+     * @throws IOException if the daemon failed, in which case the connection should be closed
+     */
+    synchronized List<String> convertAll(List<String> docs) throws IOException {
+        out.writeInt(docs.size());
+        RenderingDaemon.writeStrings(out, docs);
+        out.flush();
+        if (!in.readBoolean()) {
+            throw new IOException(RenderingDaemon.readString(in));
+        }
+        return RenderingDaemon.readStrings(in, docs.size());
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            out.writeInt(-1);
+            out.flush();
+        } catch (IOException e) {
+            // closed by the daemon already
+        }
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // nothing left to release
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+import org.asciidoctor.asciidoclet.HighlightedHtml.Kind;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Scanner for POSIX shell and Bash scripts.
+ * <p>
+ * CodeRay has no shell scanner, so this one picks the token kinds of the other scanners: reserved
+ * words are keywords, builtin commands are predefined, and parameter expansions are variables.
+ * Command substitutions between backquotes use the `shell` kind, as in the CodeRay Ruby scanner.
+ */
+final class ShellSourceScanner extends SourceScanner {
+
+    private static final Map<String, Kind> WORD_KINDS = wordKinds();
+
+    private static final String VARIABLE = "\\$\\{[^}\\n]*\\}?|\\$(?:[A-Za-z_]\\w*|[0-9@*#?$!-])";
+    private static final Pattern SHEBANG = pattern("#!.*");
+    private static final Pattern SPACE = pattern("\\s+|\\\\\\n");
+    private static final Pattern COMMENT = pattern("#.*");
+    private static final Pattern SINGLE_QUOTED = pattern("'([^']*)('?)");
+    private static final Pattern DOUBLE_QUOTE = pattern("\"");
+    private static final Pattern DOUBLE_QUOTED_CONTENT = pattern("[^\"\\\\$`]+");
+    private static final Pattern ESCAPE = multilinePattern("\\\\.");
+    private static final Pattern BACKQUOTED = pattern("`[^`]*`?");
+    private static final Pattern VARIABLE_PATTERN = pattern(VARIABLE);
+    private static final Pattern ASSIGNED_NAME = pattern("[A-Za-z_]\\w*(?=\\+?=)");
+    private static final Pattern OPERATOR = pattern("\\$\\(\\(?|[;|&<>()]+");
+    private static final Pattern NUMBER = pattern("\\d+(?![^\\s\\\\$'\"`;|&<>()])");
+    private static final Pattern WORD = pattern("[^\\s\\\\$'\"`;|&<>()]+");
+
+    @Override
+    protected void scanTokens(HighlightedHtml out) {
+        String match;
+        if ((match = scan(SHEBANG)) != null) {
+            out.text(match, Kind.DOCTYPE);
+        }
+        boolean commandStart = true;
+        while (!eos()) {
+            if ((match = scan(SPACE)) != null) {
+                out.text(match, Kind.SPACE);
+                if (match.indexOf('\n') >= 0 && !match.startsWith("\\")) {
+                    commandStart = true;
+                }
+            } else if ((match = scan(COMMENT)) != null) {
+                out.text(match, Kind.COMMENT);
+            } else if ((match = scan(SINGLE_QUOTED)) != null) {
+                final String content = group(1);
+                final boolean terminated = !group(2).isEmpty();
+                out.begin(Kind.STRING);
+                out.text("'", Kind.DELIMITER);
+                if (!content.isEmpty()) {
+                    out.text(content, Kind.CONTENT);
+                }
+                if (terminated) {
+                    out.text("'", Kind.DELIMITER);
+                }
+                out.end();
+                commandStart = false;
+            } else if ((match = scan(DOUBLE_QUOTE)) != null) {
+                scanDoubleQuoted(out, match);
+                commandStart = false;
+            } else if ((match = scan(BACKQUOTED)) != null) {
+                out.text(match, Kind.SHELL);
+                commandStart = false;
+            } else if ((match = scan(VARIABLE_PATTERN)) != null) {
+                out.text(match, Kind.VARIABLE);
+                commandStart = false;
+            } else if ((match = scan(OPERATOR)) != null) {
+                out.text(match, Kind.OPERATOR);
+                // A redirection is followed by a file name, other operators by a command.
+                commandStart = match.indexOf('<') < 0 && match.indexOf('>') < 0;
+            } else if ((match = scan(ASSIGNED_NAME)) != null) {
+                out.text(match, Kind.VARIABLE);
+                commandStart = false;
+            } else if ((match = scan(NUMBER)) != null) {
+                out.text(match, Kind.INTEGER);
+                commandStart = false;
+            } else if ((match = scan(WORD)) != null) {
+                final Kind kind = commandStart || match.equals("in") ? WORD_KINDS.getOrDefault(match, Kind.IDENT) : Kind.IDENT;
+                out.text(match, kind);
+                // Reserved words such as `then` or `do` are followed by a command, unlike the `in` of a loop.
+                commandStart = kind == Kind.KEYWORD && !match.equals("in");
+            } else {
+                out.text(getch(), Kind.PLAIN);
+                commandStart = false;
+            }
+        }
+    }
+
+    private void scanDoubleQuoted(HighlightedHtml out, String quote) {
+        out.begin(Kind.STRING);
+        out.text(quote, Kind.DELIMITER);
+        String match;
+        while (!eos()) {
+            if ((match = scan(DOUBLE_QUOTED_CONTENT)) != null) {
+                out.text(match, Kind.CONTENT);
+            } else if ((match = scan(DOUBLE_QUOTE)) != null) {
+                out.text(match, Kind.DELIMITER);
+                break;
+            } else if ((match = scan(ESCAPE)) != null) {
+                out.text(match, Kind.CHAR);
+            } else if ((match = scan(VARIABLE_PATTERN)) != null) {
+                out.text(match, Kind.VARIABLE);
+            } else if ((match = scan(BACKQUOTED)) != null) {
+                out.text(match, Kind.SHELL);
+            } else {
+                out.text(getch(), Kind.CONTENT);
+            }
+        }
+        out.end();
+    }
+
+    private static Map<String, Kind> wordKinds() {
+        final Map<String, Kind> kinds = new HashMap<>();
+        add(kinds, Kind.KEYWORD, "case", "do", "done", "elif", "else", "esac", "fi", "for", "function", "if", "in",
+                "select", "then", "time", "until", "while", "!", "[[", "]]", "{", "}");
+        add(kinds, Kind.PREDEFINED, "alias", "bg", "bind", "break", "builtin", "cd", "command", "continue", "declare",
+                "echo", "eval", "exec", "exit", "export", "fg", "getopts", "hash", "jobs", "kill", "let", "local",
+                "printf", "pwd", "read", "readonly", "return", "set", "shift", "source", "test", "trap", "type",
+                "typeset", "ulimit", "umask", "unalias", "unset", "wait", "[", "]", ".");
+        add(kinds, Kind.PREDEFINED_CONSTANT, "true", "false");
+        return kinds;
+    }
+
+    private static void add(Map<String, Kind> kinds, Kind kind, String... words) {
+        for (String word : words) {
+            kinds.put(word, kind);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+import jdk.javadoc.doclet.Reporter;
+
+import javax.tools.Diagnostic;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the slowest comment conversions of a run, to point at the comments that dominate its time,
+ * such as huge tables or long highlighted listings.
+ * <p>
+ * Only the given number of conversions is kept, in a heap whose head is the fastest of them, so a
+ * conversion that is not slower than that head is dismissed without computing its description.
+ */
+class SlowestComments {
+
+    private final int limit;
+    private final PriorityQueue<Entry> slowest = new PriorityQueue<>(Comparator.comparingLong(Entry::nanos));
+
+    /**
+     * @param limit number of conversions to keep, 0 to keep none
+     */
+    SlowestComments(int limit) {
+        this.limit = limit;
+    }
+
+    boolean isEnabled() {
+        return limit > 0;
+    }
+
+    /**
+     * Records a comment conversion.
+     *
+     * @param nanos    how long the conversion took
+     * @param element  the documented element, only computed if the conversion is kept
+     * @param position the source position of the comment, only computed if the conversion is kept
+     */
+    synchronized void record(long nanos, Supplier<String> element, Supplier<String> position) {
+        if (limit == 0 || (slowest.size() == limit && slowest.peek().nanos >= nanos)) {
+            return;
+        }
+        slowest.add(new Entry(nanos, element.get(), position.get()));
+        if (slowest.size() > limit) {
+            slowest.poll();
+        }
+    }
+
+    /**
+     * Returns the slowest conversions, slowest first.
+     */
+    synchronized List<Entry> entries() {
+        List<Entry> entries = new ArrayList<>(slowest);
+        entries.sort(Comparator.comparingLong(Entry::nanos).reversed());
+        return entries;
+    }
+
+    /**
+     * Prints the slowest conversions as a warning, if any was recorded.
+     */
+    void report(Reporter reporter) {
+        List<Entry> entries = entries();
+        if (entries.isEmpty()) {
+            return;
+        }
+        StringBuilder report = new StringBuilder("Slowest comment conversions:");
+        for (Entry entry : entries) {
+            report.append(System.lineSeparator()).append(entry);
+        }
+        reporter.print(Diagnostic.Kind.WARNING, report.toString());
+    }
+
+    static final class Entry {
+
+        private final long nanos;
+        private final String element;
+        private final String position;
+
+        Entry(long nanos, String element, String position) {
+            this.nanos = nanos;
+            this.element = element;
+            this.position = position;
+        }
+
+        long nanos() {
+            return nanos;
+        }
+
+        String element() {
+            return element;
+        }
+
+        String position() {
+            return position;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%10.1f ms  %s (%s)", nanos / 1e6, element, position);
+        }
+    }
+}
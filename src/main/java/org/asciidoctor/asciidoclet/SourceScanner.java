@@ -0,0 +1,187 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+import java.util.IdentityHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Splits source code into tokens for {@link AsciidocletHighlighter}.
+ * <p>
+ * Scanners are ports of the CodeRay scanners, written against a small subset of the Ruby `StringScanner`
+ * API so that they stay close to the originals: {@link #scan(Pattern)} matches a pattern at the current
+ * position and moves past the match. Patterns are compiled with {@link #pattern(String)}, which gives `^`,
+ * `$` and `.` their Ruby meaning.
+ */
+abstract class SourceScanner {
+
+    private static final Map<String, Supplier<SourceScanner>> SCANNERS = Map.of(
+            "java", JavaSourceScanner::new,
+            "xml", XmlSourceScanner::new,
+            "json", JsonSourceScanner::new,
+            "yaml", YamlSourceScanner::new,
+            "yml", YamlSourceScanner::new,
+            "sh", ShellSourceScanner::new,
+            "bash", ShellSourceScanner::new,
+            "shell", ShellSourceScanner::new,
+            "zsh", ShellSourceScanner::new);
+
+    private final Map<Pattern, Matcher> matchers = new IdentityHashMap<>();
+    private Matcher lastMatch;
+
+    /**
+     * The source being scanned.
+     */
+    protected String source;
+    /**
+     * The current position in {@link #source}.
+     */
+    protected int pos;
+
+    /**
+     * Returns a new scanner for a language, or null when the language is not supported.
+     *
+     * @param language source language of a listing block, such as `java`
+     */
+    static SourceScanner forLanguage(String language) {
+        final Supplier<SourceScanner> scanner = language != null ? SCANNERS.get(language.toLowerCase(Locale.ROOT)) : null;
+        return scanner != null ? scanner.get() : null;
+    }
+
+    /**
+     * Scans a source into tokens.
+     *
+     * @param source the source code, with Unix line endings
+     * @param out    receives the tokens
+     */
+    final void scan(String source, HighlightedHtml out) {
+        this.source = source;
+        this.pos = 0;
+        matchers.clear();
+        lastMatch = null;
+        scanTokens(out);
+    }
+
+    protected abstract void scanTokens(HighlightedHtml out);
+
+    /**
+     * Compiles a pattern with the Ruby semantics: `^` and `$` match at line boundaries, and `.` matches anything but `\n`.
+     */
+    static Pattern pattern(String regex) {
+        return Pattern.compile(regex, Pattern.MULTILINE | Pattern.UNIX_LINES);
+    }
+
+    /**
+     * Compiles a pattern as {@link #pattern(String)}, with `.` matching `\n` as in Ruby multiline mode.
+     */
+    static Pattern multilinePattern(String regex) {
+        return Pattern.compile(regex, Pattern.MULTILINE | Pattern.UNIX_LINES | Pattern.DOTALL);
+    }
+
+    /**
+     * Matches a pattern at the current position, and moves past the match.
+     *
+     * @return the matched text, or null if the pattern does not match
+     */
+    protected final String scan(Pattern pattern) {
+        final Matcher matcher = match(pattern);
+        if (matcher == null) {
+            return null;
+        }
+        lastMatch = matcher;
+        pos = matcher.end();
+        return matcher.group();
+    }
+
+    /**
+     * Tells whether a pattern matches at the current position, without moving.
+     */
+    protected final boolean check(Pattern pattern) {
+        return match(pattern) != null;
+    }
+
+    /**
+     * Moves up to the end of the first match of a pattern.
+     *
+     * @return the text up to the end of the match, or null if the pattern does not match
+     */
+    protected final String scanUntil(Pattern pattern) {
+        final Matcher matcher = matcher(pattern);
+        if (!matcher.find()) {
+            return null;
+        }
+        final String text = source.substring(pos, matcher.end());
+        lastMatch = matcher;
+        pos = matcher.end();
+        return text;
+    }
+
+    /**
+     * Returns a group of the last match of {@link #scan(Pattern)}.
+     */
+    protected final String group(int group) {
+        return lastMatch.group(group);
+    }
+
+    /**
+     * Returns the next character, and moves past it.
+     */
+    protected final String getch() {
+        final int next = source.offsetByCodePoints(pos, 1);
+        final String ch = source.substring(pos, next);
+        pos = next;
+        return ch;
+    }
+
+    protected final boolean eos() {
+        return pos >= source.length();
+    }
+
+    /**
+     * Tells whether the current position is at the beginning of a line.
+     */
+    protected final boolean bol() {
+        return pos == 0 || source.charAt(pos - 1) == '\n';
+    }
+
+    /**
+     * Returns the 1-based column of a position.
+     */
+    protected final int column(int position) {
+        if (position <= 0) {
+            return 1;
+        }
+        return position - source.lastIndexOf('\n', position - 1);
+    }
+
+    private Matcher match(Pattern pattern) {
+        final Matcher matcher = matcher(pattern);
+        return matcher.lookingAt() ? matcher : null;
+    }
+
+    private Matcher matcher(Pattern pattern) {
+        Matcher matcher = matchers.get(pattern);
+        if (matcher == null) {
+            matcher = pattern.matcher(source).useTransparentBounds(true).useAnchoringBounds(false);
+            matchers.put(pattern, matcher);
+        }
+        return matcher.region(pos, source.length());
+    }
+}
@@ -51,6 +51,8 @@ public class Stylesheets {
      * @return `true` if successfully copied. `false` otherwise.
      */
     public boolean copy(DocletEnvironment environment) {
+        AsciidocletEvents.StylesheetCopy event = new AsciidocletEvents.StylesheetCopy();
+        event.begin();
         String stylesheet = selectStylesheet(System.getProperty("java.version"));
         JavaFileManager fm = environment.getJavaFileManager();
         try (InputStream stylesheetIn = getResource(stylesheet);
@@ -59,6 +61,10 @@ public class Stylesheets {
              OutputStream coderayStylesheetOut = openOutputStream(fm, CODERAY_STYLESHEET)) {
             stylesheetIn.transferTo(stylesheetOut);
             coderayStylesheetIn.transferTo(coderayStylesheetOut);
+            if (event.shouldCommit()) {
+                event.stylesheet = stylesheet;
+                event.commit();
+            }
             return true;
         } catch (IOException e) {
             errorReporter.print(Diagnostic.Kind.ERROR, e.getLocalizedMessage());
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+import org.asciidoctor.asciidoclet.HighlightedHtml.Kind;
+
+import java.util.regex.Pattern;
+
+/**
+ * XML scanner, ported from the CodeRay HTML scanner that CodeRay also uses for XML.
+ * <p>
+ * Unlike the CodeRay one, it does not highlight scripts and styles embedded in `script` and `style`
+ * elements and attributes, which only occur in HTML.
+ */
+final class XmlSourceScanner extends SourceScanner {
+
+    private static final String ENTITY = "&(?:\\w+|#(?:\\d+|x[0-9a-fA-F]+));";
+    private static final Pattern SPACE = multilinePattern("\\s+");
+    private static final Pattern CDATA_START = pattern("<!\\[CDATA\\[");
+    private static final Pattern CDATA_CONTENT = multilinePattern(".*?\\]\\]>");
+    private static final Pattern UNTERMINATED_CDATA = pattern(".+");
+    private static final Pattern COMMENT = multilinePattern("<!--(?:.*?-->|.*)");
+    private static final Pattern DOCTYPE = multilinePattern("<!(\\w+)(?:.*?>|.*)|\\]>");
+    private static final Pattern XML_DECLARATION = multilinePattern("<\\?xml(?:.*?\\?>|.*)");
+    private static final Pattern PROCESSING_INSTRUCTION = multilinePattern("<\\?(?:.*?\\?>|.*)");
+    private static final Pattern END_TAG = multilinePattern("</[-\\w.:]*>?");
+    private static final Pattern START_TAG = multilinePattern("<[-\\w.:]+(>)?");
+    private static final Pattern TEXT = pattern("[^<>&]+");
+    private static final Pattern ENTITY_PATTERN = pattern(ENTITY);
+    private static final Pattern STRAY = pattern("[<>&]");
+    private static final Pattern TAG_END = pattern("/?>");
+    private static final Pattern ATTRIBUTE_NAME = pattern("[\\w.:-]+");
+    private static final Pattern EQUALS = pattern("=");
+    private static final Pattern QUOTE = pattern("[\"']");
+    private static final Pattern DOUBLE_QUOTED_CONTENT = pattern("[^&\">\\n]+");
+    private static final Pattern SINGLE_QUOTED_CONTENT = pattern("[^&'>\\n]+");
+    private static final Pattern AMPERSAND = pattern("&");
+    private static final Pattern STRING_BREAK = pattern("[\\n>]");
+
+    private enum State {
+        INITIAL, ATTRIBUTE, ATTRIBUTE_EQUAL, ATTRIBUTE_VALUE, ATTRIBUTE_VALUE_STRING
+    }
+
+    @Override
+    protected void scanTokens(HighlightedHtml out) {
+        State state = State.INITIAL;
+        Pattern stringContent = null;
+
+        while (!eos()) {
+            String match;
+            if ((match = scan(SPACE)) != null) {
+                out.text(match, Kind.SPACE);
+                continue;
+            }
+            switch (state) {
+                case INITIAL:
+                    if ((match = scan(CDATA_START)) != null) {
+                        out.text(match, Kind.INLINE_DELIMITER);
+                        if ((match = scan(CDATA_CONTENT)) != null) {
+                            out.text(match.substring(0, match.length() - 3), Kind.PLAIN);
+                            out.text("]]>", Kind.INLINE_DELIMITER);
+                        } else if ((match = scan(UNTERMINATED_CDATA)) != null) {
+                            out.text(match, Kind.ERROR);
+                        }
+                    } else if ((match = scan(COMMENT)) != null) {
+                        out.text(match, Kind.COMMENT);
+                    } else if ((match = scan(DOCTYPE)) != null) {
+                        out.text(match, Kind.DOCTYPE);
+                    } else if ((match = scan(XML_DECLARATION)) != null) {
+                        out.text(match, Kind.PREPROCESSOR);
+                    } else if ((match = scan(PROCESSING_INSTRUCTION)) != null) {
+                        out.text(match, Kind.COMMENT);
+                    } else if ((match = scan(END_TAG)) != null) {
+                        out.text(match, Kind.TAG);
+                    } else if ((match = scan(START_TAG)) != null) {
+                        final boolean closed = group(1) != null;
+                        out.text(match, Kind.TAG);
+                        if (!closed) {
+                            state = State.ATTRIBUTE;
+                        }
+                    } else if ((match = scan(TEXT)) != null) {
+                        out.text(match, Kind.PLAIN);
+                    } else if ((match = scan(ENTITY_PATTERN)) != null) {
+                        out.text(match, Kind.ENTITY);
+                    } else if ((match = scan(STRAY)) != null) {
+                        out.text(match, Kind.ERROR);
+                    }
+                    break;
+                case ATTRIBUTE:
+                    if ((match = scan(TAG_END)) != null) {
+                        out.text(match, Kind.TAG);
+                        state = State.INITIAL;
+                    } else if ((match = scan(ATTRIBUTE_NAME)) != null) {
+                        out.text(match, Kind.ATTRIBUTE_NAME);
+                        state = State.ATTRIBUTE_EQUAL;
+                    } else {
+                        out.text(getch(), Kind.ERROR);
+                    }
+                    break;
+                case ATTRIBUTE_EQUAL:
+                    if ((match = scan(EQUALS)) != null) {
+                        out.text(match, Kind.OPERATOR);
+                        state = State.ATTRIBUTE_VALUE;
+                    } else {
+                        state = State.ATTRIBUTE;
+                    }
+                    break;
+                case ATTRIBUTE_VALUE:
+                    if ((match = scan(ATTRIBUTE_NAME)) != null) {
+                        out.text(match, Kind.ATTRIBUTE_VALUE);
+                        state = State.ATTRIBUTE;
+                    } else if ((match = scan(QUOTE)) != null) {
+                        out.begin(Kind.STRING);
+                        state = State.ATTRIBUTE_VALUE_STRING;
+                        stringContent = match.equals("'") ? SINGLE_QUOTED_CONTENT : DOUBLE_QUOTED_CONTENT;
+                        out.text(match, Kind.DELIMITER);
+                    } else if ((match = scan(TAG_END)) != null) {
+                        out.text(match, Kind.TAG);
+                        state = State.INITIAL;
+                    } else {
+                        out.text(getch(), Kind.ERROR);
+                    }
+                    break;
+                case ATTRIBUTE_VALUE_STRING:
+                    if ((match = scan(stringContent)) != null) {
+                        out.text(match, Kind.CONTENT);
+                    } else if ((match = scan(QUOTE)) != null) {
+                        out.text(match, Kind.DELIMITER);
+                        out.end();
+                        state = State.ATTRIBUTE;
+                    } else if ((match = scan(ENTITY_PATTERN)) != null) {
+                        out.text(match, Kind.ENTITY);
+                    } else if ((match = scan(AMPERSAND)) != null) {
+                        out.text(match, Kind.CONTENT);
+                    } else if ((match = scan(STRING_BREAK)) != null) {
+                        out.end();
+                        state = State.INITIAL;
+                        out.text(match, Kind.ERROR);
+                    }
+                    break;
+            }
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+import org.asciidoctor.asciidoclet.HighlightedHtml.Kind;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * YAML scanner, ported from the CodeRay one.
+ */
+final class YamlSourceScanner extends SourceScanner {
+
+    private static final Pattern SPACE = pattern(" +[\\t ]*");
+    private static final Pattern NEWLINES = pattern("\\n+");
+    private static final Pattern COMMENT = pattern("#.*");
+    private static final Pattern DOCUMENT_MARKER = pattern("---|\\.\\.\\.");
+    private static final Pattern DIRECTIVE = pattern("%.*");
+    private static final Pattern QUOTED_KEY_AHEAD = pattern("(?:\"[^\"]*\")(?=: |:$)");
+    private static final Pattern QUOTE = pattern("\"");
+    private static final Pattern QUOTED_CONTENT = multilinePattern("[^\"\\\\]*(?:\\\\.[^\"\\\\]*)*");
+    private static final Pattern BLOCK_SCALAR = pattern("[|>][-+]?");
+    private static final Pattern PLAIN_SCALAR = pattern("(?![!\"*&]).+?(?=$|\\s+#)");
+    private static final Pattern INDICATOR = pattern("[-:](?= |$)");
+    private static final Pattern FLOW_INDICATOR = pattern("[,{}\\[\\]]");
+    private static final Pattern KEY = pattern("[-\\w.()/ ]*\\S(?= *:(?: |$))");
+    private static final Pattern QUOTED_KEY = pattern("(?:\"[^\"\\n]*\"|'[^'\\n]*')(?= *:(?: |$))");
+    private static final Pattern TAG = pattern("(![\\w/]+)(:([\\w:]+))?");
+    private static final Pattern ANCHOR = pattern("&\\S+");
+    private static final Pattern ALIAS = pattern("\\*\\w+");
+    private static final Pattern MERGE_KEY = pattern("<<");
+    private static final Pattern TIME = pattern("\\d\\d:\\d\\d:\\d\\d");
+    private static final Pattern TIMESTAMP = pattern("\\d\\d\\d\\d-\\d\\d-\\d\\d\\s\\d\\d:\\d\\d:\\d\\d(\\.\\d+)? [-+]\\d\\d:\\d\\d");
+    private static final Pattern SYMBOL = pattern(":\\w+");
+    private static final Pattern ERROR_LINE = pattern("[^:\\s]+(:(?! |$)[^:\\s]*)* .*");
+    private static final Pattern ERROR_WORD = pattern("[^:\\s]+(:(?! |$)[^:\\s]*)*");
+
+    private static final Map<Integer, Pattern> INDENTED_LINES = new ConcurrentHashMap<>();
+
+    private enum State {
+        INITIAL, COLON, VALUE
+    }
+
+    @Override
+    protected void scanTokens(HighlightedHtml out) {
+        State state = State.INITIAL;
+        Integer keyIndent = 0;
+
+        while (!eos()) {
+            if (bol()) {
+                keyIndent = null;
+            }
+            String match;
+            if ((match = scan(SPACE)) != null) {
+                out.text(match, Kind.SPACE);
+                continue;
+            }
+            if ((match = scan(NEWLINES)) != null) {
+                out.text(match, Kind.SPACE);
+                state = State.INITIAL;
+                continue;
+            }
+            if ((match = scan(COMMENT)) != null) {
+                out.text(match, Kind.COMMENT);
+                continue;
+            }
+            if (bol()) {
+                if ((match = scan(DOCUMENT_MARKER)) != null) {
+                    out.begin(Kind.HEAD);
+                    out.text(match, Kind.HEAD);
+                    out.end();
+                    continue;
+                }
+                if ((match = scan(DIRECTIVE)) != null) {
+                    out.text(match, Kind.DOCTYPE);
+                    continue;
+                }
+            }
+            if (state == State.VALUE) {
+                if (!check(QUOTED_KEY_AHEAD) && (match = scan(QUOTE)) != null) {
+                    out.begin(Kind.STRING);
+                    out.text(match, Kind.DELIMITER);
+                    if ((match = scan(QUOTED_CONTENT)) != null && !match.isEmpty()) {
+                        out.text(match, Kind.CONTENT);
+                    }
+                    if ((match = scan(QUOTE)) != null) {
+                        out.text(match, Kind.DELIMITER);
+                    }
+                    out.end();
+                    continue;
+                }
+                if ((match = scan(BLOCK_SCALAR)) != null) {
+                    out.begin(Kind.STRING);
+                    out.text(match, Kind.DELIMITER);
+                    scanIndentedLines(out, keyIndent, match);
+                    out.end();
+                    continue;
+                }
+                if ((match = scan(PLAIN_SCALAR)) != null) {
+                    out.begin(Kind.STRING);
+                    out.text(match, Kind.CONTENT);
+                    scanIndentedLines(out, keyIndent, match);
+                    out.end();
+                    continue;
+                }
+            }
+            if ((match = scan(INDICATOR)) != null) {
+                if (state == State.COLON && (match.equals(":") || match.equals("-"))) {
+                    state = State.VALUE;
+                }
+                if (state == State.INITIAL && match.equals("-")) {
+                    state = State.VALUE;
+                }
+                out.text(match, Kind.OPERATOR);
+            } else if ((match = scan(FLOW_INDICATOR)) != null) {
+                out.text(match, Kind.OPERATOR);
+            } else if (state == State.INITIAL && (match = scan(KEY)) != null) {
+                out.text(match, Kind.KEY);
+                keyIndent = column(pos - match.length()) - 1;
+                state = State.COLON;
+            } else if ((match = scan(QUOTED_KEY)) != null) {
+                out.begin(Kind.KEY);
+                out.text(match.substring(0, 1), Kind.DELIMITER);
+                if (match.length() > 2) {
+                    out.text(match.substring(1, match.length() - 1), Kind.CONTENT);
+                }
+                out.text(match.substring(match.length() - 1), Kind.DELIMITER);
+                out.end();
+                keyIndent = column(pos - match.length()) - 1;
+                state = State.COLON;
+            } else if ((match = scan(TAG)) != null) {
+                final String type = group(1);
+                final String className = group(3);
+                out.text(type, Kind.TYPE);
+                if (className != null) {
+                    out.text(":", Kind.OPERATOR);
+                    out.text(className, Kind.CLASS);
+                }
+            } else if ((match = scan(ANCHOR)) != null) {
+                out.text(match, Kind.VARIABLE);
+            } else if ((match = scan(ALIAS)) != null) {
+                out.text(match, Kind.GLOBAL_VARIABLE);
+            } else if ((match = scan(MERGE_KEY)) != null) {
+                out.text(match, Kind.CLASS_VARIABLE);
+            } else if ((match = scan(TIME)) != null || (match = scan(TIMESTAMP)) != null) {
+                out.text(match, Kind.OCTAL);
+            } else if ((match = scan(SYMBOL)) != null) {
+                out.text(match, Kind.SYMBOL);
+            } else if ((match = scan(ERROR_LINE)) != null || (match = scan(ERROR_WORD)) != null) {
+                out.text(match, Kind.ERROR);
+            } else {
+                out.text(getch(), Kind.ERROR);
+            }
+        }
+    }
+
+    // The lines of a scalar that are indented more than its key.
+    private void scanIndentedLines(HighlightedHtml out, Integer keyIndent, String match) {
+        final int stringIndent = keyIndent != null ? keyIndent : column(pos - match.length()) - 1;
+        final String lines = scan(INDENTED_LINES.computeIfAbsent(stringIndent + 1,
+                indent -> pattern("(?:\\n+ {" + indent + "}.*)+")));
+        if (lines != null) {
+            out.text(lines, Kind.CONTENT);
+        }
+    }
+}
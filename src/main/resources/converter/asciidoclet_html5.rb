@@ -0,0 +1,18 @@
+# The html5 converter used by Asciidoclet: the built-in one, except for paragraphs and sections,
+# which are handed to the Java converter registered as the asciidoclet-nodes backend.
+class AsciidocletHtml5Converter < Asciidoctor::Converter::Html5Converter
+  register_for 'html5'
+
+  def initialize backend, opts = {}
+    super
+    @nodes = Asciidoctor::Converter.create 'asciidoclet-nodes', opts
+  end
+
+  def convert_paragraph node
+    @nodes.convert node, 'paragraph'
+  end
+
+  def convert_section node
+    @nodes.convert node, 'section'
+  end
+end
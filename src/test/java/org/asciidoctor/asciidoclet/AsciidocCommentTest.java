@@ -0,0 +1,88 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+import com.sun.tools.javac.parser.Tokens;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AsciidocCommentTest {
+
+    private final AsciidoctorConverter converter = Mockito.mock(AsciidoctorConverter.class);
+    private final Tokens.Comment comment = Mockito.mock(Tokens.Comment.class);
+
+    @Test
+    void testCommentIsNotConvertedUntilRead() {
+        when(comment.isDeprecated()).thenReturn(true);
+
+        AsciidocComment asciidocComment = new AsciidocComment(converter, comment);
+
+        assertThat(asciidocComment.isDeprecated()).isTrue();
+        verify(converter, never()).convert(Mockito.anyString());
+    }
+
+    @Test
+    void testCommentIsConvertedOnce() {
+        when(comment.getText()).thenReturn("*bold*");
+        when(converter.convert("*bold*")).thenReturn("<strong>bold</strong>");
+
+        AsciidocComment asciidocComment = new AsciidocComment(converter, comment);
+
+        assertThat(asciidocComment.getText()).isEqualTo("<strong>bold</strong>");
+        assertThat(asciidocComment.getText()).isEqualTo("<strong>bold</strong>");
+        verify(converter, times(1)).convert("*bold*");
+    }
+
+    @Test
+    void testConversionTimeIsTakenOnce() {
+        when(comment.getText()).thenReturn("*bold*");
+        when(converter.convert("*bold*")).thenReturn("<strong>bold</strong>");
+
+        AsciidocComment asciidocComment = new AsciidocComment(converter, comment);
+        assertThat(asciidocComment.takeConversionNanos()).isZero();
+
+        asciidocComment.getText();
+        assertThat(asciidocComment.takeConversionNanos()).isPositive();
+        asciidocComment.getText();
+        assertThat(asciidocComment.takeConversionNanos()).isZero();
+    }
+
+    @Test
+    void testUnitIsConvertedTogetherOnFirstRead() {
+        Tokens.Comment other = Mockito.mock(Tokens.Comment.class);
+        when(comment.getText()).thenReturn("*bold*");
+        when(other.getText()).thenReturn("_italic_");
+        when(converter.convertAll(List.of("*bold*", "_italic_"))).thenReturn(List.of("<strong>bold</strong>", "<em>italic</em>"));
+
+        List<Tokens.Comment> unit = AsciidocComment.unit(converter, List.of(comment, other));
+        verify(converter, never()).convertAll(Mockito.anyList());
+
+        assertThat(unit.get(1).getText()).isEqualTo("<em>italic</em>");
+        assertThat(unit.get(0).getText()).isEqualTo("<strong>bold</strong>");
+        assertThat(((AsciidocComment) unit.get(1)).takeConversionNanos()).isPositive();
+        assertThat(((AsciidocComment) unit.get(0)).takeConversionNanos()).isZero();
+        verify(converter, times(1)).convertAll(Mockito.anyList());
+        verify(converter, never()).convert(Mockito.anyString());
+    }
+}
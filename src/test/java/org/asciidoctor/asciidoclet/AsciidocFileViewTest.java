@@ -0,0 +1,145 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.net.URI;
+import java.nio.charset.Charset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AsciidocFileViewTest {
+
+    private static AsciidoctorConverter converter;
+
+    @BeforeAll
+    static void setup() {
+        StubReporter reporter = new StubReporter();
+        converter = new AsciidoctorConverter(new DocletOptions(reporter), reporter);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        converter.close();
+    }
+
+    @Test
+    void testAsciidocFileIsRenderedInBody() throws IOException {
+        AsciidocFileView view = new AsciidocFileView(converter, file("overview.adoc", "= Overview\n\nSome *bold* text."));
+
+        String content = view.getCharContent(true).toString();
+
+        assertThat(content).startsWith("<body>").endsWith("</body>").contains("<strong>bold</strong>");
+        assertThat(view.getName()).isEqualTo("overview.html");
+    }
+
+    @Test
+    void testAsciidocFileIsRenderedOncePerRun() throws IOException {
+        JavaFileObject overview = file("cached.adoc", "Rendered once.");
+        long conversions = converter.stats().files().count();
+        long hits = converter.stats().fileCacheHits();
+
+        String first = new AsciidocFileView(converter, overview).getCharContent(true).toString();
+        String second = new AsciidocFileView(converter, overview).getCharContent(true).toString();
+
+        assertThat(second).isEqualTo(first);
+        assertThat(converter.stats().files().count()).isEqualTo(conversions + 1);
+        assertThat(converter.stats().fileCacheHits()).isEqualTo(hits + 1);
+    }
+
+    @Test
+    void testOtherFilesArePassedThrough() throws IOException {
+        AsciidocFileView view = new AsciidocFileView(converter, file("package.html", "<body>as is</body>"));
+
+        assertThat(view.getCharContent(true).toString()).isEqualTo("<body>as is</body>");
+    }
+
+    @Test
+    void testReaderAndInputStreamMatchCharContent() throws IOException {
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            source.append("Paragraph ").append(i).append(" with non-ASCII text: café — 日本.\n\n");
+        }
+        AsciidocFileView view = new AsciidocFileView(converter, file("large.adoc", source.toString()));
+        String expected = view.getCharContent(true).toString();
+
+        StringWriter read = new StringWriter();
+        try (Reader reader = view.openReader(true)) {
+            reader.transferTo(read);
+        }
+        byte[] bytes;
+        try (InputStream in = view.openInputStream()) {
+            bytes = in.readAllBytes();
+        }
+
+        assertThat(read.toString()).isEqualTo(expected);
+        assertThat(bytes).isEqualTo(expected.getBytes(Charset.defaultCharset()));
+    }
+
+    @Test
+    void testBodyView() {
+        AsciidocFileView.BodyView view = new AsciidocFileView.BodyView("<p>x</p>");
+
+        assertThat(view.length()).isEqualTo("<body><p>x</p></body>".length());
+        assertThat(view.charAt(6)).isEqualTo('<');
+        assertThat(view.charAt(view.length() - 1)).isEqualTo('>');
+        assertThat(view.subSequence(6, 14).toString()).isEqualTo("<p>x</p>");
+        assertThat(view.toString()).isEqualTo("<body><p>x</p></body>");
+    }
+
+    @Test
+    void testBodyViewSubSequences() {
+        String body = "<body><p>x</p></body>";
+        AsciidocFileView.BodyView view = new AsciidocFileView.BodyView("<p>x</p>");
+
+        for (int start = 0; start <= body.length(); start++) {
+            for (int end = start; end <= body.length(); end++) {
+                CharSequence sub = view.subSequence(start, end);
+                assertThat(sub).isInstanceOf(AsciidocFileView.BodyView.class);
+                assertThat(sub.toString()).isEqualTo(body.substring(start, end));
+                assertThat(sub.length()).isEqualTo(end - start);
+            }
+        }
+        CharSequence nested = view.subSequence(3, 18).subSequence(3, 11);
+        assertThat(nested.toString()).isEqualTo("<p>x</p>");
+        assertThat(nested.charAt(7)).isEqualTo('>');
+        assertThatThrownBy(() -> view.subSequence(3, 18).subSequence(0, 16)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    private static JavaFileObject file(String name, String content) {
+        return new SimpleJavaFileObject(URI.create("file:///" + name), JavaFileObject.Kind.OTHER) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return content;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+        };
+    }
+}
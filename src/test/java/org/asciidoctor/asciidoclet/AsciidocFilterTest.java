@@ -0,0 +1,99 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AsciidocFilterTest {
+
+    @Test
+    void testNoFilterProcessesEverything() {
+        AsciidocFilter filter = AsciidocFilter.create(List.of(), List.of());
+
+        assertThat(filter.isEverything()).isTrue();
+        assertThat(filter.matches("org.example.Foo")).isTrue();
+    }
+
+    @Test
+    void testInclude() {
+        AsciidocFilter filter = AsciidocFilter.create(List.of("org.example.**", "com.*.Bar"), List.of());
+
+        assertThat(filter.isEverything()).isFalse();
+        assertThat(filter.matches("org.example")).isTrue();
+        assertThat(filter.matches("org.example.Foo")).isTrue();
+        assertThat(filter.matches("org.example.sub.Foo")).isTrue();
+        assertThat(filter.matches("com.acme.Bar")).isTrue();
+        assertThat(filter.matches("org.other.Foo")).isFalse();
+        assertThat(filter.matches("com.acme.Baz")).isFalse();
+    }
+
+    @Test
+    void testExclude() {
+        AsciidocFilter filter = AsciidocFilter.create(List.of(), List.of("**.internal.**"));
+
+        assertThat(filter.matches("org.example.Foo")).isTrue();
+        assertThat(filter.matches("org.example.internal.Foo")).isFalse();
+    }
+
+    @Test
+    void testExcludeTakesPrecedenceOverInclude() {
+        AsciidocFilter filter = AsciidocFilter.create(List.of("org.example.**"), List.of("org.example.Legacy*"));
+
+        assertThat(filter.matches("org.example.Foo")).isTrue();
+        assertThat(filter.matches("org.example.LegacyFoo")).isFalse();
+        assertThat(filter.matches("org.other.Foo")).isFalse();
+    }
+
+    @Test
+    void testOptInTag() {
+        assertThat(AsciidocFilter.hasOptInTag("Body.\n@asciidoclet\n@author me")).isTrue();
+        assertThat(AsciidocFilter.hasOptInTag("@asciidoclet")).isTrue();
+        assertThat(AsciidocFilter.hasOptInTag("Mentions @asciidoclet inline.")).isFalse();
+        assertThat(AsciidocFilter.hasOptInTag("Body.\n@asciidocletfoo")).isFalse();
+        assertThat(AsciidocFilter.hasOptInTag("Body.")).isFalse();
+        assertThat(AsciidocFilter.hasOptInTag(null)).isFalse();
+    }
+
+    @Test
+    void testRegexMatchesLikeAntPathMatcher() {
+        AntPathMatcher matcher = new AntPathMatcher.Builder().withPathSeparator('.').build();
+        Random random = new Random(42);
+        String patternChars = "ab.*?";
+        String nameChars = "ab.";
+        for (int i = 0; i < 100_000; i++) {
+            String pattern = randomString(random, patternChars, 8);
+            String name = randomString(random, nameChars, 8);
+            AsciidocFilter filter = AsciidocFilter.create(List.of(pattern), List.of());
+
+            assertThat(filter.matches(name))
+                    .as("pattern '%s' (%s) on '%s'", pattern, AsciidocFilter.toRegex(pattern), name)
+                    .isEqualTo(matcher.isMatch(pattern, name));
+        }
+    }
+
+    private static String randomString(Random random, String chars, int maxLength) {
+        int length = random.nextInt(maxLength + 1);
+        StringBuilder string = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            string.append(chars.charAt(random.nextInt(chars.length())));
+        }
+        return string.toString();
+    }
+}
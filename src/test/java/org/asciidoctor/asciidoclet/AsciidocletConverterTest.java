@@ -0,0 +1,143 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+import org.asciidoctor.Asciidoctor;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AsciidocletConverterTest {
+
+    private static final String[] DOCUMENTS = {
+            "plain",
+            "[[anchor]]\n[.role1.role2]\n.Title\nline one\nline two",
+            "[role=\"a&b\",id=\"q<\"]\npara",
+            "text{sp}\n\n{sp}text",
+            "== Section A\n\ntext\n\n=== Sub <b>&amp;\n\nmore\n\n==== Deep\n\nx",
+            "[[custom]]\n[.role]\n== Custom id\n\npara\n\n* list para\n+\ncontinued para",
+            "== Empty\n\n=== Empty too",
+            ":sectnums:\n:sectanchors:\n:sectlinks:\n\n== Numbered\n\npara",
+            "= Doc Title\n\n== S1\n\nA",
+            "[discrete]\n== Discrete\n\npara",
+            ":doctype: book\n\n= Part\n\n== Chapter\n\npara",
+            "NOTE: admonition para",
+            "[abstract]\nabstract para",
+            "  literal para",
+            "A *bold* _emphasis_ `mono` paragraph with a https://asciidoc.org[link] and a footnote:[note].",
+            ":toc:\n\n== One\n\n=== Two\n\npara",
+            "[source,java]\n----\nclass Foo {}\n----\n\n.Table\n|===\n|a |b\n\n|c\n|d\n|===",
+    };
+
+    private static final String[] PIECES = {
+            "A paragraph with *bold* text.", "[.lead]\nA lead paragraph.", "[#id-x]\nA paragraph with an id.",
+            "== A section", "=== A subsection", "==== A deeper section", ".A title\nTitled paragraph.",
+            "* item one\n* item two\n+\nattached paragraph", ". first\n. second", "term:: definition\n+\nmore",
+            "[source,java]\n----\nint x = 1;\n----", "NOTE: a note", "****\nsidebar paragraph\n****",
+            "====\nexample paragraph\n====", "|===\n|a |b\n|===", "line +\nbreak", "'''",
+    };
+
+    private static Asciidoctor templates;
+    private static Asciidoctor converter;
+    private static ConversionOptions templateOptions;
+    private static ConversionOptions converterOptions;
+
+    @BeforeAll
+    static void setup() {
+        StubReporter reporter = new StubReporter();
+        templates = Asciidoctor.Factory.create();
+        templateOptions = ConversionOptions.create(templates, new DocletOptions(reporter), OutputTemplates.create(reporter), reporter);
+        converter = Asciidoctor.Factory.create();
+        AsciidocletConverter.register(converter);
+        converterOptions = ConversionOptions.create(converter, new DocletOptions(reporter), null, reporter);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        templates.shutdown();
+        converter.shutdown();
+    }
+
+    @Test
+    void testRegistered() {
+        assertThat(AsciidocletConverter.isRegistered(converter)).isTrue();
+        assertThat(AsciidocletConverter.isRegistered(templates)).isFalse();
+    }
+
+    @Test
+    void testParagraph() {
+        assertThat(converter.convert("[[anchor]]\n[.role]\n.Title\ntext", converterOptions.block()))
+                .isEqualTo("<p class=\"role\" id=\"anchor\">text</p>");
+    }
+
+    @Test
+    void testSection() {
+        assertThat(converter.convert("== Section\n\ntext\n\n=== Subsection\n\nmore", converterOptions.block()))
+                .isEqualTo("<h2 id=\"section\">Section</h2>\n<div class=\"sectionbody\">\n<p>text</p>\n"
+                        + "<h3 id=\"subsection\">Subsection</h3>\n<p>more</p>\n</div>");
+    }
+
+    @Test
+    void testMatchesTemplates() {
+        for (String document : DOCUMENTS) {
+            assertSameOutput(document);
+        }
+    }
+
+    @Test
+    void testMatchesTemplatesOnDocumentation() throws IOException {
+        List<Path> files;
+        try (Stream<Path> paths = Stream.concat(Stream.of(Path.of("README.adoc"), Path.of("src/main/java/overview.adoc")),
+                Files.list(Path.of("docs/modules/ROOT/pages")))) {
+            files = paths.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+        assertThat(files).isNotEmpty();
+        for (Path file : files) {
+            assertSameOutput(Files.readString(file));
+        }
+    }
+
+    @Test
+    void testMatchesTemplatesOnRandomDocuments() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100; i++) {
+            StringBuilder document = new StringBuilder();
+            int pieces = 1 + random.nextInt(8);
+            for (int p = 0; p < pieces; p++) {
+                document.append(PIECES[random.nextInt(PIECES.length)]).append("\n\n");
+            }
+            assertSameOutput(document.toString());
+        }
+    }
+
+    private static void assertSameOutput(String document) {
+        assertThat(converter.convert(document, converterOptions.block()))
+                .as(document)
+                .isEqualTo(templates.convert(document, templateOptions.block()));
+        assertThat(converter.convert(document, converterOptions.inline()))
+                .as(document)
+                .isEqualTo(templates.convert(document, templateOptions.inline()));
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AsciidocletEventsTest {
+
+    private final StubReporter reporter = new StubReporter();
+
+    @Test
+    void testConversionEventsNameTheElement(@TempDir Path tmpDir) throws IOException {
+        List<RecordedEvent> events;
+        try (AsciidoctorConverter converter = new AsciidoctorConverter(new DocletOptions(reporter), reporter);
+             Recording recording = new Recording()) {
+            recording.enable(AsciidocletEvents.CommentConversion.class).withoutThreshold();
+            recording.start();
+            AsciidocletEvents.withElement(() -> "org.example.Foo#bar()",
+                    () -> converter.convert("A *bold* body.\n@return the `value`"));
+            recording.stop();
+            events = events(recording, tmpDir, "org.asciidoctor.asciidoclet.CommentConversion");
+        }
+
+        assertThat(events).isNotEmpty();
+        assertThat(events).allSatisfy(event -> {
+            assertThat(event.getString("element")).isEqualTo("org.example.Foo#bar()");
+            assertThat(event.getInt("fragmentLength")).isPositive();
+            assertThat(event.getInt("fragments")).isPositive();
+        });
+        assertThat(events.stream().mapToInt(event -> event.getInt("fragments")).sum()).isEqualTo(2);
+    }
+
+    @Test
+    void testSetupEventsAreRecorded(@TempDir Path tmpDir) throws IOException {
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable(AsciidocletEvents.AttributeLoading.class).withoutThreshold();
+            recording.enable(AsciidocletEvents.TemplatePreparation.class).withoutThreshold();
+            recording.start();
+            try (AsciidoctorConverter converter = new AsciidoctorConverter(new DocletOptions(reporter), reporter)) {
+                // Asciidoctor is set up on the first conversion.
+                converter.convert("comment");
+            }
+            // Templates are only prepared when the native converter is not supported.
+            OutputTemplates.create(reporter);
+            recording.stop();
+            events = events(recording, tmpDir, "org.asciidoctor.asciidoclet.AttributeLoading",
+                    "org.asciidoctor.asciidoclet.TemplatePreparation");
+        }
+
+        assertThat(events.stream().map(event -> event.getEventType().getName()).collect(Collectors.toList()))
+                .containsExactlyInAnyOrder("org.asciidoctor.asciidoclet.AttributeLoading",
+                        "org.asciidoctor.asciidoclet.TemplatePreparation");
+    }
+
+    @Test
+    void testElementIsOnlyComputedWhenRecording() {
+        String result = AsciidocletEvents.withElement(() -> {
+            throw new AssertionError("element name computed");
+        }, AsciidocletEvents::currentElement);
+
+        assertThat(result).isEmpty();
+    }
+
+    private static List<RecordedEvent> events(Recording recording, Path tmpDir, String... names) throws IOException {
+        Path file = tmpDir.resolve("recording.jfr");
+        recording.dump(file);
+        List<String> types = List.of(names);
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(event -> types.contains(event.getEventType().getName()))
+                .collect(Collectors.toList());
+    }
+}
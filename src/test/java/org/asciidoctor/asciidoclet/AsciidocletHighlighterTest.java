@@ -0,0 +1,177 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+import org.asciidoctor.Asciidoctor;
+import org.asciidoctor.Attributes;
+import org.asciidoctor.Options;
+import org.asciidoctor.SafeMode;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AsciidocletHighlighterTest {
+
+    private static final Map<String, String[]> PIECES = Map.of(
+            "java", new String[]{"class", "Foo", "<T>", "extends", "implements", "String", "IOException", "int[]", "[]", ".",
+                    "0x1F", "017", "08", "1.5e3", ".5f", "12L", "\"str\"", "\"a\\\"b\\u0041\\q\"", "'c'", "'\\n'", "'\\\\'",
+                    "\"unterminated", "\\", "// line comment", "/* block\ncomment */", "/** doc", "@Override", "@", "import",
+                    "package", "org.example.Foo", ";", "{", "}", "(", ")", "this", "null", "true", "var", "goto", "#",
+                    "é", "naïve", " ", "\n", "\t", "<", ">>>=", "&&", "?", ":"},
+            "xml", new String[]{"<?xml version=\"1.0\"?>", "<!DOCTYPE note>", "<!-- comment -->", "<!-- open", "<a", "<ns:b",
+                    ">", "/>", "</a>", "</", " attr", "=", "\"value\"", "'v'", "\"&amp;\"", "\"a&b\"", "value", "&amp;",
+                    "&#42;", "&bogus", "<![CDATA[x<y]]>", "<![CDATA[open", "<?pi data?>", "text", "]>", "<", "&", " ", "\n",
+                    "\t", "\"", "'"},
+            "json", new String[]{"{", "}", "[", "]", ":", ",", "\"key\"", "\"key\":", "\"s\\n\\u00e9\\x\"", "\"open", "true",
+                    "false", "null", "0", "-1", "12.5", "1e10", "-0.5E-3", "01", "tru", "\\", " ", "\n", "\t", "é"},
+            "yaml", new String[]{"key", ":", ": ", "- ", "-", "value", "\"quoted\"", "'single'", "\"k\": ", "'k': ", "# comment",
+                    "---", "...", "%YAML 1.2", "|", ">-", "!!str", "!tag:foo", "&anchor", "*alias", "<<", "12:30:45",
+                    "2001-12-14 21:59:43.10 -05:00", ":sym", "[a, b]", "{a: 1}", " ", "  ", "\n", "\n  ", "\t", "a:b", "é"});
+
+    private static Asciidoctor asciidoctor;
+
+    @BeforeAll
+    static void setup() {
+        asciidoctor = Asciidoctor.Factory.create();
+        AsciidocletHighlighter.register(asciidoctor);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        asciidoctor.shutdown();
+    }
+
+    @ParameterizedTest
+    @MethodSource("documents")
+    void testMatchesCodeRay(String document) {
+        assertThat(convert(document, AsciidocletHighlighter.NAME)).isEqualTo(convert(document, "coderay"));
+    }
+
+    private static Stream<String> documents() {
+        return Stream.of(
+                "[source,java]\n----\n/** Doc */\n@Override\npublic static final int x = 0x1F + 12.5f; // c <1>\n" +
+                        "String s = \"a\\\"b\" + 'c';\nclass Foo<T> extends Bar implements Baz { void m() { return null; } }\n----\n<1> callout",
+                "[source,java]\n----\nimport java.util.List;\npackage org.example;\nthrow new IllegalStateException(this.super);\n" +
+                        "int[] a = {017, 08, .5, 1e3d, 10L};\n\tString t = \"tab\\there\";\n----",
+                "[source,java,linenums]\n----\nint a = 1;\nint b = 2;\n----",
+                "[source,java,linenums,start=9,highlight=10]\n----\nint a; // <1>\nint b;\n----\n<1> a",
+                ":asciidoclet-linenums-mode: inline\n:coderay-linenums-mode: inline\n\n[source,java,linenums]\n----\n" +
+                        "String s = \"multi\nline\";\n/* a\n * b */\nint c;\n----",
+                "[source,xml]\n----\n<?xml version=\"1.0\"?>\n<!-- c -->\n<a b=\"c\" d='e' f=g h>t &amp; <![CDATA[x]]></a>\n" +
+                        "<b x=\"1 & 2\" y=\"a\nb\"/>\n<ns:c:d/> 3 < 4\n----",
+                "[source,json]\n----\n{\"a\": [1, -2.5e3, true, null], \"b\": \"s\\n\", \"c\" : {}}\n----",
+                "[source,yaml]\n----\n# c\nkey: value\nlist:\n  - 1\n  - \"s\"\nother: 'q'\n---\nb: true\n" +
+                        "text: |\n  first\n  second\nfolded: >-\n  one\n  two\nanchor: &a\n  x: 1\nref: *a\n<<: *a\n" +
+                        "\"quoted key\": !!str 12:30:45\n----",
+                "[source,yml]\n----\na: b # comment\n----",
+                "[source]\n----\nno language & <b>\n----",
+                "[source%nowrap,java]\n----\nint nowrap;\n----",
+                ":prewrap!:\n\n[source,java]\n----\nint x;\n----",
+                "[source,java]\n----\n----",
+                "[source,java,subs=\"+attributes\"]\n----\nString v = \"{asciidoctor-version}\";\n----",
+                "[source,java]\n----\nint a = 1; // <1>\nint b = 2; // <2>\n----\n<1> one\n<2> two"
+        );
+    }
+
+    @Test
+    void testMatchesCodeRayOnRandomSources() {
+        Random random = new Random(42);
+        for (Map.Entry<String, String[]> language : PIECES.entrySet()) {
+            String[] pieces = language.getValue();
+            for (int i = 0; i < 100; i++) {
+                StringBuilder source = new StringBuilder();
+                int length = 1 + random.nextInt(30);
+                for (int j = 0; j < length; j++) {
+                    source.append(pieces[random.nextInt(pieces.length)]);
+                }
+                String document = "[source," + language.getKey() + "]\n----\n" + source.toString().strip() + "\n----";
+                assertThat(convert(document, AsciidocletHighlighter.NAME))
+                        .describedAs(document)
+                        .isEqualTo(convert(document, "coderay"));
+            }
+        }
+    }
+
+    @Test
+    void testShell() {
+        String html = convert("[source,bash]\n----\n#!/bin/sh\n# comment\nexport A=1\n" +
+                "if [ -f \"$HOME/${X}\" ]; then echo 'lit' `date` | grep a 2>&1; fi\nfor f in *.txt; do cat $f; done\n----",
+                AsciidocletHighlighter.NAME);
+
+        assertThat(html).contains(
+                "<pre class=\"CodeRay highlight\"><code data-lang=\"bash\">",
+                "<span class=\"doctype\">#!/bin/sh</span>",
+                "<span class=\"comment\"># comment</span>",
+                "<span class=\"predefined\">export</span> <span class=\"variable\">A</span>=1",
+                "<span class=\"keyword\">if</span> <span class=\"predefined\">[</span> -f ",
+                "<span class=\"string\"><span class=\"delimiter\">&quot;</span><span class=\"variable\">$HOME</span>" +
+                        "<span class=\"content\">/</span><span class=\"variable\">${X}</span><span class=\"delimiter\">&quot;</span></span>",
+                "<span class=\"keyword\">then</span> <span class=\"predefined\">echo</span> " +
+                        "<span class=\"string\"><span class=\"delimiter\">'</span><span class=\"content\">lit</span><span class=\"delimiter\">'</span></span>",
+                "<span class=\"shell\">`date`</span> | grep a <span class=\"integer\">2</span>&gt;&amp;<span class=\"integer\">1</span>; <span class=\"keyword\">fi</span>",
+                "<span class=\"keyword\">for</span> f <span class=\"keyword\">in</span> *.txt; <span class=\"keyword\">do</span> cat <span class=\"variable\">$f</span>;");
+    }
+
+    @Test
+    void testOtherLanguagesAreEscaped() {
+        assertThat(convert("[source,ruby]\n----\nputs \"escaped\" <b>\n----", AsciidocletHighlighter.NAME))
+                .contains("<pre class=\"CodeRay highlight\"><code data-lang=\"ruby\">puts &quot;escaped&quot; &lt;b&gt;</code></pre>");
+    }
+
+    @Test
+    void testLanguagesAreCaseInsensitive() {
+        assertThat(convert("[source,JSON]\n----\ntrue\n----", AsciidocletHighlighter.NAME))
+                .contains("<code data-lang=\"JSON\"><span class=\"value\">true</span></code>");
+    }
+
+    @Test
+    void testHighlightedBlocksAreMemoized() {
+        ConversionCache cache = AsciidocletHighlighter.cache();
+        String block = "[source,java]\n----\nint memoized = " + System.nanoTime() + ";\n----";
+        long hits = cache.hits();
+        long misses = cache.misses();
+
+        String first = convert("First comment.\n\n" + block, AsciidocletHighlighter.NAME);
+        String second = convert("Second comment.\n\n" + block, AsciidocletHighlighter.NAME);
+
+        assertThat(cache.misses() - misses).isEqualTo(1);
+        assertThat(cache.hits() - hits).isEqualTo(1);
+        assertThat(second.substring(second.indexOf("<pre"))).isEqualTo(first.substring(first.indexOf("<pre")));
+
+        String numbered = convert(block.replace("[source,java]", "[source,java,linenums]"), AsciidocletHighlighter.NAME);
+
+        assertThat(cache.misses() - misses).isEqualTo(2);
+        assertThat(numbered).contains("<td class=\"line-numbers\">");
+    }
+
+    private static String convert(String document, String highlighter) {
+        return asciidoctor.convert(document, Options.builder()
+                .safe(SafeMode.SAFE)
+                .attributes(Attributes.builder()
+                        .attribute("source-highlighter", highlighter)
+                        .attribute("coderay-css", "class")
+                        .build())
+                .build());
+    }
+}
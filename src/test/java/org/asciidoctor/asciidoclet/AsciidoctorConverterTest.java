@@ -17,6 +17,16 @@ package org.asciidoctor.asciidoclet;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 
 import static org.asciidoctor.asciidoclet.AsciidoctorConverter.MARKER;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -49,6 +59,12 @@ class AsciidoctorConverterTest {
         assertThat(actual).matches(MARKER + "<p>input</p>" + LINEBREAK + "@tagName tagText" + LINEBREAK);
     }
 
+    @Test
+    void testOptInTagIsDropped() {
+        String actual = converter.convert("input\n@asciidoclet\n@tagName tagText");
+        assertThat(actual).matches(MARKER + "<p>input</p>" + LINEBREAK + "@tagName tagText" + LINEBREAK);
+    }
+
     @Test
     void testCleanInput() {
         assertThat(AsciidoctorConverter.cleanJavadocInput("  test1\n test2\n")).isEqualTo("test1\ntest2");
@@ -57,6 +73,32 @@ class AsciidoctorConverterTest {
         assertThat(AsciidoctorConverter.cleanJavadocInput("{slash}")).isEqualTo("/");
     }
 
+    @Test
+    void testCleanInputMatchesRegexImplementation() {
+        String[] pieces = {"a", "b", " ", "  ", "\t", "\n", "\n ", "\n  ", "\r", "\r\n", "\u0085", "\u2028", "\u2029", "\u0000",
+                "{", "}", "at", "slash", "{at}", "{slash}", "{at", "{a", "t}", "{sl", "ash}", "{{at}", "*", "\\", "/", "*\\/",
+                "*\\", "*\\{slash}", "@", "&"};
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            StringBuilder input = new StringBuilder();
+            int length = random.nextInt(14);
+            for (int j = 0; j < length; j++) {
+                input.append(pieces[random.nextInt(pieces.length)]);
+            }
+            String text = input.toString();
+            assertThat(AsciidoctorConverter.cleanJavadocInput(text))
+                    .as("cleaning %s", text.replace("\n", "\\n").replace("\r", "\\r"))
+                    .isEqualTo(RegexJavadocInputCleaner.clean(text));
+        }
+    }
+
+    @Test
+    void testCleanInputMatchesTokensAfterStrippingContinuations() {
+        for (String text : new String[]{"{a\n t}", "{\n at}", "{at\n }", "{sl\n ash}", "*\\{sl\n ash}", "x\n {at}\n {slash}"}) {
+            assertThat(AsciidoctorConverter.cleanJavadocInput(text)).isEqualTo(RegexJavadocInputCleaner.clean(text));
+        }
+    }
+
     @Test
     void testComment() {
         assertThat(converter.convert("comment\n"))
@@ -86,4 +128,206 @@ class AsciidoctorConverterTest {
         assertThat(converter.convert(sourceText))
                 .matches(MARKER + "<p>comment</p>" + LINEBREAK + "@param <T>" + LINEBREAK + "@param <X> description" + LINEBREAK);
     }
+
+    @Test
+    void testAttributesFileIsReadOnce(@TempDir Path tmpDir) throws IOException {
+        Path attrsFile = tmpDir.resolve("attrs.adoc");
+        Files.write(attrsFile, ":foo: BAR\n".getBytes(StandardCharsets.UTF_8));
+        DocletOptions options = Mockito.spy(new DocletOptions(reporter));
+        options.collect(AsciidocletOptions.ATTRIBUTES_FILE, List.of(attrsFile.toAbsolutePath().toString()));
+
+        AsciidoctorConverter converter = new AsciidoctorConverter(options, reporter);
+        assertThat(converter.convert("first {foo}\n@param p the {foo}\n@return {foo}"))
+                .matches(MARKER + "<p>first BAR</p>" + LINEBREAK + "@param p the BAR" + LINEBREAK + "@return BAR" + LINEBREAK);
+        assertThat(converter.convert("second {foo}"))
+                .matches(MARKER + "<p>second BAR</p>" + LINEBREAK);
+
+        Mockito.verify(options, Mockito.times(1)).attributesFile();
+    }
+
+    @Test
+    void testIdenticalFragmentsAreConvertedOnce() {
+        converter.convert("*first*\n@return the `builder`");
+        converter.convert("*second*\n@return the `builder`");
+        converter.convert("*first*\n@return the `builder`");
+
+        ConversionCache cache = converter.cache();
+        assertThat(cache.size()).isEqualTo(3);
+        assertThat(cache.misses()).isEqualTo(3);
+        assertThat(cache.hits()).isEqualTo(3);
+    }
+
+    @Test
+    void testFragmentsAreServedFromCacheDir(@TempDir Path tmpDir) {
+        DocletOptions options = new DocletOptions(reporter);
+        options.collect(AsciidocletOptions.CACHE_DIR, List.of(tmpDir.toAbsolutePath().toString()));
+
+        String expected;
+        try (AsciidoctorConverter first = new AsciidoctorConverter(options, reporter)) {
+            expected = first.convert("*comment*\n@return the *builder*");
+            assertThat(first.diskCache().misses()).isEqualTo(2);
+        }
+        try (AsciidoctorConverter second = new AsciidoctorConverter(options, reporter)) {
+            assertThat(second.convert("*comment*\n@return the *builder*")).isEqualTo(expected);
+            assertThat(second.diskCache().hits()).isEqualTo(2);
+        }
+        reporter.assertNoMoreInteractions();
+    }
+
+    @Test
+    void testPlainTextIsRenderedWithoutAsciidoctor() {
+        String actual = converter.convert("Returns the size of the list.\n\nIt's never negative.\n" +
+                "@param index the index, from 0 & up\n" +
+                "@return the size");
+
+        assertThat(actual).matches(MARKER + "<p>Returns the size of the list.</p>\n<p>It&#8217;s never negative.</p>" + LINEBREAK +
+                "@param index the index, from 0 &amp; up" + LINEBREAK +
+                "@return the size" + LINEBREAK);
+        assertThat(converter.asciidoctorCalls()).isZero();
+        assertThat(converter.plainTextFragments()).isEqualTo(3);
+    }
+
+    @Test
+    void testTagsAreConvertedInOneCall() {
+        String comment = "comment\n" +
+                "@param a the *first*\n" +
+                "@param b the _second_\n" +
+                "@param c the `third`\n" +
+                "@param d the fourth (C)\n" +
+                "@param e the fifth...\n" +
+                "@param f the sixth\n" +
+                "@throws IllegalStateException when it's not ready";
+        try (AsciidoctorConverter batched = batchedConverter()) {
+            String actual = batched.convert(comment);
+
+            assertThat(actual).isEqualTo(converter.convert(comment));
+            assertThat(batched.asciidoctorCalls()).isEqualTo(1);
+        }
+        assertThat(converter.convert(comment)).matches(MARKER + "<p>comment</p>" + LINEBREAK +
+                "@param a the <strong>first</strong>" + LINEBREAK +
+                "@param b the <em>second</em>" + LINEBREAK +
+                "@param c the <code>third</code>" + LINEBREAK +
+                "@param d the fourth &#169;" + LINEBREAK +
+                "@param e the fifth&#8230;&#8203;" + LINEBREAK +
+                "@param f the sixth" + LINEBREAK +
+                "@throws IllegalStateException when it&#8217;s not ready" + LINEBREAK);
+    }
+
+    @Test
+    void testBatchedTagsMatchIndividualConversions() {
+        List<String> tags = List.of(
+                "@param p the *builder* of `Foo`",
+                "@param <T> the type, see <<Foo>>",
+                "@return a link:https://example.com[link] or https://example.com",
+                "@throws IOException if +passthrough+ fails",
+                "@param p NOTE: admonition",
+                "@param p * a\n* list",
+                "@param p . ordered",
+                "@param p first\n\nsecond paragraph",
+                "@param p line +\nbreak",
+                "@param p ----\nlisting\n----",
+                "@param p '''",
+                "@param p text\n// comment",
+                "@param p {set:foo:bar} {foo}",
+                "@param p [[anchor]]anchored",
+                "@param p footnote:[note]",
+                "@param p term:: definition",
+                "@param p <b>html</b> & 'quotes' \"double\"",
+                "@param p 1. starts like a list",
+                "@param p image:icon.png[]",
+                "@param p kbd:[Ctrl] {empty}",
+                "@see Foo#bar()",
+                "@since 1.0");
+
+        try (AsciidoctorConverter batched = batchedConverter()) {
+            String comment = "comment\n" + String.join("\n", tags);
+            assertThat(batched.convert(comment)).isEqualTo(converter.convert(comment));
+            for (String tag : tags) {
+                assertThat(batched.convert("single\n" + tag + "\n@since 2.0"))
+                        .isEqualTo(converter.convert("single\n" + tag + "\n@since 2.0"));
+            }
+        }
+    }
+
+    @Test
+    void testCommentsAreConvertedTogether() {
+        List<String> docs = List.of(
+                "First *class*.\n\nSecond paragraph.\n@param <T> the type",
+                "A method.\n\n* one\n* two\n@param a the *first*\n@return the result",
+                "A field.",
+                "[source,java]\n----\nint i = 0;\n----\n@since 1.0");
+
+        try (AsciidoctorConverter batched = batchedConverter()) {
+            List<String> actual = batched.convertAll(docs);
+            for (int i = 0; i < docs.size(); i++) {
+                assertThat(actual.get(i)).isEqualTo(converter.convert(docs.get(i)));
+            }
+            assertThat(batched.asciidoctorCalls()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void testBatchedBodiesMatchIndividualConversions() {
+        List<String> bodies = List.of(
+                "= Title\n\nbody",
+                ":foo: bar\n\n{foo}",
+                ".Title\n====\nexample\n====",
+                "text\n\n'''\n\nafter the break",
+                "* unterminated\n+\n----\nlisting",
+                "[NOTE]\n====\nadmonition\n====",
+                "----\nlisting <1>\n----\n<1> callout",
+                "== Section\n\ntext",
+                "|===\n|a |b\n|===",
+                "Line with footnote:[a note].",
+                "<b>html</b> & 'quotes' \"double\"",
+                "// only a comment",
+                "[source,java,id=example]\n----\nint i;\n----",
+                "[quote,reftext=Quoted]\n____\nquoted\n____",
+                "a\n+\nb");
+
+        List<String> docs = new ArrayList<>();
+        for (String body : bodies) {
+            docs.add(body + "\n@return value");
+            docs.add("plain\n\n" + body);
+        }
+        try (AsciidoctorConverter batched = batchedConverter()) {
+            List<String> actual = batched.convertAll(docs);
+            for (int i = 0; i < docs.size(); i++) {
+                assertThat(actual.get(i)).isEqualTo(converter.convert(docs.get(i)));
+            }
+        }
+    }
+
+    private AsciidoctorConverter batchedConverter() {
+        DocletOptions options = new DocletOptions(reporter);
+        options.collect(AsciidocletOptions.BATCH, List.of("comment,fragments"));
+        return new AsciidoctorConverter(options, reporter);
+    }
+
+    @Test
+    void testFragmentsWithIdsAreNotBatched() {
+        assertThat(AsciidoctorConverter.isBatchable("[source,java]\n----\nint i;\n----", false)).isTrue();
+        assertThat(AsciidoctorConverter.isBatchable("[source,java,id=example]\n----\nint i;\n----", false)).isFalse();
+        assertThat(AsciidoctorConverter.isBatchable("[quote, reftext=Quoted]\n____\nquoted\n____", false)).isFalse();
+        assertThat(AsciidoctorConverter.isBatchable("see link:a.html[text, id=a]", true)).isFalse();
+    }
+
+    @Test
+    void testPrerenderedCommentsAreServedFromCache() {
+        List<String> docs = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            docs.add("Comment *" + i + "*.\n@param p the `" + i + "` parameter\n@return " + i);
+        }
+
+        converter.prerender(docs, 2);
+        long prerenderCalls = converter.asciidoctorCalls();
+        List<String> actual = converter.convertAll(docs);
+
+        assertThat(prerenderCalls).isPositive();
+        assertThat(converter.asciidoctorCalls()).isEqualTo(prerenderCalls);
+        try (AsciidoctorConverter serial = new AsciidoctorConverter(new DocletOptions(reporter), reporter)) {
+            assertThat(actual).isEqualTo(serial.convertAll(docs));
+        }
+        reporter.assertNoMoreInteractions();
+    }
 }
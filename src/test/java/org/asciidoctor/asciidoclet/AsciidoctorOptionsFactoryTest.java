@@ -47,25 +47,26 @@ class AsciidoctorOptionsFactoryTest {
 
         Options options = optionsFactory.create(docletOptions, null);
 
-        Map<String, Object> optionsMap = options.map();
+        Map<String, Object> optionsMap = optionsMap(options);
         assertContainsDefaultOptions(optionsMap, 3);
 
-        Map<String, Object> attributes = (Map<String, Object>) optionsMap.get("attributes");
+        Map<String, Object> attributes = attributesOf(options);
         assertContainsDefaultAttributes(attributes, 11);
     }
 
     @Test
     void withCustomAttributes() {
         DocletOptions docletOptions = Mockito.mock(DocletOptions.class);
+        Mockito.when(docletOptions.highlighter()).thenReturn(AsciidocletHighlighter.NAME);
         Mockito.when(docletOptions.attributes()).thenReturn(List.of("my-attribute=my-value", "another=42"));
 
         Options options = optionsFactory.create(docletOptions, null);
 
-        Map<String, Object> optionsMap = options.map();
+        Map<String, Object> optionsMap = optionsMap(options);
         assertContainsDefaultOptions(optionsMap, 3);
         assertThat(optionsMap).hasSize(3);
 
-        Map<String, Object> attributes = (Map<String, Object>) optionsMap.get("attributes");
+        Map<String, Object> attributes = attributesOf(options);
         assertContainsDefaultAttributes(attributes, 13);
         assertThat(attributes)
                 .containsEntry("my-attribute", "my-value")
@@ -75,17 +76,18 @@ class AsciidoctorOptionsFactoryTest {
     @Test
     void withCustomBaseDir() {
         DocletOptions docletOptions = Mockito.mock(DocletOptions.class);
+        Mockito.when(docletOptions.highlighter()).thenReturn(AsciidocletHighlighter.NAME);
         File baseDir = new File("some/path");
         Mockito.when(docletOptions.baseDir()).thenReturn(Optional.of(baseDir));
 
         Options options = optionsFactory.create(docletOptions, null);
 
-        Map<String, Object> optionsMap = options.map();
+        Map<String, Object> optionsMap = optionsMap(options);
         assertContainsDefaultOptions(optionsMap, 4);
         assertThat(optionsMap)
                 .containsEntry("base_dir", baseDir.getAbsolutePath());
 
-        Map<String, Object> attributes = (Map<String, Object>) optionsMap.get("attributes");
+        Map<String, Object> attributes = attributesOf(options);
         assertContainsDefaultAttributes(attributes, 11);
     }
 
@@ -97,28 +99,39 @@ class AsciidoctorOptionsFactoryTest {
 
         Options options = optionsFactory.create(docletOptions, outputTemplates);
 
-        Map<String, Object> optionsMap = options.map();
+        Map<String, Object> optionsMap = optionsMap(options);
         assertContainsDefaultOptions(optionsMap, 4);
         assertThat(optionsMap)
                 .containsEntry("template_dirs", List.of(outputTemplates.templateDir().toString()));
 
-        Map<String, Object> attributes = (Map<String, Object>) optionsMap.get("attributes");
+        Map<String, Object> attributes = attributesOf(options);
         assertContainsDefaultAttributes(attributes, 11);
     }
 
+    @Test
+    void withHighlighter() {
+        DocletOptions docletOptions = new DocletOptions(reporter);
+        docletOptions.collect(AsciidocletOptions.HIGHLIGHTER, List.of("coderay"));
+
+        Options options = optionsFactory.create(docletOptions, null);
+
+        assertContainsDefaultAttributes(attributesOf(options), 11, "coderay");
+    }
+
     @Test
     void withRequires() {
         DocletOptions mock = Mockito.mock(DocletOptions.class);
+        Mockito.when(mock.highlighter()).thenReturn(AsciidocletHighlighter.NAME);
         // Use gems available in the classpath to avoid errors
         Mockito.when(mock.requires()).thenReturn(List.of("asciidoctor", "coderay"));
 
         Options options = optionsFactory.create(mock, null);
 
-        Map<String, Object> optionsMap = options.map();
+        Map<String, Object> optionsMap = optionsMap(options);
         assertContainsDefaultOptions(optionsMap, 3);
         assertThat(optionsMap).hasSize(3);
 
-        Map<String, Object> attributes = (Map<String, Object>) optionsMap.get("attributes");
+        Map<String, Object> attributes = attributesOf(options);
         assertContainsDefaultAttributes(attributes, 11);
     }
 
@@ -131,6 +144,10 @@ class AsciidoctorOptionsFactoryTest {
     }
 
     private static void assertContainsDefaultAttributes(Map<String, Object> attributes, int size) {
+        assertContainsDefaultAttributes(attributes, size, AsciidocletHighlighter.NAME);
+    }
+
+    private static void assertContainsDefaultAttributes(Map<String, Object> attributes, int size, String highlighter) {
         assertThat(attributes)
                 .containsEntry("at", "&#64;")
                 .containsEntry("slash", "/")
@@ -139,11 +156,21 @@ class AsciidoctorOptionsFactoryTest {
                 .containsEntry("idseparator", "-")
                 .containsEntry("javadoc", "")
                 .containsEntry("showtitle", true)
-                .containsEntry("source-highlighter", "coderay")
+                .containsEntry("source-highlighter", highlighter)
                 .containsEntry("coderay-css", "class")
                 .containsEntry("env-asciidoclet", "")
                 .containsEntry("env", "asciidoclet");
         assertThat(attributes).hasSize(size);
     }
 
+    // Options has no accessor other than the deprecated map().
+    @SuppressWarnings("deprecation")
+    private static Map<String, Object> optionsMap(Options options) {
+        return options.map();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> attributesOf(Options options) {
+        return (Map<String, Object>) optionsMap(options).get("attributes");
+    }
 }
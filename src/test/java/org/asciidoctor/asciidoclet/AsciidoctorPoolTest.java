@@ -0,0 +1,99 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+import org.asciidoctor.Asciidoctor;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AsciidoctorPoolTest {
+
+    private final List<Asciidoctor> instances = new ArrayList<>();
+
+    private Asciidoctor newInstance() {
+        Asciidoctor asciidoctor = Mockito.mock(Asciidoctor.class);
+        instances.add(asciidoctor);
+        return asciidoctor;
+    }
+
+    @Test
+    void testInstancesAreCreatedLazily() {
+        AsciidoctorPool pool = new AsciidoctorPool(4, this::newInstance);
+        assertThat(pool.created()).isZero();
+
+        Asciidoctor first = pool.checkout();
+        Asciidoctor second = pool.checkout();
+
+        assertThat(first).isNotSameAs(second);
+        assertThat(pool.created()).isEqualTo(2);
+    }
+
+    @Test
+    void testReleasedInstancesAreReused() {
+        AsciidoctorPool pool = new AsciidoctorPool(4, this::newInstance);
+
+        Asciidoctor first = pool.checkout();
+        pool.release(first);
+
+        assertThat(pool.checkout()).isSameAs(first);
+        assertThat(pool.created()).isEqualTo(1);
+    }
+
+    @Test
+    void testCheckoutWaitsForAnInstanceWhenAllAreInUse() throws InterruptedException {
+        AsciidoctorPool pool = new AsciidoctorPool(1, this::newInstance);
+        Asciidoctor first = pool.checkout();
+        CountDownLatch checkedOut = new CountDownLatch(1);
+
+        Thread thread = new Thread(() -> {
+            pool.checkout();
+            checkedOut.countDown();
+        });
+        thread.start();
+        assertThat(checkedOut.await(100, TimeUnit.MILLISECONDS)).isFalse();
+
+        pool.release(first);
+        assertThat(checkedOut.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(pool.created()).isEqualTo(1);
+    }
+
+    @Test
+    void testCloseShutsDownAllInstances() {
+        AsciidoctorPool pool = new AsciidoctorPool(2, this::newInstance);
+        pool.release(pool.checkout());
+        pool.checkout();
+        pool.checkout();
+
+        pool.close();
+
+        assertThat(instances).hasSize(2);
+        instances.forEach(asciidoctor -> Mockito.verify(asciidoctor).shutdown());
+    }
+
+    @Test
+    void testSizeMustBePositive() {
+        assertThatThrownBy(() -> new AsciidoctorPool(0, this::newInstance))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
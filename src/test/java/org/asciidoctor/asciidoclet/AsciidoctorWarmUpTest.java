@@ -0,0 +1,73 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+import org.asciidoctor.Asciidoctor;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.asciidoctor.asciidoclet.AsciidoctorConverter.MARKER;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AsciidoctorWarmUpTest {
+
+    private final StubReporter reporter = new StubReporter();
+
+    @Test
+    void testInstanceIsTakenOnce() {
+        AsciidoctorWarmUp warmUp = AsciidoctorWarmUp.start();
+        DocletOptions options = new DocletOptions(reporter);
+
+        Asciidoctor asciidoctor = warmUp.take(options);
+
+        assertThat(asciidoctor).isNotNull();
+        assertThat(warmUp.take(options)).isNull();
+        asciidoctor.shutdown();
+    }
+
+    @Test
+    void testInstanceIsDiscardedWithGemPath() {
+        AsciidoctorWarmUp warmUp = AsciidoctorWarmUp.start();
+        DocletOptions options = new DocletOptions(reporter);
+        options.collect(AsciidocletOptions.GEM_PATH, List.of("gems"));
+
+        assertThat(warmUp.take(options)).isNull();
+    }
+
+    @Test
+    void testNotStartedWhenUnused() {
+        DocletOptions withGemPath = new DocletOptions(reporter);
+        withGemPath.collect(AsciidocletOptions.GEM_PATH, List.of("gems"));
+        DocletOptions withDaemon = new DocletOptions(reporter);
+        withDaemon.collect(AsciidocletOptions.DAEMON, List.of("60"));
+
+        assertThat(AsciidoctorWarmUp.start(withGemPath)).isNull();
+        assertThat(AsciidoctorWarmUp.start(withDaemon)).isNull();
+    }
+
+    @Test
+    void testConverterUsesWarmInstance() {
+        AsciidoctorWarmUp warmUp = AsciidoctorWarmUp.start();
+        DocletOptions options = new DocletOptions(reporter);
+
+        try (AsciidoctorConverter converter = new AsciidoctorConverter(options, reporter, warmUp)) {
+            assertThat(converter.convert("comment")).startsWith(MARKER + "<p>comment</p>");
+            assertThat(converter.pool().created()).isEqualTo(1);
+        }
+        assertThat(warmUp.take(options)).isNull();
+    }
+}
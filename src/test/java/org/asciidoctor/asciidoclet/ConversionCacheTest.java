@@ -0,0 +1,90 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConversionCacheTest {
+
+    @Test
+    void keyDependsOnInputModeAndAttributes() {
+        ConversionCache cache = new ConversionCache(10, 1024, "attrs");
+
+        assertThat(cache.key("text", true)).isEqualTo(cache.key("text", true));
+        assertThat(cache.key("text", true)).isNotEqualTo(cache.key("text", false));
+        assertThat(cache.key("text", true)).isNotEqualTo(cache.key("other", true));
+        assertThat(cache.key("text", true)).isNotEqualTo(new ConversionCache(10, 1024, "other").key("text", true));
+    }
+
+    @Test
+    void countsHitsAndMisses() {
+        ConversionCache cache = new ConversionCache(10, 1024, "");
+
+        assertThat(cache.get("a")).isNull();
+        cache.put("a", "<p>a</p>");
+        assertThat(cache.get("a")).isEqualTo("<p>a</p>");
+        assertThat(cache.get("a")).isEqualTo("<p>a</p>");
+
+        assertThat(cache.hits()).isEqualTo(2);
+        assertThat(cache.misses()).isEqualTo(1);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntryWhenFull() {
+        ConversionCache cache = new ConversionCache(2, 1024, "");
+        cache.put("a", "A");
+        cache.put("b", "B");
+        cache.get("a");
+        cache.put("c", "C");
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("a")).isEqualTo("A");
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("c")).isEqualTo("C");
+        assertThat(cache.evictions()).isEqualTo(1);
+    }
+
+    @Test
+    void evictsWhenByteLimitIsExceeded() {
+        ConversionCache cache = new ConversionCache(100, 20, "");
+        cache.put("a", "1234");
+        cache.put("b", "1234");
+        cache.put("c", "1234");
+
+        assertThat(cache.bytes()).isLessThanOrEqualTo(20);
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.get("c")).isEqualTo("1234");
+    }
+
+    @Test
+    void ignoresEntriesLargerThanTheByteLimit() {
+        ConversionCache cache = new ConversionCache(100, 8, "");
+        cache.put("a", "too large to fit");
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void zeroLimitDisablesCache() {
+        ConversionCache cache = new ConversionCache(0, 1024, "");
+        cache.put("a", "A");
+
+        assertThat(cache.isEnabled()).isFalse();
+        assertThat(cache.get("a")).isNull();
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.tools.Diagnostic;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConversionStatsTest {
+
+    private static StubReporter reporter;
+    private static AsciidoctorConverter converter;
+
+    @BeforeAll
+    static void setup() {
+        reporter = new StubReporter();
+        converter = new AsciidoctorConverter(new DocletOptions(reporter), reporter);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        converter.close();
+    }
+
+    @Test
+    void testTimerHistogram() {
+        ConversionStats.Timer timer = new ConversionStats.Timer();
+        for (int i = 0; i < 98; i++) {
+            timer.record(500);
+        }
+        timer.record(3_000_000);
+        timer.record(5_000_000);
+
+        assertThat(timer.count()).isEqualTo(100);
+        assertThat(timer.totalNanos()).isEqualTo(98 * 500 + 8_000_000);
+        assertThat(timer.percentileMicros(50)).isEqualTo(1);
+        assertThat(timer.percentileMicros(99)).isEqualTo(4096);
+        assertThat(timer.percentileMicros(100)).isEqualTo(8192);
+    }
+
+    @Test
+    void testConversionsAreCounted() {
+        ConversionStats stats = converter.stats();
+        long asciidoctorCalls = stats.asciidoctor().count();
+
+        converter.convert("A *bold* body.\n@param p the `p`\n@return the value");
+        converter.convert("A *bold* body.");
+
+        assertThat(stats.asciidoctor().count()).isGreaterThan(asciidoctorCalls);
+        assertThat(stats.conversion().count()).isGreaterThanOrEqualTo(2);
+        assertThat(stats.attributes().count()).isEqualTo(1);
+        assertThat(stats.summary())
+                .contains("fragments: 1 block, 1 inline, 1 plain text")
+                .contains("cache hits: 1 in memory, 0 on disk")
+                .contains("highlighted blocks: 0 from cache, 0 highlighted")
+                .contains("comment tables: 0 processed, 0 repeated requests");
+        assertThat(stats.toJson())
+                .contains("\"fragments\": {\"block\": 1, \"inline\": 1, \"plainText\": 1}")
+                .contains("\"highlightCache\": {\"hits\": 0, \"misses\": 0")
+                .contains("\"histogram\": [");
+    }
+
+    @Test
+    void testNothingIsReportedByDefault() {
+        StubReporter reporter = new StubReporter();
+
+        new ConversionStats().report(ConversionStats.Report.NONE, reporter, null);
+
+        reporter.assertNoMoreInteractions();
+    }
+
+    @Test
+    void testSummaryIsReported() {
+        StubReporter reporter = new StubReporter();
+
+        new ConversionStats().report(ConversionStats.Report.SUMMARY, reporter, null);
+
+        List<Object> call = reporter.pullCall();
+        assertThat(call.get(0)).isEqualTo(Diagnostic.Kind.NOTE);
+        assertThat((String) call.get(1)).startsWith("Asciidoclet statistics:");
+        reporter.assertNoMoreInteractions();
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DiskCacheTest {
+
+    private final StubReporter reporter = new StubReporter();
+
+    private Path cacheDir;
+
+    @BeforeEach
+    void before(@TempDir Path tmpDir) {
+        this.cacheDir = tmpDir.resolve("cache");
+    }
+
+    @Test
+    void storesAndReadsEntries() {
+        DiskCache cache = new DiskCache(cacheDir, 1024 * 1024, "ns", reporter);
+
+        assertThat(cache.get("key")).isNull();
+        cache.put("key", "<p>text</p>");
+
+        assertThat(new DiskCache(cacheDir, 1024 * 1024, "ns", reporter).get("key")).isEqualTo("<p>text</p>");
+        assertThat(cache.misses()).isEqualTo(1);
+        reporter.assertNoMoreInteractions();
+    }
+
+    @Test
+    void compressesLargeEntries() throws IOException {
+        DiskCache cache = new DiskCache(cacheDir, 1024 * 1024, "ns", reporter);
+        String html = "<p>repeated</p>\n".repeat(1000);
+        cache.put("key", html);
+
+        assertThat(Files.size(cache.entryPath("key"))).isLessThan(html.length());
+        assertThat(cache.get("key")).isEqualTo(html);
+    }
+
+    @Test
+    void namespaceSeparatesEntries() {
+        new DiskCache(cacheDir, 1024 * 1024, "v1", reporter).put("key", "old");
+
+        assertThat(new DiskCache(cacheDir, 1024 * 1024, "v2", reporter).get("key")).isNull();
+    }
+
+    @Test
+    void discardsCorruptedEntries() throws IOException {
+        DiskCache cache = new DiskCache(cacheDir, 1024 * 1024, "ns", reporter);
+        cache.put("key", "<p>text</p>");
+        Path entry = cache.entryPath("key");
+        byte[] bytes = Files.readAllBytes(entry);
+        bytes[bytes.length - 10] ^= 0x1;
+        Files.write(entry, bytes);
+
+        assertThat(cache.get("key")).isNull();
+        assertThat(cache.corrupted()).isEqualTo(1);
+        assertThat(entry).doesNotExist();
+        reporter.assertNoMoreInteractions();
+    }
+
+    @Test
+    void discardsEntriesWithBadLength() throws IOException {
+        DiskCache cache = new DiskCache(cacheDir, 1024 * 1024, "ns", reporter);
+        cache.put("key", "<p>text</p>");
+        Path entry = cache.entryPath("key");
+        byte[] bytes = Files.readAllBytes(entry);
+        // Claims a content of 2 GB, which must not be allocated.
+        bytes[5] = 0x7f;
+        Files.write(entry, bytes);
+
+        assertThat(cache.get("key")).isNull();
+        assertThat(cache.corrupted()).isEqualTo(1);
+        assertThat(entry).doesNotExist();
+        reporter.assertNoMoreInteractions();
+    }
+
+    @Test
+    void prunesLeastRecentlyUsedEntries() throws IOException {
+        DiskCache cache = new DiskCache(cacheDir, 100, "ns", reporter);
+        for (String key : new String[]{"a", "b", "c"}) {
+            cache.put(key, "0123456789".repeat(4));
+        }
+        Files.setLastModifiedTime(cache.entryPath("a"), FileTime.fromMillis(3000));
+        Files.setLastModifiedTime(cache.entryPath("b"), FileTime.fromMillis(1000));
+        Files.setLastModifiedTime(cache.entryPath("c"), FileTime.fromMillis(2000));
+
+        cache.prune();
+
+        assertThat(cache.entryPath("a")).exists();
+        assertThat(cache.entryPath("b")).doesNotExist();
+        assertThat(cache.entryPath("c")).doesNotExist();
+        assertThat(cache.pruned()).isEqualTo(2);
+    }
+
+    @Test
+    void volatileFragmentsAreNotCacheable() {
+        assertThat(DiskCache.isCacheable("plain text")).isTrue();
+        assertThat(DiskCache.isCacheable("include::other.adoc[]")).isFalse();
+        assertThat(DiskCache.isCacheable("built on {localdate}")).isFalse();
+    }
+}
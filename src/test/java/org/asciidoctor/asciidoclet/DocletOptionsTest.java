@@ -22,6 +22,8 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import javax.tools.Diagnostic;
+import java.io.File;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
@@ -125,4 +127,136 @@ class DocletOptionsTest {
         options.validate();
         assertThat(options.requires()).containsExactlyInAnyOrder("a", "diagrams/awesome", "bar", "baz", "noddy");
     }
+
+    @Test
+    void testCacheLimits() {
+        DocletOptions options = new DocletOptions(reporter);
+        assertThat(options.cacheMaxEntries()).isEqualTo(ConversionCache.DEFAULT_MAX_ENTRIES);
+        assertThat(options.cacheMaxBytes()).isEqualTo(ConversionCache.DEFAULT_MAX_BYTES);
+
+        options.collect(AsciidocletOptions.CACHE_MAX_ENTRIES, List.of("42"));
+        options.collect(AsciidocletOptions.CACHE_MAX_BYTES, List.of("1024"));
+        assertThat(options.cacheMaxEntries()).isEqualTo(42);
+        assertThat(options.cacheMaxBytes()).isEqualTo(1024);
+    }
+
+    @Test
+    void testInvalidCacheLimitIsIgnored() {
+        StubReporter stubReporter = new StubReporter();
+        DocletOptions options = new DocletOptions(stubReporter);
+        options.collect(AsciidocletOptions.CACHE_MAX_ENTRIES, List.of("lots"));
+
+        assertThat(options.cacheMaxEntries()).isEqualTo(ConversionCache.DEFAULT_MAX_ENTRIES);
+        assertThat(stubReporter.pullCall()).first().isEqualTo(Diagnostic.Kind.WARNING);
+        stubReporter.assertNoMoreInteractions();
+    }
+
+    @Test
+    void testPrerenderThreads() {
+        DocletOptions options = new DocletOptions(reporter);
+        assertThat(options.prerenderThreads()).isZero();
+
+        options.collect(AsciidocletOptions.PRERENDER_THREADS, List.of("4"));
+        assertThat(options.prerenderThreads()).isEqualTo(4);
+    }
+
+    @Test
+    void testAsciidoctorPoolSize() {
+        DocletOptions options = new DocletOptions(reporter);
+        assertThat(options.asciidoctorPoolSize()).isEqualTo(1);
+
+        options.collect(AsciidocletOptions.PRERENDER_THREADS, List.of("4"));
+        assertThat(options.asciidoctorPoolSize()).isEqualTo(4);
+
+        options.collect(AsciidocletOptions.POOL_SIZE, List.of("2"));
+        assertThat(options.asciidoctorPoolSize()).isEqualTo(2);
+    }
+
+    @Test
+    void testStats() {
+        StubReporter reporter = new StubReporter();
+        DocletOptions options = new DocletOptions(reporter);
+        assertThat(options.stats()).isEqualTo(ConversionStats.Report.NONE);
+
+        options.collect(AsciidocletOptions.STATS, List.of("JSON"));
+        assertThat(options.stats()).isEqualTo(ConversionStats.Report.JSON);
+
+        options.collect(AsciidocletOptions.STATS, List.of("verbose"));
+        assertThat(options.stats()).isEqualTo(ConversionStats.Report.JSON);
+        assertThat(reporter.pullCall()).containsExactly(Diagnostic.Kind.WARNING, "Invalid value for --asciidoclet-stats: verbose, expected summary or json");
+    }
+
+    @Test
+    void testSlowestComments() {
+        DocletOptions options = new DocletOptions(reporter);
+        assertThat(options.slowestComments()).isZero();
+
+        options.collect(AsciidocletOptions.SLOWEST_COMMENTS, List.of("10"));
+        assertThat(options.slowestComments()).isEqualTo(10);
+    }
+
+    @Test
+    void testHighlighter() {
+        DocletOptions options = new DocletOptions(reporter);
+        assertThat(options.highlighter()).isEqualTo(AsciidocletHighlighter.NAME);
+
+        options.collect(AsciidocletOptions.HIGHLIGHTER, List.of("coderay"));
+        assertThat(options.highlighter()).isEqualTo("coderay");
+    }
+
+    @Test
+    void testDaemon() {
+        DocletOptions options = new DocletOptions(reporter);
+        assertThat(options.daemonIdleTimeout()).isZero();
+
+        options.collect(AsciidocletOptions.BASEDIR, List.of("base"));
+        options.collect(AsciidocletOptions.ATTRIBUTES_FILE, List.of("attributes.adoc"));
+        options.collect(AsciidocletOptions.ATTRIBUTE, List.of("a=1,b=2"));
+        options.collect(AsciidocletOptions.STATS, List.of("summary"));
+        options.collect(AsciidocletOptions.DAEMON, List.of("600"));
+
+        assertThat(options.daemonIdleTimeout()).isEqualTo(600);
+        assertThat(options.daemonArguments()).containsExactly(
+                "BASEDIR", new File("base").getAbsolutePath(),
+                "ATTRIBUTES_FILE", new File("base", "attributes.adoc").getAbsolutePath(),
+                "ATTRIBUTE", "a=1,b=2");
+    }
+
+    @Test
+    void testBatch() {
+        StubReporter reporter = new StubReporter();
+        DocletOptions options = new DocletOptions(reporter);
+        assertThat(options.batchUnits()).isFalse();
+        assertThat(options.batchFragments()).isFalse();
+
+        options.collect(AsciidocletOptions.BATCH, List.of("Unit"));
+        assertThat(options.batchUnits()).isTrue();
+        assertThat(options.batchFragments()).isFalse();
+
+        options.collect(AsciidocletOptions.BATCH, List.of("file"));
+        assertThat(options.batchUnits()).isTrue();
+        assertThat(reporter.pullCall()).containsExactly(Diagnostic.Kind.WARNING,
+                "Invalid value for --asciidoclet-batch: file, expected comment or unit, optionally with fragments");
+
+        options.collect(AsciidocletOptions.BATCH, List.of("comment, fragments"));
+        assertThat(options.batchUnits()).isFalse();
+        assertThat(options.batchFragments()).isTrue();
+        // Daemons batch fragments as the run asks.
+        assertThat(options.daemonArguments()).endsWith("BATCH", "comment, fragments");
+    }
+
+    @Test
+    void testFilters() {
+        DocletOptions options = new DocletOptions(reporter);
+        assertThat(options.filter().isEverything()).isTrue();
+
+        options.collect(AsciidocletOptions.INCLUDE_FILTER, List.of("org.example.**, com.example.**"));
+        options.collect(AsciidocletOptions.EXCLUDE_FILTER, List.of("**.internal.**"));
+        AsciidocFilter filter = options.filter();
+
+        assertThat(filter.matches("org.example.Foo")).isTrue();
+        assertThat(filter.matches("com.example.Foo")).isTrue();
+        assertThat(filter.matches("org.example.internal.Foo")).isFalse();
+        assertThat(filter.matches("net.example.Foo")).isFalse();
+    }
 }
@@ -18,6 +18,8 @@ package org.asciidoctor.asciidoclet;
 import org.asciidoctor.asciidoclet.JavadocParser.Tag;
 import org.junit.jupiter.api.Test;
 
+import java.util.Random;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 class JavadocParserTest {
@@ -33,8 +35,7 @@ class JavadocParserTest {
         JavadocParser parser = JavadocParser.parse("plain body\n@see OtherPlace");
         assertThat(parser.getCommentBody()).isEqualTo("plain body");
         assertThat(parser.tags())
-                .usingRecursiveFieldByFieldElementComparator()
-                .contains(new Tag("@see", "OtherPlace"));
+                .contains(Tag.of("@see", "OtherPlace"));
     }
 
     @Test
@@ -42,8 +43,7 @@ class JavadocParserTest {
         JavadocParser parser = JavadocParser.parse("@see Other");
         assertThat(parser.getCommentBody()).isEqualTo("");
         assertThat(parser.tags())
-                .usingRecursiveFieldByFieldElementComparator()
-                .contains(new Tag("@see", "Other"));
+                .contains(Tag.of("@see", "Other"));
     }
 
     @Test
@@ -51,8 +51,7 @@ class JavadocParserTest {
         JavadocParser parser = JavadocParser.parse("@see Other\n place");
         assertThat(parser.getCommentBody()).isEqualTo("");
         assertThat(parser.tags())
-                .usingRecursiveFieldByFieldElementComparator()
-                .contains(new Tag("@see", "Other\n place"));
+                .contains(Tag.of("@see", "Other\n place"));
     }
 
     @Test
@@ -60,8 +59,7 @@ class JavadocParserTest {
         JavadocParser parser = JavadocParser.parse("@see Other\n@throws Exception");
         assertThat(parser.getCommentBody()).isEqualTo("");
         assertThat(parser.tags())
-                .usingRecursiveFieldByFieldElementComparator()
-                .containsExactlyInAnyOrder(new Tag("@see", "Other"), new Tag("@throws", "Exception"));
+                .containsExactlyInAnyOrder(Tag.of("@see", "Other"), Tag.of("@throws", "Exception"));
     }
 
     @Test
@@ -69,8 +67,7 @@ class JavadocParserTest {
         JavadocParser parser = JavadocParser.parse("@see Other\n place\nnearby\n@throws Exception\non error");
         assertThat(parser.getCommentBody()).isEqualTo("");
         assertThat(parser.tags())
-                .usingRecursiveFieldByFieldElementComparator()
-                .containsExactlyInAnyOrder(new Tag("@see", "Other\n place\nnearby"), new Tag("@throws", "Exception\non error"));
+                .containsExactlyInAnyOrder(Tag.of("@see", "Other\n place\nnearby"), Tag.of("@throws", "Exception\non error"));
     }
 
     @Test
@@ -78,7 +75,58 @@ class JavadocParserTest {
         JavadocParser parser = JavadocParser.parse("Body\n--\n@see bla\n--\n@see foo");
         assertThat(parser.getCommentBody()).isEqualTo("Body\n--\n@see bla\n--");
         assertThat(parser.tags())
-                .usingRecursiveFieldByFieldElementComparator()
-                .contains(new Tag("@see", "foo"));
+                .contains(Tag.of("@see", "foo"));
+    }
+
+    @Test
+    void parseInvalidTagAsText() {
+        JavadocParser parser = JavadocParser.parse("Body\n@ not a tag\n@see foo");
+        assertThat(parser.getCommentBody()).isEqualTo("Body\n@ not a tag");
+        assertThat(parser.tags()).containsExactly(Tag.of("@see", "foo"));
+    }
+
+    @Test
+    void parseUnclosedBlock() {
+        JavadocParser parser = JavadocParser.parse("Body\n----\ncode\n@see foo");
+        assertThat(parser.getCommentBody()).isEqualTo("Body\n----\ncode");
+        assertThat(parser.tags()).containsExactly(Tag.of("@see", "foo"));
+    }
+
+    @Test
+    void parseCharSequenceWithoutCopying() {
+        StringBuilder comment = new StringBuilder("Body\n@param p the parameter\n@return the result");
+        JavadocParser parser = JavadocParser.parse(comment);
+        assertThat(parser.getCommentBody()).isEqualTo("Body");
+        assertThat(parser.tags()).containsExactly(Tag.of("@param", "p the parameter"), Tag.of("@return", "the result"));
+    }
+
+    @Test
+    void parseMatchesRegexImplementation() {
+        String[] pieces = {"a", "text", " ", "  ", "\t", "\n", "\r", "\r\n", "\u0085", "\u2028", "\u000B", "\f",
+                "@", "@see", "@param", "@1", "@_x", "@ ", "@{", "x@y", "{@code x}",
+                "--", "---", "----", "====", "===", "////", "```", "....", "____", "****", "|===", "|=="};
+        Random random = new Random(42);
+        int compared = 0;
+        for (int i = 0; i < 100_000; i++) {
+            StringBuilder input = new StringBuilder();
+            int length = random.nextInt(16);
+            for (int j = 0; j < length; j++) {
+                input.append(pieces[random.nextInt(pieces.length)]);
+            }
+            String text = input.toString();
+            RegexJavadocParser expected;
+            try {
+                expected = RegexJavadocParser.parse(text);
+            } catch (IndexOutOfBoundsException e) {
+                // An invalid tag before any valid one broke the regex parser; the scanner reads it as text.
+                continue;
+            }
+            JavadocParser actual = JavadocParser.parse(text);
+            String description = text.replace("\n", "\\n").replace("\r", "\\r");
+            assertThat(actual.getCommentBody()).as("body of %s", description).isEqualTo(expected.commentBody);
+            assertThat(actual.tags()).as("tags of %s", description).isEqualTo(expected.tags());
+            compared++;
+        }
+        assertThat(compared).isGreaterThan(50_000);
     }
 }
@@ -28,15 +28,40 @@ import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
-import java.util.function.Function;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
 
 class LazyDocCommentTableProcessorTest {
 
     @Test
-    void testProcessComments() throws NoSuchMethodException, InvocationTargetException, InstantiationException, IllegalAccessException {
-        // Just make sure the processComments method returns normally for now.
-        LazyDocCommentTableProcessor.processComments(createLazyDocCommentTable(), commentMapper());
+    void testProcessAllComments() throws NoSuchMethodException, InvocationTargetException, InstantiationException, IllegalAccessException {
+        LazyDocCommentTableProcessor.processAllComments(createLazyDocCommentTable(), comments -> comments);
+    }
+
+    @Test
+    void testEachTableIsProcessedOnce() throws NoSuchMethodException, InvocationTargetException, InstantiationException, IllegalAccessException {
+        ConversionStats stats = new ConversionStats();
+        DocCommentTableTracker tracker = new DocCommentTableTracker(stats);
+        LazyDocCommentTable first = createLazyDocCommentTable();
+        LazyDocCommentTable second = createLazyDocCommentTable();
+        AtomicInteger invocations = new AtomicInteger();
+        UnaryOperator<List<Comment>> commentMapper = comments -> {
+            invocations.incrementAndGet();
+            return comments;
+        };
+
+        for (int i = 0; i < 3; i++) {
+            tracker.process(first, commentMapper);
+        }
+        tracker.process(second, commentMapper);
+
+        assertThat(invocations).hasValue(2);
+        assertThat(stats.commentTables()).isEqualTo(2);
+        assertThat(stats.repeatedCommentTableRequests()).isEqualTo(2);
     }
 
     private LazyDocCommentTable createLazyDocCommentTable() throws NoSuchMethodException, InvocationTargetException, InstantiationException, IllegalAccessException {
@@ -46,10 +71,6 @@ class LazyDocCommentTableProcessorTest {
         return constructor.newInstance(createParserFactory());
     }
 
-    private Function<Comment, Comment> commentMapper() {
-        return Function.identity();
-    }
-
     private ParserFactory createParserFactory() {
         return ParserFactory.instance(createContext());
     }
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class OutputTemplatesTest {
+
+    @TempDir
+    Path cacheRoot;
+
+    @Test
+    void testTemplateDirIsReused() throws Exception {
+        OutputTemplates first = OutputTemplates.create(new StubReporter(), cacheRoot);
+        OutputTemplates second = OutputTemplates.create(new StubReporter(), cacheRoot);
+
+        assertThat(first.templateDir()).isEqualTo(second.templateDir());
+        assertThat(first.templateDir().getParent()).isEqualTo(cacheRoot);
+        assertThat(first.templateDir()).isDirectoryContaining("glob:**/paragraph.html.haml")
+                .isDirectoryContaining("glob:**/section.html.haml");
+        assertThat(listCacheRoot()).containsExactly(first.templateDir());
+    }
+
+    @Test
+    void testConcurrentCreationSharesOneDirectory() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Path>> tasks = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                tasks.add(() -> OutputTemplates.create(new StubReporter(), cacheRoot).templateDir());
+            }
+            List<Path> dirs = new ArrayList<>();
+            for (Future<Path> future : executor.invokeAll(tasks)) {
+                dirs.add(future.get());
+            }
+
+            assertThat(dirs).containsOnly(dirs.get(0));
+            assertThat(listCacheRoot()).containsExactly(dirs.get(0));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testDamagedTemplateDirIsNotUsed() throws Exception {
+        Path shared = OutputTemplates.create(new StubReporter(), cacheRoot).templateDir();
+        Files.writeString(shared.resolve("paragraph.html.haml"), "%p broken");
+
+        Path templateDir = OutputTemplates.create(new StubReporter(), cacheRoot).templateDir();
+
+        assertThat(templateDir).isNotEqualTo(shared);
+        assertThat(Files.readString(templateDir.resolve("paragraph.html.haml"))).isNotEqualTo("%p broken");
+    }
+
+    @Test
+    void testTemplateDirWritableByOthersIsNotUsed() throws Exception {
+        Path shared = OutputTemplates.create(new StubReporter(), cacheRoot).templateDir();
+        assumeTrue(shared.getFileSystem().supportedFileAttributeViews().contains("posix"));
+        Files.setPosixFilePermissions(shared, PosixFilePermissions.fromString("rwxrwxrwx"));
+
+        Path templateDir = OutputTemplates.create(new StubReporter(), cacheRoot).templateDir();
+
+        assertThat(templateDir).isNotEqualTo(shared);
+        assertThat(templateDir).isDirectoryContaining("glob:**/paragraph.html.haml");
+    }
+
+    @Test
+    void testUnusableCacheRootFallsBackToTemporaryDir() throws Exception {
+        Path file = Files.createFile(cacheRoot.resolve("file"));
+        StubReporter reporter = new StubReporter();
+
+        OutputTemplates templates = OutputTemplates.create(reporter, file);
+
+        assertThat(templates.templateDir().startsWith(file)).isFalse();
+        assertThat(templates.templateDir()).isDirectoryContaining("glob:**/section.html.haml");
+        reporter.assertNoMoreInteractions();
+    }
+
+    private List<Path> listCacheRoot() throws Exception {
+        try (Stream<Path> paths = Files.list(cacheRoot)) {
+            return paths.collect(Collectors.toList());
+        }
+    }
+}
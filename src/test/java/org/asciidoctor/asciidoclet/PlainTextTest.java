@@ -0,0 +1,91 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+import org.asciidoctor.Asciidoctor;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PlainTextTest {
+
+    private static Asciidoctor asciidoctor;
+    private static ConversionOptions options;
+
+    @BeforeAll
+    static void setup() {
+        StubReporter reporter = new StubReporter();
+        asciidoctor = Asciidoctor.Factory.create();
+        options = ConversionOptions.create(asciidoctor, new DocletOptions(reporter), OutputTemplates.create(reporter), reporter);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        asciidoctor.shutdown();
+    }
+
+    @Test
+    void testPlainText() {
+        assertThat(PlainText.isPlain("Returns the number of elements in this list.", false)).isTrue();
+        assertThat(PlainText.isPlain("the value, or 0 if it's not set", true)).isTrue();
+        assertThat(PlainText.isPlain("First paragraph.\n\nSecond paragraph.", false)).isTrue();
+
+        assertThat(PlainText.render("it's a & b", true)).isEqualTo("it&#8217;s a &amp; b");
+        assertThat(PlainText.render("First.\n\nSecond.", false)).isEqualTo("<p>First.</p>\n<p>Second.</p>");
+    }
+
+    @Test
+    void testMarkupIsNotPlainText() {
+        String[] markup = {"*bold*", "a `code` b", "see https://asciidoc.org", "a -- b", "wait...", "a\n* b", "1. first",
+                "a. first", "i) first", "NOTE: careful", "x &amp; y", "(C) 2024", "a ((term)) b", "a\n\nb", "{attr}",
+                "x@example.com", "a +\nb", "a\n\n", " indented", "term:: definition", "List<String>", "e.g. this"};
+        for (String text : markup) {
+            assertThat(PlainText.isPlain(text, true)).as(text).isFalse();
+        }
+    }
+
+    @Test
+    void testRenderingMatchesAsciidoctor() {
+        String[] pieces = {"a", "Returns", "the", "value", "X", "NOTE", "e", "i", "42", "1", " ", "  ", "\n", "\n\n", "\n\n\n",
+                ".", "..", ",", ";", ":", "::", "!", "?", "%", "$", "$$", "\"", "'", "''", "'''", "-", "--", "/", "//",
+                "(", ")", "((", "(C)", "(R)", "(TM)", "(c)", "&", "& ", "&amp;", "&#", "s", "n't", "'s", "x'", "'y",
+                "*", "_", "#", "`", "^", "~", "+", "[", "]", "{", "}", "<", ">", "=", "|", "\\", "@", "\t"};
+        Random random = new Random(42);
+        int compared = 0;
+        for (int i = 0; i < 1_000_000 && compared < 10_000; i++) {
+            StringBuilder input = new StringBuilder();
+            int length = 1 + random.nextInt(12);
+            for (int j = 0; j < length; j++) {
+                input.append(pieces[random.nextInt(pieces.length)]);
+            }
+            String text = input.toString();
+            boolean inline = random.nextBoolean();
+            if (!PlainText.isPlain(text, inline)) {
+                continue;
+            }
+            String expected = asciidoctor.convert(text, options.forMode(inline));
+            assertThat(PlainText.render(text, inline))
+                    .as("%s (%s)", text.replace("\n", "\\n"), inline ? "inline" : "block")
+                    .isEqualTo(expected);
+            compared++;
+        }
+        assertThat(compared).isEqualTo(10_000);
+    }
+}
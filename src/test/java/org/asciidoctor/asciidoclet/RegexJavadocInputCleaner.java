@@ -0,0 +1,31 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+/**
+ * The original, regular expression based, implementation of {@link AsciidoctorConverter#cleanJavadocInput(String)},
+ * which the single-pass one must be equivalent to.
+ */
+class RegexJavadocInputCleaner {
+
+    static String clean(String input) {
+        return input.trim()
+                .replaceAll("\n ", "\n") // Newline space to accommodate javadoc newlines.
+                .replaceAll("\\{at}", "&#64;") // {at} is translated into @.
+                .replaceAll("\\{slash}", "/") // {slash} is translated into /.
+                .replaceAll("(?m)^( *)\\*\\\\/$", "$1*/"); // Multi-line comment end tag is translated into */.
+    }
+}
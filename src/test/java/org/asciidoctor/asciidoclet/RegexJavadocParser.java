@@ -0,0 +1,94 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.util.regex.Pattern.MULTILINE;
+import static java.util.regex.Pattern.compile;
+import static java.util.regex.Pattern.quote;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Stream.of;
+
+/**
+ * The original, regular expression based, implementation of {@link JavadocParser},
+ * which the scanner must be equivalent to.
+ */
+class RegexJavadocParser {
+
+    private static final String[] DELIMITERS = {"====", "////", "```", "----", "....", "--", "____", "****", "|==="};
+    private static final Pattern DELIMITER_OR_TAG =
+            compile("(^\\s*)((" + of(DELIMITERS).map(Pattern::quote).collect(joining(")|(")) + ")|@)", MULTILINE);
+    @SuppressWarnings("unchecked")
+    private static final Map<String, Pattern> DELIMITER_PATTERNS = Map.ofEntries(of(DELIMITERS)
+            .map(k -> Map.entry(k, compile("(^\\s*)" + quote(k), MULTILINE))).toArray(Map.Entry[]::new));
+    private static final Pattern TAG_NAME = compile("\\G(\\w+)\\s*");
+
+    final List<String> tagNames = new ArrayList<>();
+    final List<String> tagTexts = new ArrayList<>();
+    String commentBody;
+
+    static RegexJavadocParser parse(String commentString) {
+        RegexJavadocParser parser = new RegexJavadocParser();
+        parser.parseComment(commentString);
+        return parser;
+    }
+
+    private void parseComment(String commentString) {
+        Matcher matcher = DELIMITER_OR_TAG.matcher(commentString);
+        int captureSince = 0;
+        while (matcher.find()) {
+            String group = matcher.group(2);
+            if (group.equals("@")) {
+                int startOfMatch = matcher.start();
+                captureComponent(commentString, captureSince, startOfMatch);
+                matcher.usePattern(TAG_NAME);
+                if (matcher.find()) {
+                    tagNames.add(group + matcher.group(1));
+                    tagTexts.add(null);
+                    captureSince = matcher.end();
+                }
+                matcher.usePattern(DELIMITER_OR_TAG);
+            } else {
+                matcher.usePattern(DELIMITER_PATTERNS.get(group));
+                matcher.find();
+                matcher.usePattern(DELIMITER_OR_TAG);
+            }
+        }
+        captureComponent(commentString, captureSince, commentString.length());
+    }
+
+    private void captureComponent(String commentString, int captureSince, int endOfCapture) {
+        String component = commentString.substring(captureSince, endOfCapture).trim();
+        if (commentBody == null) {
+            commentBody = component;
+        } else {
+            tagTexts.set(tagTexts.size() - 1, component);
+        }
+    }
+
+    List<JavadocParser.Tag> tags() {
+        List<JavadocParser.Tag> tags = new ArrayList<>();
+        for (int i = 0; i < tagNames.size(); i++) {
+            tags.add(JavadocParser.Tag.of(tagNames.get(i), tagTexts.get(i)));
+        }
+        return tags;
+    }
+}
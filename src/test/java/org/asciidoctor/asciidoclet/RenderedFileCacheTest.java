@@ -0,0 +1,127 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+import org.junit.jupiter.api.Test;
+
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RenderedFileCacheTest {
+
+    private final ConversionStats stats = new ConversionStats();
+    private final RenderedFileCache cache = new RenderedFileCache(stats);
+    private final AtomicInteger renders = new AtomicInteger();
+
+    @Test
+    void testFileIsRenderedOnce() throws IOException {
+        FileObject overview = new StubFile("overview.adoc", 1);
+
+        assertThat(cache.get(overview, false, this::render)).isEqualTo("overview.adoc@1");
+        assertThat(cache.get(new StubFile("overview.adoc", 1), false, this::render)).isEqualTo("overview.adoc@1");
+
+        assertThat(renders).hasValue(1);
+        assertThat(stats.fileCacheHits()).isEqualTo(1);
+    }
+
+    @Test
+    void testFilesAreCachedByUri() throws IOException {
+        cache.get(new StubFile("overview.adoc", 1), false, this::render);
+        cache.get(new StubFile("package.adoc", 1), false, this::render);
+
+        assertThat(renders).hasValue(2);
+        assertThat(stats.fileCacheHits()).isZero();
+    }
+
+    @Test
+    void testModifiedFileIsRenderedAgain() throws IOException {
+        cache.get(new StubFile("overview.adoc", 1), false, this::render);
+
+        assertThat(cache.get(new StubFile("overview.adoc", 2), false, this::render)).isEqualTo("overview.adoc@2");
+        assertThat(cache.get(new StubFile("overview.adoc", 2), false, this::render)).isEqualTo("overview.adoc@2");
+        assertThat(renders).hasValue(2);
+        assertThat(stats.fileCacheHits()).isEqualTo(1);
+    }
+
+    @Test
+    void testReadFailureIsNotCached() throws IOException {
+        FileObject overview = new StubFile("overview.adoc", 1);
+
+        assertThatThrownBy(() -> cache.get(overview, false, fo -> {
+            throw new FileNotFoundException(fo.getName());
+        })).isInstanceOf(FileNotFoundException.class);
+        assertThat(cache.get(overview, false, this::render)).isEqualTo("overview.adoc@1");
+    }
+
+    @Test
+    void testEncodingErrorModesAreCachedApart() throws IOException {
+        FileObject overview = new StubFile("overview.adoc", 1);
+
+        cache.get(overview, false, this::render);
+        cache.get(overview, true, this::render);
+        cache.get(overview, true, this::render);
+
+        assertThat(renders).hasValue(2);
+        assertThat(stats.fileCacheHits()).isEqualTo(1);
+    }
+
+    @Test
+    void testRenderMayReadOtherFiles() throws IOException {
+        FileObject overview = new StubFile("overview.adoc", 1);
+        FileObject included = new StubFile("included.adoc", 1);
+
+        String html = cache.get(overview, false, fo -> render(fo) + "+" + cache.get(included, false, this::render));
+
+        assertThat(html).isEqualTo("overview.adoc@1+included.adoc@1");
+        assertThat(cache.get(included, false, this::render)).isEqualTo("included.adoc@1");
+        assertThat(renders).hasValue(2);
+    }
+
+    private String render(FileObject fileObject) {
+        renders.incrementAndGet();
+        return fileObject.getName() + "@" + fileObject.getLastModified();
+    }
+
+    private static class StubFile extends SimpleJavaFileObject {
+
+        private final String name;
+        private final long lastModified;
+
+        StubFile(String name, long lastModified) {
+            super(URI.create("file:///" + name), JavaFileObject.Kind.OTHER);
+            this.name = name;
+            this.lastModified = lastModified;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public long getLastModified() {
+            return lastModified;
+        }
+    }
+}
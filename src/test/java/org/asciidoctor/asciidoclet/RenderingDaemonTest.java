@@ -0,0 +1,286 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RenderingDaemonTest {
+
+    private static final String DOC = "A *bold* body with `code`.\n\n[source,java]\n----\nint x;\n----\n@param p the `p`\n@return the value";
+
+    @TempDir
+    static Path root;
+
+    private static Path stateDir;
+    private static RenderingDaemon daemon;
+    private static Thread daemonThread;
+
+    @BeforeAll
+    static void setup() {
+        stateDir = root.resolve("shared");
+        daemon = new RenderingDaemon(stateDir, 600);
+        daemonThread = run(daemon);
+        await(() -> Files.exists(stateDir.resolve(RenderingDaemon.STATE_FILE)));
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        daemon.stop();
+        daemonThread.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    @Test
+    void testConvertsLikeInProcess() {
+        StubReporter reporter = new StubReporter();
+        DocletOptions options = new DocletOptions(reporter);
+        RenderingDaemonClient client = RenderingDaemonClient.connect(stateDir, options.daemonArguments(), reporter);
+        assertThat(client).isNotNull();
+
+        try (AsciidoctorConverter inProcess = new AsciidoctorConverter(options, reporter);
+             AsciidoctorConverter converter = new AsciidoctorConverter(options, reporter, client)) {
+            assertThat(converter.convert(DOC)).isEqualTo(inProcess.convert(DOC));
+            assertThat(converter.convertAll(List.of(DOC, "Other _text_."))).isEqualTo(inProcess.convertAll(List.of(DOC, "Other _text_.")));
+            assertThat(converter.usesDaemon()).isTrue();
+            assertThat(converter.pool().created()).isZero();
+            assertThat(converter.stats().daemon().count()).isEqualTo(2);
+        }
+        reporter.assertNoMoreInteractions();
+    }
+
+    @Test
+    void testFallsBackToInProcess() {
+        StubReporter reporter = new StubReporter();
+        DocletOptions options = new DocletOptions(reporter);
+        RenderingDaemonClient client = RenderingDaemonClient.connect(stateDir, options.daemonArguments(), reporter);
+
+        try (AsciidoctorConverter inProcess = new AsciidoctorConverter(options, reporter);
+             AsciidoctorConverter converter = new AsciidoctorConverter(options, reporter, client)) {
+            client.close();
+
+            assertThat(converter.convert(DOC)).isEqualTo(inProcess.convert(DOC));
+            assertThat(converter.usesDaemon()).isFalse();
+            assertThat(converter.pool().created()).isEqualTo(1);
+        }
+        List<Object> call = reporter.pullCall();
+        assertThat(call.get(0)).isEqualTo(Diagnostic.Kind.WARNING);
+        assertThat((String) call.get(1)).startsWith("Rendering daemon failed, converting in process");
+        reporter.assertNoMoreInteractions();
+    }
+
+    @Test
+    void testConvertsWithTheOptionsOfTheRun() {
+        StubReporter reporter = new StubReporter();
+        DocletOptions options = new DocletOptions(reporter);
+        options.collect(AsciidocletOptions.ATTRIBUTE, List.of("product=Asciidoclet"));
+
+        try (RenderingDaemonClient client = RenderingDaemonClient.connect(stateDir, options.daemonArguments(), reporter)) {
+            assertThat(client).isNotNull();
+            assertThat(new AsciidoctorConverter(options, reporter, client).convert("Welcome to {product}."))
+                    .contains("Welcome to Asciidoclet.");
+        }
+        reporter.assertNoMoreInteractions();
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsedConvertersAndPools() throws Exception {
+        Path boundedDir = root.resolve("bounded");
+        RenderingDaemon bounded = new RenderingDaemon(boundedDir, 600, 2, 1);
+        Thread thread = run(bounded);
+        await(() -> Files.exists(boundedDir.resolve(RenderingDaemon.STATE_FILE)));
+        StubReporter reporter = new StubReporter();
+        try {
+            for (String product : List.of("One", "Two", "Three")) {
+                DocletOptions options = new DocletOptions(reporter);
+                options.collect(AsciidocletOptions.ATTRIBUTE, List.of("product=" + product));
+                assertThat(convertWithDaemon(boundedDir, options, reporter, "Welcome to {product}.")).contains("Welcome to " + product + ".");
+            }
+            assertThat(bounded.converterCount()).isEqualTo(2);
+            assertThat(bounded.openPools()).isEqualTo(1);
+
+            DocletOptions other = new DocletOptions(reporter);
+            other.collect(AsciidocletOptions.REQUIRE, List.of("asciidoctor/converter/docbook5"));
+            assertThat(convertWithDaemon(boundedDir, other, reporter, DOC)).contains("<strong>bold</strong>");
+            // The previous pool goes with its converters, once the run using it has disconnected.
+            assertThat(bounded.converterCount()).isEqualTo(1);
+            await(() -> bounded.openPools() == 1);
+        } finally {
+            bounded.stop();
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        reporter.assertNoMoreInteractions();
+    }
+
+    @Test
+    void testRefusesForeignStateFiles() throws Exception {
+        Path forged = root.resolve("forged");
+        assertThat(PrivateDirs.create(forged)).isTrue();
+        Properties state = readState(stateDir);
+        StubReporter reporter = new StubReporter();
+
+        state.setProperty("token", "0123456789abcdef0123456789abcdef");
+        writeState(forged, state);
+        assertThat(RenderingDaemonClient.connect(forged, List.of(), reporter)).isNull();
+
+        state = readState(stateDir);
+        state.setProperty("version", "0000000000000000");
+        writeState(forged, state);
+        assertThat(RenderingDaemonClient.connect(forged, List.of(), reporter)).isNull();
+
+        assertThat(RenderingDaemonClient.connect(root.resolve("missing"), List.of(), reporter)).isNull();
+        reporter.assertNoMoreInteractions();
+    }
+
+    @Test
+    void testRereadsChangedAttributesFile() throws Exception {
+        Path attributesFile = root.resolve("attributes.adoc");
+        StubReporter reporter = new StubReporter();
+        DocletOptions options = new DocletOptions(reporter);
+        options.collect(AsciidocletOptions.ATTRIBUTES_FILE, List.of(attributesFile.toString()));
+
+        Files.writeString(attributesFile, ":product: First\n");
+        assertThat(convertWithDaemon(options, reporter, "Welcome to {product}.")).contains("Welcome to First.");
+        Files.writeString(attributesFile, ":product: Second\n");
+        assertThat(convertWithDaemon(options, reporter, "Welcome to {product}.")).contains("Welcome to Second.");
+        reporter.assertNoMoreInteractions();
+    }
+
+    @Test
+    void testRereadsIncludedFiles() throws Exception {
+        Path includeDir = Files.createDirectories(root.resolve("includes"));
+        StubReporter reporter = new StubReporter();
+        DocletOptions options = new DocletOptions(reporter);
+        options.collect(AsciidocletOptions.BASEDIR, List.of(includeDir.toString()));
+
+        Files.writeString(includeDir.resolve("included.adoc"), "First version.\n");
+        assertThat(convertWithDaemon(options, reporter, "include::included.adoc[]")).contains("First version.");
+        Files.writeString(includeDir.resolve("included.adoc"), "Second version.\n");
+        assertThat(convertWithDaemon(options, reporter, "include::included.adoc[]")).contains("Second version.");
+        reporter.assertNoMoreInteractions();
+    }
+
+    @Test
+    void testOnlyOneDaemonServesADirectory() throws Exception {
+        Properties state = readState(stateDir);
+
+        new RenderingDaemon(stateDir, 600).run();
+
+        assertThat(readState(stateDir)).isEqualTo(state);
+    }
+
+    @Test
+    void testStopsWhenIdle() throws Exception {
+        Path idleDir = root.resolve("idle");
+        Thread thread = run(new RenderingDaemon(idleDir, 1));
+        await(() -> Files.exists(idleDir.resolve(RenderingDaemon.STATE_FILE)));
+
+        StubReporter reporter = new StubReporter();
+        RenderingDaemonClient client = RenderingDaemonClient.connect(idleDir, List.of(), reporter);
+        assertThat(client).isNotNull();
+        Thread.sleep(1500);
+        assertThat(thread.isAlive()).isTrue();
+        client.close();
+
+        thread.join(TimeUnit.SECONDS.toMillis(30));
+        assertThat(thread.isAlive()).isFalse();
+        assertThat(idleDir.resolve(RenderingDaemon.STATE_FILE)).doesNotExist();
+    }
+
+    @Test
+    void testStartsDaemonProcess() {
+        Path processDir = root.resolve("process");
+        StubReporter reporter = new StubReporter();
+
+        RenderingDaemonClient.start(processDir, 2, reporter);
+        await(() -> Files.exists(processDir.resolve(RenderingDaemon.STATE_FILE)));
+
+        try (RenderingDaemonClient client = RenderingDaemonClient.connect(processDir, List.of(), reporter)) {
+            assertThat(client).isNotNull();
+            assertThat(new AsciidoctorConverter(new DocletOptions(reporter), reporter, client).convert("A *bold* body."))
+                    .contains("<strong>bold</strong>");
+        }
+        await(() -> !Files.exists(processDir.resolve(RenderingDaemon.STATE_FILE)));
+        reporter.assertNoMoreInteractions();
+    }
+
+    // Each call stands for a javadoc run of its own.
+    private static String convertWithDaemon(DocletOptions options, StubReporter reporter, String doc) {
+        return convertWithDaemon(stateDir, options, reporter, doc);
+    }
+
+    private static String convertWithDaemon(Path dir, DocletOptions options, StubReporter reporter, String doc) {
+        try (RenderingDaemonClient client = RenderingDaemonClient.connect(dir, options.daemonArguments(), reporter)) {
+            assertThat(client).isNotNull();
+            return new AsciidoctorConverter(options, reporter, client).convert(doc);
+        }
+    }
+
+    private static Thread run(RenderingDaemon daemon) {
+        Thread thread = new Thread(() -> {
+            try {
+                daemon.run();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, "rendering-daemon-test");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(120);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("timed out").isLessThan(deadline);
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static Properties readState(Path dir) throws IOException {
+        Properties state = new Properties();
+        try (Reader reader = Files.newBufferedReader(dir.resolve(RenderingDaemon.STATE_FILE))) {
+            state.load(reader);
+        }
+        return state;
+    }
+
+    private static void writeState(Path dir, Properties state) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(dir.resolve(RenderingDaemon.STATE_FILE))) {
+            state.store(writer, null);
+        }
+    }
+}
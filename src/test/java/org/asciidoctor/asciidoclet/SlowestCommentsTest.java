@@ -0,0 +1,72 @@
+/*
+ * Copyright 2013-2024 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.asciidoctor.asciidoclet;
+
+import org.junit.jupiter.api.Test;
+
+import javax.tools.Diagnostic;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlowestCommentsTest {
+
+    private static final Supplier<String> NOT_COMPUTED = () -> {
+        throw new AssertionError("description computed");
+    };
+
+    @Test
+    void testSlowestConversionsAreKept() {
+        SlowestComments slowest = new SlowestComments(2);
+
+        slowest.record(2_000_000, () -> "Foo#b()", () -> "Foo.java:20");
+        slowest.record(1_000_000, () -> "Foo#a()", () -> "Foo.java:10");
+        slowest.record(3_000_000, () -> "Foo#c()", () -> "Foo.java:30");
+        slowest.record(1_500_000, NOT_COMPUTED, NOT_COMPUTED);
+
+        assertThat(slowest.entries().stream().map(SlowestComments.Entry::element).collect(Collectors.toList()))
+                .containsExactly("Foo#c()", "Foo#b()");
+    }
+
+    @Test
+    void testDisabled() {
+        SlowestComments slowest = new SlowestComments(0);
+
+        slowest.record(1_000_000, NOT_COMPUTED, NOT_COMPUTED);
+
+        assertThat(slowest.isEnabled()).isFalse();
+        assertThat(slowest.entries()).isEmpty();
+    }
+
+    @Test
+    void testReport() {
+        StubReporter reporter = new StubReporter();
+        SlowestComments slowest = new SlowestComments(3);
+        slowest.report(reporter);
+        reporter.assertNoMoreInteractions();
+
+        slowest.record(12_345_678, () -> "org.example.Foo#bar()", () -> "Foo.java:42");
+        slowest.report(reporter);
+
+        List<Object> call = reporter.pullCall();
+        assertThat(call.get(0)).isEqualTo(Diagnostic.Kind.WARNING);
+        assertThat(call.get(1)).isEqualTo("Slowest comment conversions:" + System.lineSeparator()
+                + "      12.3 ms  org.example.Foo#bar() (Foo.java:42)");
+        reporter.assertNoMoreInteractions();
+    }
+}